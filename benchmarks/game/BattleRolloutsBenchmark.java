@@ -0,0 +1,57 @@
+package game;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One battle decision: busters of both teams around a ghost, BATTLE_ROLLOUTS playouts. Should show zero
+ * gc.alloc.rate.norm apart from the setup of the decision.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BattleRolloutsBenchmark {
+    @Param({"1", "3", "5"})
+    int busterCnt;
+
+    @Param({"0", "10"})
+    int stamina;
+
+    @Param({"1000", "4000"})
+    int rollouts;
+
+    BattleRollouts battleRollouts;
+    TurnContext context;
+    Buster buster;
+    List<Ghost> contestedGhosts;
+
+    @Setup
+    public void setUp() {
+        GameParameters gameParameters = new GameParameters();
+        gameParameters.BATTLE_ROLLOUTS = rollouts;
+        Ghost ghost = new GhostBuilder(0, 4500, 8000).stamina(stamina).build();
+        List<Buster> allies = new ArrayList<>();
+        List<Buster> enemies = new ArrayList<>();
+        for (int i = 0; i < busterCnt; i++) {
+            allies.add(new BusterBuilder(3200, 7200 + 300 * i, i).stunCooldown(i % 2 * 10).build());
+            enemies.add(new BusterBuilder(5800, 7200 + 300 * i, busterCnt + i).stunCooldown(i % 3 * 10).build());
+        }
+        contestedGhosts = Collections.singletonList(ghost);
+        BestMoveFinder bestMoveFinder = new BestMoveFinder(gameParameters);
+        context = bestMoveFinder.createTurnContext(new Point(0, 0), allies, enemies, contestedGhosts, Collections.emptyList(), false, new int[1], true);
+        buster = allies.get(0);
+        battleRollouts = new BattleRollouts(gameParameters);
+    }
+
+    @Benchmark
+    public Move findBattleMove() {
+        return battleRollouts.findBattleMove(buster, Move.move(buster.x, buster.y), contestedGhosts, context);
+    }
+}
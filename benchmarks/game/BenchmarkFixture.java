@@ -0,0 +1,73 @@
+package game;
+
+import java.util.*;
+
+/**
+ * A seeded mid-game position on the real map built with the test builders: allies around a random spot,
+ * visible enemies in fog range of them, ghosts of all stamina classes nearby, one courier on each side.
+ */
+public class BenchmarkFixture {
+    static final long SEED = 42;
+
+    final GameParameters gameParameters = new GameParameters();
+    final AbstractBestMoveFinderTest.TestBuilder testBuilder = new AbstractBestMoveFinderTest.TestBuilder();
+    final List<Buster> allies;
+    final List<Buster> enemies;
+    final List<Ghost> ghosts;
+    final List<CheckPoint> checkPoints = new ArrayList<>();
+    final Set<Integer> seenGhosts = new HashSet<>();
+    final FogCoverage fogCoverage;
+    final Point enemyBase;
+
+    BenchmarkFixture(int busterCnt, int ghostCnt, int visibleEnemyCnt) {
+        Random random = new Random(SEED);
+        int enemyCnt = Math.min(visibleEnemyCnt, busterCnt);
+        int centerX = 2500 + random.nextInt(gameParameters.H - 5000);
+        int centerY = 4000 + random.nextInt(gameParameters.W - 8000);
+        List<BusterBuilder> allyBuilders = new ArrayList<>();
+        for (int i = 0; i < busterCnt; i++) {
+            BusterBuilder ally = testBuilder.ally(near(random, centerX, 3000, gameParameters.H), near(random, centerY, 3000, gameParameters.W));
+            ally.stunCooldown(random.nextInt(3) == 0 ? random.nextInt(gameParameters.STUN_COOLDOWN) : 0);
+            allyBuilders.add(ally);
+        }
+        for (int i = 0; i < enemyCnt; i++) {
+            BusterBuilder enemy = testBuilder.enemy(near(random, centerX, 3000, gameParameters.H), near(random, centerY, 3000, gameParameters.W));
+            enemy.stunCooldown(random.nextInt(2) == 0 ? random.nextInt(gameParameters.STUN_COOLDOWN) : 0);
+            if (i == 0) {
+                enemy.carryingGhost(ghostCnt);
+            }
+        }
+        if (busterCnt > 1) {
+            allyBuilders.get(busterCnt - 1).carryingGhost(ghostCnt + 1);
+        }
+        int[] staminaClasses = {0, 3, 15, 40};
+        for (int id = 0; id < ghostCnt; id++) {
+            Ghost ghost = new GhostBuilder(id, near(random, centerX, 4000, gameParameters.H), near(random, centerY, 4000, gameParameters.W))
+                    .stamina(staminaClasses[random.nextInt(staminaClasses.length)])
+                    .build();
+            testBuilder.ghosts.add(ghost);
+            if (random.nextBoolean()) {
+                seenGhosts.add(id);
+            }
+        }
+        allies = AbstractBestMoveFinderTest.buildBusters(testBuilder.allies);
+        enemies = AbstractBestMoveFinderTest.buildBusters(testBuilder.enemies);
+        ghosts = testBuilder.ghosts;
+        enemyBase = Utils.getEnemyBase(testBuilder.myBase, gameParameters);
+
+        for (int i = 0; i < 4; i++) {
+            for (int j = 0; j < 6; j++) {
+                Point p = new Point(i * (gameParameters.H - 1) / 3, j * (gameParameters.W - 1) / 5);
+                checkPoints.add(new CheckPoint(p, random.nextInt(3) == 0 ? CheckPoint.NEVER : random.nextInt(100)));
+            }
+        }
+        fogCoverage = new FogCoverage(gameParameters);
+        for (int i = 0; i < busterCnt * 100; i++) {
+            fogCoverage.stamp(random.nextInt(gameParameters.H), random.nextInt(gameParameters.W));
+        }
+    }
+
+    private static int near(Random random, int center, int spread, int size) {
+        return Math.max(0, Math.min(size - 1, center - spread + random.nextInt(2 * spread + 1)));
+    }
+}
@@ -0,0 +1,123 @@
+package game;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BestMoveFinderBenchmark {
+    @Param({"2", "3", "4", "5"})
+    int busterCnt;
+
+    @Param({"8", "16", "28"})
+    int ghostCnt;
+
+    @Param({"0", "2", "5"})
+    int visibleEnemyCnt;
+
+    BenchmarkFixture fixture;
+    BestMoveFinder bestMoveFinder;
+    TeamPlanner teamPlanner;
+    BeamSearch beamSearch;
+    IterativeDeepening iterativeDeepening;
+
+    @Setup
+    public void setUp() {
+        fixture = new BenchmarkFixture(busterCnt, ghostCnt, visibleEnemyCnt);
+        bestMoveFinder = new BestMoveFinder(fixture.gameParameters);
+        teamPlanner = new TeamPlanner(fixture.gameParameters, bestMoveFinder);
+        beamSearch = new BeamSearch(fixture.gameParameters, bestMoveFinder);
+        iterativeDeepening = new IterativeDeepening(fixture.gameParameters, bestMoveFinder);
+    }
+
+    /**
+     * One whole turn: a decision for every ally, like {@link Interactor#makeMoves}, but each with its own context.
+     */
+    @Benchmark
+    public void findBestMove(Blackhole blackhole) {
+        AbstractBestMoveFinderTest.TestBuilder b = fixture.testBuilder;
+        for (Buster ally : fixture.allies) {
+            blackhole.consume(bestMoveFinder.findBestMove(
+                    ally,
+                    b.myBase,
+                    fixture.allies,
+                    fixture.enemies,
+                    fixture.ghosts,
+                    fixture.checkPoints,
+                    Collections.emptySet(),
+                    new HashSet<>(),
+                    b.halfGhostsCollected,
+                    b.prevMoveBustCnt,
+                    b.iVeSeenItAll
+            ));
+        }
+    }
+
+    /**
+     * One whole turn sharing a single {@link TurnContext}, the way {@link Interactor#makeMoves} does it.
+     */
+    @Benchmark
+    public void findBestMoveWithTurnContext(Blackhole blackhole) {
+        AbstractBestMoveFinderTest.TestBuilder b = fixture.testBuilder;
+        TurnContext context = bestMoveFinder.createTurnContext(b.myBase, fixture.allies, fixture.enemies, fixture.ghosts, fixture.checkPoints, b.halfGhostsCollected, b.prevMoveBustCnt, b.iVeSeenItAll);
+        for (Buster ally : fixture.allies) {
+            Move move = bestMoveFinder.findBestMove(ally, context);
+            context.onMoveCommitted(move);
+            blackhole.consume(move);
+        }
+    }
+
+    /**
+     * Greedy turn followed by {@link TeamPlanner}, the way {@link Interactor#makeMoves} does it with TEAM_SEARCH.
+     */
+    @Benchmark
+    public List<Move> findTeamMoves() {
+        AbstractBestMoveFinderTest.TestBuilder b = fixture.testBuilder;
+        TurnContext context = bestMoveFinder.createTurnContext(b.myBase, fixture.allies, fixture.enemies, fixture.ghosts, fixture.checkPoints, b.halfGhostsCollected, b.prevMoveBustCnt, b.iVeSeenItAll);
+        List<Move> moves = new ArrayList<>();
+        for (Buster ally : fixture.allies) {
+            Move move = bestMoveFinder.findBestMove(ally, context);
+            context.onMoveCommitted(move);
+            moves.add(move);
+        }
+        boolean[] searchable = new boolean[moves.size()];
+        Arrays.fill(searchable, true);
+        // the fixture couriers carry ghosts ghostCnt and ghostCnt + 1
+        return teamPlanner.findTeamMoves(context, moves, searchable, busterCnt, ghostCnt + 2, 100);
+    }
+
+    /**
+     * One whole turn with {@link BeamSearch} instead of the one move lookahead.
+     */
+    @Benchmark
+    public void findBestMoveWithBeamSearch(Blackhole blackhole) {
+        AbstractBestMoveFinderTest.TestBuilder b = fixture.testBuilder;
+        TurnContext context = bestMoveFinder.createTurnContext(b.myBase, fixture.allies, fixture.enemies, fixture.ghosts, fixture.checkPoints, b.halfGhostsCollected, b.prevMoveBustCnt, b.iVeSeenItAll);
+        for (Buster ally : fixture.allies) {
+            Move move = beamSearch.findBestMove(ally, context, busterCnt, ghostCnt + 2, 100);
+            context.onMoveCommitted(move);
+            blackhole.consume(move);
+        }
+    }
+
+    /**
+     * One whole turn with {@link IterativeDeepening}, each buster deepens until its ITERATIVE_DEEPENING_TIME_MS.
+     */
+    @Benchmark
+    public void findBestMoveWithIterativeDeepening(Blackhole blackhole) {
+        AbstractBestMoveFinderTest.TestBuilder b = fixture.testBuilder;
+        TurnContext context = bestMoveFinder.createTurnContext(b.myBase, fixture.allies, fixture.enemies, fixture.ghosts, fixture.checkPoints, b.halfGhostsCollected, b.prevMoveBustCnt, b.iVeSeenItAll);
+        for (Buster ally : fixture.allies) {
+            Move move = iterativeDeepening.findBestMove(ally, context, busterCnt, ghostCnt + 2, 100);
+            context.onMoveCommitted(move);
+            blackhole.consume(move);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package game;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EvaluationKeyBenchmark {
+    @Param({"8", "28"})
+    int ghostCnt;
+
+    @Param({"0", "5"})
+    int visibleEnemyCnt;
+
+    @Param({"1", "20"})
+    int batchCopies;
+
+    EvaluationState[] states;
+
+    /**
+     * All candidates of the first ally of the fixture as evaluated by {@link BestMoveFinder#getBestSmartMoves}, repeated
+     * batchCopies times to see how both ways scale.
+     */
+    @Setup
+    public void setUp() {
+        BenchmarkFixture fixture = new BenchmarkFixture(5, ghostCnt, visibleEnemyCnt);
+        BestMoveFinder bestMoveFinder = new BestMoveFinder(fixture.gameParameters);
+        TurnContext context = bestMoveFinder.createTurnContext(fixture.testBuilder.myBase, fixture.allies, fixture.enemies, fixture.ghosts, fixture.checkPoints, false, fixture.testBuilder.prevMoveBustCnt, true);
+        List<BestMoveFinder.ScoredMove> scoredMoves = bestMoveFinder.getBestSmartMoves(fixture.allies.get(0), context, Integer.MAX_VALUE);
+        states = new EvaluationState[scoredMoves.size() * batchCopies];
+        for (int i = 0; i < states.length; i++) {
+            states[i] = scoredMoves.get(i % scoredMoves.size()).evaluation;
+        }
+    }
+
+    @Benchmark
+    public Integer[] sortByKeys() {
+        return EvaluationKey.sortBestFirst(states);
+    }
+
+    /**
+     * Insertion with {@link EvaluationState#better} like {@link BestMoveFinder.ScoredMove#insert}.
+     */
+    @Benchmark
+    public List<EvaluationState> sortByComparisons() {
+        List<EvaluationState> sorted = new ArrayList<>();
+        for (EvaluationState state : states) {
+            int i = sorted.size();
+            while (i > 0 && state.better(sorted.get(i - 1))) {
+                i--;
+            }
+            sorted.add(i, state);
+        }
+        return sorted;
+    }
+}
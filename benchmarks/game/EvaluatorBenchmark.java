@@ -0,0 +1,89 @@
+package game;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static game.Utils.*;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EvaluatorBenchmark {
+    @Param({"2", "3", "4", "5"})
+    int busterCnt;
+
+    @Param({"8", "16", "28"})
+    int ghostCnt;
+
+    @Param({"0", "2", "5"})
+    int visibleEnemyCnt;
+
+    BenchmarkFixture fixture;
+    Evaluator evaluator;
+    Buster buster;
+    Move[] candidates;
+    Point[] newPositions;
+    TurnContext context;
+    List<Buster> alliesWhoNeedEscort;
+    EvaluationState best;
+    int next;
+
+    @Setup
+    public void setUp() {
+        fixture = new BenchmarkFixture(busterCnt, ghostCnt, visibleEnemyCnt);
+        GameParameters gameParameters = fixture.gameParameters;
+        BestMoveFinder bestMoveFinder = new BestMoveFinder(gameParameters);
+        evaluator = new Evaluator(gameParameters);
+        buster = fixture.allies.get(0);
+        Point myBase = fixture.testBuilder.myBase;
+        context = bestMoveFinder.createTurnContext(myBase, fixture.allies, fixture.enemies, fixture.ghosts, fixture.checkPoints, false, fixture.testBuilder.prevMoveBustCnt, true);
+        alliesWhoNeedEscort = bestMoveFinder.getAlliesWhoNeedEscort(buster, fixture.allies, fixture.enemies, myBase, false);
+
+        Set<Move> moves = new LinkedHashSet<>();
+        moves.add(Move.move(buster.x, buster.y));
+        moves.add(Move.move(myBase));
+        for (Ghost ghost : fixture.ghosts) {
+            moves.add(Move.move(ghost.x, ghost.y));
+            if (inBustRange(buster, ghost, gameParameters)) {
+                moves.add(Move.bust(ghost.id));
+            }
+        }
+        for (Buster enemy : fixture.enemies) {
+            moves.add(Move.move(enemy.x, enemy.y));
+        }
+        candidates = moves.toArray(new Move[0]);
+        newPositions = new Point[candidates.length];
+        for (int i = 0; i < candidates.length; i++) {
+            newPositions[i] = getNewPosition(buster, candidates[i], gameParameters);
+            EvaluationState evaluation = evaluator.evaluate(buster, newPositions[i], candidates[i], fixture.checkPoints.get(0).p, alliesWhoNeedEscort, context);
+            if (evaluation.better(best)) {
+                best = evaluation;
+            }
+        }
+    }
+
+    /**
+     * One candidate per invocation, cycling through a realistic candidate set.
+     */
+    @Benchmark
+    public EvaluationState evaluate() {
+        int i = next;
+        next = i + 1 == candidates.length ? 0 : i + 1;
+        return evaluator.evaluate(buster, newPositions[i], candidates[i], fixture.checkPoints.get(0).p, alliesWhoNeedEscort, context);
+    }
+
+    /**
+     * Same candidates checked against the best of them, what LAZY_EVALUATION costs once the best move came early.
+     */
+    @Benchmark
+    public EvaluationState evaluateIfBetter() {
+        int i = next;
+        next = i + 1 == candidates.length ? 0 : i + 1;
+        return evaluator.evaluateIfBetter(buster, newPositions[i], candidates[i], fixture.checkPoints.get(0).p, alliesWhoNeedEscort, context, best);
+    }
+}
@@ -0,0 +1,62 @@
+package game;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One simulated turn on a copy of the fixture position, the unit of work of any search on top of
+ * {@link GameSimulator}. Should show zero gc.alloc.rate.norm.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameSimulatorBenchmark {
+    @Param({"2", "3", "4", "5"})
+    int busterCnt;
+
+    @Param({"8", "16", "28"})
+    int ghostCnt;
+
+    @Param({"0", "2", "5"})
+    int visibleEnemyCnt;
+
+    GameSimulator simulator;
+    WorldState initial;
+    WorldState state;
+    Move[] moves;
+
+    @Setup
+    public void setUp() {
+        BenchmarkFixture fixture = new BenchmarkFixture(busterCnt, ghostCnt, visibleEnemyCnt);
+        simulator = new GameSimulator(fixture.gameParameters);
+        List<Buster> busters = new ArrayList<>(fixture.allies);
+        busters.addAll(fixture.enemies);
+        // the fixture couriers carry ghosts ghostCnt and ghostCnt + 1
+        initial = WorldState.fromLists(busterCnt, ghostCnt + 2, busters, fixture.ghosts, 0);
+        state = WorldState.fromLists(busterCnt, ghostCnt + 2, busters, fixture.ghosts, 0);
+        moves = new Move[initial.busterCnt()];
+        for (Buster buster : busters) {
+            Ghost ghost = fixture.ghosts.get(buster.id % ghostCnt);
+            if (buster.isCarryingGhost) {
+                moves[buster.id] = Move.move(buster.id < busterCnt ? fixture.testBuilder.myBase : fixture.enemyBase);
+            } else if (buster.id % 3 == 0) {
+                moves[buster.id] = Move.bust(ghost.id);
+            } else {
+                moves[buster.id] = Move.move(ghost.x, ghost.y);
+            }
+        }
+    }
+
+    @Benchmark
+    public WorldState step() {
+        state.copyFrom(initial);
+        simulator.step(state, moves);
+        return state;
+    }
+}
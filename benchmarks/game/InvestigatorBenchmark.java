@@ -0,0 +1,49 @@
+package game;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InvestigatorBenchmark {
+    @Param({"2", "3", "4", "5"})
+    int busterCnt;
+
+    @Param({"0", "2", "5"})
+    int visibleEnemyCnt;
+
+    Investigator investigator;
+    List<Buster> allies;
+    List<Buster> prevAllies;
+    List<Buster> enemies;
+    List<Buster> prevEnemies;
+
+    @Setup
+    public void setUp() {
+        BenchmarkFixture fixture = new BenchmarkFixture(busterCnt, 0, visibleEnemyCnt);
+        investigator = new Investigator(fixture.gameParameters);
+        prevAllies = fixture.allies;
+        prevEnemies = fixture.enemies;
+        enemies = fixture.enemies;
+        allies = new ArrayList<>();
+        for (Buster ally : prevAllies) {
+            allies.add(new Buster(ally.id, ally.x, ally.y, false, fixture.gameParameters.STUN_DURATION, ally.remainingStunCooldown, -1, ally.lastSeen));
+        }
+    }
+
+    /**
+     * Worst case: every ally got stunned on the previous move.
+     */
+    @Benchmark
+    public Set<Integer> whoUsedStunOnPrevMove() {
+        return investigator.whoUsedStunOnPrevMove(allies, prevAllies, enemies, prevEnemies);
+    }
+}
@@ -0,0 +1,48 @@
+package game;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Turns per second with candidates evaluated on one thread and on the ForkJoinPool, see PARALLEL_EVALUATION.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParallelEvaluationBenchmark {
+    @Param({"false", "true"})
+    boolean parallel;
+
+    @Param({"4", "8", "16"})
+    int chunk;
+
+    @Param({"2", "5"})
+    int busterCnt;
+
+    BenchmarkFixture fixture;
+    BestMoveFinder bestMoveFinder;
+
+    @Setup
+    public void setUp() {
+        fixture = new BenchmarkFixture(busterCnt, 28, busterCnt);
+        fixture.gameParameters.PARALLEL_EVALUATION = parallel;
+        fixture.gameParameters.PARALLEL_EVALUATION_CHUNK = chunk;
+        bestMoveFinder = new BestMoveFinder(fixture.gameParameters);
+    }
+
+    @Benchmark
+    public void findBestMoveWithTurnContext(Blackhole blackhole) {
+        AbstractBestMoveFinderTest.TestBuilder b = fixture.testBuilder;
+        TurnContext context = bestMoveFinder.createTurnContext(b.myBase, fixture.allies, fixture.enemies, fixture.ghosts, fixture.checkPoints, b.halfGhostsCollected, b.prevMoveBustCnt, b.iVeSeenItAll);
+        for (Buster ally : fixture.allies) {
+            Move move = bestMoveFinder.findBestMove(ally, context);
+            context.onMoveCommitted(move);
+            blackhole.consume(move);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package game;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PhantomUpdaterBenchmark {
+    @Param({"2", "3", "4", "5"})
+    int busterCnt;
+
+    @Param({"8", "16", "28"})
+    int ghostCnt;
+
+    @Param({"0", "2", "5"})
+    int visibleEnemyCnt;
+
+    BenchmarkFixture fixture;
+    PhantomUpdater phantomUpdater;
+    List<Ghost> visibleGhosts;
+    List<Ghost> phantomGhosts;
+    List<Buster> phantomEnemies;
+    GhostBelief ghostBelief;
+
+    @Setup
+    public void setUp() {
+        fixture = new BenchmarkFixture(busterCnt, ghostCnt, visibleEnemyCnt);
+        phantomUpdater = new PhantomUpdater(fixture.gameParameters);
+        visibleGhosts = new ArrayList<>();
+        phantomGhosts = new ArrayList<>();
+        for (int i = 0; i < fixture.ghosts.size(); i++) {
+            (i % 2 == 0 ? visibleGhosts : phantomGhosts).add(fixture.ghosts.get(i));
+        }
+        phantomEnemies = new ArrayList<>();
+        for (Buster enemy : fixture.enemies) {
+            phantomEnemies.add(new Buster(enemy.id + busterCnt, enemy.x, enemy.y, enemy.isCarryingGhost, 0, 0, enemy.ghostId, 0));
+        }
+        ghostBelief = new GhostBelief(ghostCnt, fixture.gameParameters);
+    }
+
+    @Benchmark
+    public List<Ghost> updatePhantomGhosts() {
+        return phantomUpdater.updatePhantomGhosts(
+                visibleGhosts,
+                phantomGhosts,
+                fixture.allies,
+                fixture.enemies,
+                fixture.seenGhosts,
+                fixture.fogCoverage,
+                fixture.enemyBase
+        );
+    }
+
+    /**
+     * The same turn again and again, ghosts around the busters flee every time like in a game.
+     */
+    @Benchmark
+    public List<Ghost> updateGhostBelief() {
+        ghostBelief.update(visibleGhosts, fixture.allies, fixture.enemies, fixture.enemyBase);
+        return ghostBelief.getPhantomGhosts(visibleGhosts, fixture.gameParameters.GHOST_BELIEF_MIN_PROBABILITY);
+    }
+
+    @Benchmark
+    public List<Buster> updatePhantomEnemies() {
+        return phantomUpdater.updatePhantomEnemies(fixture.allies, phantomEnemies, fixture.enemies, fixture.enemyBase, 1);
+    }
+}
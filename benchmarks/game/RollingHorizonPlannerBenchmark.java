@@ -0,0 +1,59 @@
+package game;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One planning turn of {@link RollingHorizonPlanner} with a fixed number of generations instead of the time budget,
+ * so that a turn always plays out ROLLING_HORIZON_POPULATION * (GENERATIONS + 1) plans.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RollingHorizonPlannerBenchmark {
+    static final int GENERATIONS = 20;
+
+    @Param({"2", "5"})
+    int busterCnt;
+
+    @Param({"4", "8"})
+    int horizon;
+
+    BenchmarkFixture fixture;
+    TurnContext context;
+    List<Move> greedyMoves;
+    boolean[] searchable;
+    RollingHorizonPlanner planner;
+
+    @Setup
+    public void setUp() {
+        fixture = new BenchmarkFixture(busterCnt, 16, busterCnt);
+        GameParameters gameParameters = fixture.gameParameters;
+        gameParameters.ROLLING_HORIZON_LENGTH = horizon;
+        gameParameters.ROLLING_HORIZON_TIME_MS = 10_000;
+        gameParameters.ROLLING_HORIZON_MAX_GENERATIONS = GENERATIONS;
+        BestMoveFinder bestMoveFinder = new BestMoveFinder(gameParameters);
+        AbstractBestMoveFinderTest.TestBuilder b = fixture.testBuilder;
+        context = bestMoveFinder.createTurnContext(b.myBase, fixture.allies, fixture.enemies, fixture.ghosts, fixture.checkPoints, b.halfGhostsCollected, b.prevMoveBustCnt, b.iVeSeenItAll);
+        greedyMoves = new ArrayList<>();
+        for (Buster ally : fixture.allies) {
+            Move move = bestMoveFinder.findBestMove(ally, context);
+            context.onMoveCommitted(move);
+            greedyMoves.add(move);
+        }
+        searchable = new boolean[busterCnt];
+        Arrays.fill(searchable, true);
+        planner = new RollingHorizonPlanner(gameParameters, BenchmarkFixture.SEED);
+    }
+
+    @Benchmark
+    public List<Move> findTeamMoves() {
+        // the fixture couriers carry ghosts ghostCnt and ghostCnt + 1
+        return planner.findTeamMoves(context, greedyMoves, searchable, busterCnt, 16 + 2, 100);
+    }
+}
@@ -0,0 +1,45 @@
+package game;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StunAssignmentBenchmark {
+    private static final int N = 64;
+
+    @Param({"2", "3", "4", "5"})
+    int busterCnt;
+
+    long[][][] values = new long[N][][];
+    int next;
+
+    /**
+     * Every stunner reaches about two thirds of the enemies, values like the ones of BestMoveFinder#getStunValue.
+     */
+    @Setup
+    public void setUp() {
+        Random random = new Random(BenchmarkFixture.SEED);
+        for (int k = 0; k < N; k++) {
+            values[k] = new long[busterCnt][busterCnt];
+            for (int i = 0; i < busterCnt; i++) {
+                for (int j = 0; j < busterCnt; j++) {
+                    values[k][i][j] = random.nextInt(3) == 0 ? -1 : random.nextInt(2) * 10_000_000L + random.nextInt(2) * 100_000L + random.nextInt(2001);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public int[] assign() {
+        int k = next;
+        next = (k + 1) & (N - 1);
+        return StunAssignment.assign(values[k]);
+    }
+}
@@ -0,0 +1,82 @@
+package game;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UtilsBenchmark {
+    private static final int N = 1024;
+
+    GameParameters gameParameters = new GameParameters();
+    int[] fromX = new int[N];
+    int[] fromY = new int[N];
+    int[] toX = new int[N];
+    int[] toY = new int[N];
+    int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(BenchmarkFixture.SEED);
+        for (int i = 0; i < N; i++) {
+            fromX[i] = random.nextInt(gameParameters.H);
+            fromY[i] = random.nextInt(gameParameters.W);
+            toX[i] = random.nextInt(gameParameters.H);
+            toY[i] = random.nextInt(gameParameters.W);
+        }
+    }
+
+    private int nextIndex() {
+        int i = next;
+        next = (i + 1) & (N - 1);
+        return i;
+    }
+
+    @Benchmark
+    public double dist() {
+        int i = nextIndex();
+        return Utils.dist(fromX[i], fromY[i], toX[i], toY[i]);
+    }
+
+    @Benchmark
+    public long dist2() {
+        int i = nextIndex();
+        return Utils.dist2(fromX[i], fromY[i], toX[i], toY[i]);
+    }
+
+    @Benchmark
+    public boolean inBustRange() {
+        int i = nextIndex();
+        return Utils.inBustRange(Utils.dist2(fromX[i], fromY[i], toX[i], toY[i]), gameParameters);
+    }
+
+    @Benchmark
+    public Point getNewPosition() {
+        int i = nextIndex();
+        return Utils.getNewPosition(fromX[i], fromY[i], toX[i], toY[i], gameParameters.MOVE_RANGE, gameParameters);
+    }
+
+    @Benchmark
+    public Point runawayPoint() {
+        int i = nextIndex();
+        return Utils.runawayPoint(fromX[i], fromY[i], toX[i], toY[i], gameParameters.GHOST_MOVE_RANGE);
+    }
+
+    @Benchmark
+    public Point moveToWithAllowedRange() {
+        int i = nextIndex();
+        return Utils.moveToWithAllowedRange(fromX[i], fromY[i], toX[i], toY[i], gameParameters.RELEASE_RANGE);
+    }
+
+    @Benchmark
+    public Point moveToBeOutsideRange() {
+        int i = nextIndex();
+        return Utils.moveToBeOutsideRange(fromX[i], fromY[i], toX[i], toY[i], gameParameters.MIN_BUST_RANGE);
+    }
+}
@@ -0,0 +1,169 @@
+package game;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Headless self-play between two bot configurations. Every map is played twice with sides swapped,
+ * games run on a fixed thread pool, one game per thread at a time.
+ * <p>
+ * Usage: {@code Arena [games] [threads] [seed]}
+ */
+public class Arena {
+    private final GameParameters gameParameters;
+    private final Supplier<Interactor> first;
+    private final Supplier<Interactor> second;
+
+    public Arena(GameParameters gameParameters, Supplier<Interactor> first, Supplier<Interactor> second) {
+        this.gameParameters = gameParameters;
+        this.first = first;
+        this.second = second;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 0;
+        Arena arena = new Arena(new GameParameters(), Interactor::new, Interactor::new);
+        long start = System.currentTimeMillis();
+        ArenaResult result = arena.run(games, threads, seed);
+        System.out.println(result);
+        System.out.println("Time: " + (System.currentTimeMillis() - start) / 1000.0 + "s");
+    }
+
+    public ArenaResult run(int games, int threads, long seed) throws InterruptedException {
+        ArenaResult result = new ArenaResult();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Referee.GameResult>> futures = new ArrayList<>();
+            for (int i = 0; i < games; i++) {
+                final int game = i;
+                futures.add(executor.submit(() -> playGame(seed + game / 2, game % 2, result)));
+            }
+            for (int i = 0; i < games; i++) {
+                try {
+                    Referee.GameResult gameResult = futures.get(i).get();
+                    int firstTeam = i % 2;
+                    int firstScore = firstTeam == 0 ? gameResult.score0 : gameResult.score1;
+                    int secondScore = firstTeam == 0 ? gameResult.score1 : gameResult.score0;
+                    result.add(firstScore, secondScore);
+                } catch (ExecutionException e) {
+                    if (result.errors++ == 0) {
+                        e.getCause().printStackTrace();
+                    }
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return result;
+    }
+
+    private Referee.GameResult playGame(long mapSeed, int firstTeam, ArenaResult result) {
+        WorldState s = new MapGenerator(gameParameters).generate(new Random(mapSeed));
+        Interactor[] players = new Interactor[2];
+        players[firstTeam] = first.get();
+        players[1 - firstTeam] = second.get();
+        LatencyHistogram[] latencies = new LatencyHistogram[2];
+        latencies[firstTeam] = result.firstLatency;
+        latencies[1 - firstTeam] = result.secondLatency;
+        return new Referee(gameParameters).play(s, players, latencies);
+    }
+
+    public static class ArenaResult {
+        int wins;
+        int losses;
+        int draws;
+        int errors;
+        long scoreMarginSum;
+        final LatencyHistogram firstLatency = new LatencyHistogram();
+        final LatencyHistogram secondLatency = new LatencyHistogram();
+
+        void add(int firstScore, int secondScore) {
+            if (firstScore > secondScore) {
+                wins++;
+            } else if (firstScore < secondScore) {
+                losses++;
+            } else {
+                draws++;
+            }
+            scoreMarginSum += firstScore - secondScore;
+        }
+
+        public int getGames() {
+            return wins + losses + draws;
+        }
+
+        public double getWinRate() {
+            return (wins + 0.5 * draws) / getGames();
+        }
+
+        public double getAverageScoreMargin() {
+            return (double) scoreMarginSum / getGames();
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                    "Games: %d (errors: %d)%nFirst: %d wins, %d losses, %d draws, win rate %.2f%%, avg score margin %+.3f%n" +
+                            "First turn latency: %s%nSecond turn latency: %s",
+                    getGames(), errors, wins, losses, draws, 100 * getWinRate(), getAverageScoreMargin(),
+                    firstLatency, secondLatency
+            );
+        }
+    }
+
+    /**
+     * Thread-safe histogram of turn latencies with 10 microsecond buckets up to one second.
+     */
+    public static class LatencyHistogram {
+        private static final long BUCKET_NANOS = 10_000;
+        private static final int BUCKET_CNT = 100_000;
+
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_CNT);
+
+        public void add(long nanos) {
+            int bucket = (int) Math.min(nanos / BUCKET_NANOS, BUCKET_CNT - 1);
+            buckets.incrementAndGet(bucket);
+        }
+
+        public long getCount() {
+            long r = 0;
+            for (int i = 0; i < BUCKET_CNT; i++) {
+                r += buckets.get(i);
+            }
+            return r;
+        }
+
+        /**
+         * Upper bound of the bucket containing given percentile, in milliseconds.
+         */
+        public double getPercentile(double percentile) {
+            long count = getCount();
+            if (count == 0) {
+                return 0;
+            }
+            long need = (long) Math.ceil(count * percentile / 100);
+            long seen = 0;
+            for (int i = 0; i < BUCKET_CNT; i++) {
+                seen += buckets.get(i);
+                if (seen >= Math.max(need, 1)) {
+                    return (i + 1) * BUCKET_NANOS / 1e6;
+                }
+            }
+            return BUCKET_CNT * BUCKET_NANOS / 1e6;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                    "turns %d, p50 %.2fms, p90 %.2fms, p99 %.2fms, p99.9 %.2fms, max %.2fms",
+                    getCount(), getPercentile(50), getPercentile(90), getPercentile(99), getPercentile(99.9), getPercentile(100)
+            );
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package game;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static game.Utils.*;
+
+/**
+ * Decides ghost battles by random playouts instead of the rule in {@link BestMoveFinder} that forbids busting ghosts
+ * with more enemies around. Only busters near the contested ghosts take part: they are copied into a small
+ * {@link WorldState} that keeps the real team ids, so that {@link GameSimulator} takes releases at the real bases. The
+ * move {@link Evaluator} chose and busting each contested ghost are played first, then everybody follows a randomized
+ * policy (stun busters who bust or carry contested ghosts, bust, carry captured ghosts home and release them) for
+ * BATTLE_ROLLOUT_DEPTH turns. A playout is worth +1 for every contested ghost we carry or released by the end and -1
+ * for every one they do. All candidates are played with the same seeds, so they are compared on the same random
+ * events.
+ * <p>
+ * All moves the policy may need are created before the playouts, which then run on reused arrays.
+ */
+public class BattleRollouts {
+    static final double MARGIN = 0.2; // expected gain needed to override the evaluator's move
+    static final double STUN_COURIER_PROBABILITY = 0.9;
+    static final double STUN_BUSTER_PROBABILITY = 0.4;
+    static final double BUST_PROBABILITY = 0.9;
+    static final long SEED = 1;
+
+    private final GameParameters gameParameters;
+    private final GameSimulator simulator;
+    private final FastRandom random = new FastRandom(SEED);
+
+    private WorldState root;
+    private WorldState state;
+    private Move[] moves;
+    private Move[] stunMoves;
+    private Move[] bustMoves;
+    private Move[] approachMoves;
+    private Move[] toBaseMoves;
+    private final Move releaseMove = Move.release();
+    private int myTeam;
+    private int rolloutCnt;
+
+    public BattleRollouts(GameParameters gameParameters) {
+        this.gameParameters = gameParameters;
+        simulator = new GameSimulator(gameParameters);
+    }
+
+    /**
+     * @param contestedGhosts ghosts in bust range of the buster and of some enemy
+     * @param evaluatorMove   the move {@link Evaluator} prefers, kept unless some other move wins clearly
+     */
+    public Move findBattleMove(Buster buster, Move evaluatorMove, List<Ghost> contestedGhosts, TurnContext context) {
+        rolloutCnt = 0;
+        List<Buster> allies = getParticipants(context.allies, contestedGhosts);
+        List<Buster> enemies = getParticipants(context.enemies, contestedGhosts);
+        if (enemies.isEmpty() || !allies.contains(buster)) {
+            return evaluatorMove;
+        }
+        buildRoot(allies, enemies, contestedGhosts, context.myBase);
+        int me = myTeam * root.bustersPerPlayer + allies.indexOf(buster);
+
+        List<Move> candidates = new ArrayList<>();
+        candidates.add(evaluatorMove);
+        for (Ghost ghost : contestedGhosts) {
+            addCandidate(candidates, Move.bust(ghost.id));
+        }
+        if (candidates.size() == 1) {
+            return evaluatorMove;
+        }
+
+        int rolloutsPerCandidate = Math.max(1, gameParameters.BATTLE_ROLLOUTS / candidates.size());
+        Move bestMove = evaluatorMove;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (int c = 0; c < candidates.size(); c++) {
+            Move localMove = toLocal(candidates.get(c), enemies, contestedGhosts);
+            double sum = 0;
+            int cnt = 0;
+            for (int r = 0; r < rolloutsPerCandidate; r++) {
+                if ((r & 31) == 0 && context.deadline.isExpired()) {
+                    break;
+                }
+                random.setSeed(SEED + r);
+                sum += playout(me, localMove);
+                cnt++;
+            }
+            if (cnt < rolloutsPerCandidate) {
+                return evaluatorMove; // out of time, candidates can't be compared on different playouts
+            }
+            double value = sum / cnt - (c == 0 ? 0 : MARGIN);
+            if (value > bestValue) {
+                bestValue = value;
+                bestMove = candidates.get(c);
+            }
+        }
+        return bestMove;
+    }
+
+    /**
+     * Playouts of the last {@link #findBattleMove}.
+     */
+    public int getRolloutCnt() {
+        return rolloutCnt;
+    }
+
+    private List<Buster> getParticipants(List<Buster> busters, List<Ghost> contestedGhosts) {
+        long range2 = sqr(gameParameters.MAX_BUST_RANGE + 2 * gameParameters.MOVE_RANGE);
+        List<Buster> r = new ArrayList<>();
+        for (Buster buster : busters) {
+            if (buster.isCarryingGhost) {
+                continue;
+            }
+            for (Ghost ghost : contestedGhosts) {
+                if (dist2(buster, ghost) <= range2) {
+                    r.add(buster);
+                    break;
+                }
+            }
+        }
+        return r;
+    }
+
+    private static void addCandidate(List<Move> candidates, Move move) {
+        if (!candidates.contains(move)) {
+            candidates.add(move);
+        }
+    }
+
+    /**
+     * Local ids: busters of team t are [t * n, (t + 1) * n) like in the game, contested ghosts [0, m).
+     */
+    private void buildRoot(List<Buster> allies, List<Buster> enemies, List<Ghost> contestedGhosts, Point myBase) {
+        int n = Math.max(allies.size(), enemies.size());
+        int m = contestedGhosts.size();
+        root = new WorldState(n, m);
+        state = new WorldState(n, m);
+        moves = new Move[2 * n];
+        stunMoves = new Move[2 * n];
+        bustMoves = new Move[m];
+        approachMoves = new Move[m];
+        myTeam = myBase.x == 0 && myBase.y == 0 ? 0 : 1;
+        toBaseMoves = new Move[]{Move.move(0, 0), Move.move(gameParameters.H - 1, gameParameters.W - 1)};
+        for (int i = 0; i < 2 * n; i++) {
+            root.busterKnown[i] = false;
+            stunMoves[i] = Move.stun(i);
+        }
+        for (int i = 0; i < allies.size(); i++) {
+            setBuster(myTeam * n + i, allies.get(i));
+        }
+        for (int i = 0; i < enemies.size(); i++) {
+            setBuster((1 - myTeam) * n + i, enemies.get(i));
+        }
+        for (int g = 0; g < m; g++) {
+            Ghost ghost = contestedGhosts.get(g);
+            root.setGhost(g, ghost.x, ghost.y, ghost.stamina);
+            bustMoves[g] = Move.bust(g);
+            approachMoves[g] = Move.move(ghost.x, ghost.y);
+        }
+    }
+
+    private void setBuster(int i, Buster buster) {
+        root.setBuster(i, buster.x, buster.y);
+        root.stunDuration[i] = buster.remainingStunDuration;
+        root.stunCooldown[i] = buster.remainingStunCooldown;
+        root.busterKnown[i] = true;
+    }
+
+    private Move toLocal(Move move, List<Buster> enemies, List<Ghost> contestedGhosts) {
+        if (move.type == MoveType.BUST) {
+            for (int g = 0; g < contestedGhosts.size(); g++) {
+                if (contestedGhosts.get(g).id == move.targetId) {
+                    return bustMoves[g];
+                }
+            }
+        }
+        if (move.type == MoveType.STUN) {
+            for (int i = 0; i < enemies.size(); i++) {
+                if (enemies.get(i).id == move.targetId) {
+                    return stunMoves[(1 - myTeam) * root.bustersPerPlayer + i];
+                }
+            }
+        }
+        if (move.type == MoveType.BUST) {
+            return Move.bust(-1); // busting a ghost outside the battle, nothing happens here
+        }
+        if (move.type == MoveType.STUN) {
+            return Move.stun(-1);
+        }
+        return move; // moves and releases mean the same in the local state
+    }
+
+    private double playout(int me, Move firstMove) {
+        state.copyFrom(root);
+        for (int turn = 0; turn < gameParameters.BATTLE_ROLLOUT_DEPTH; turn++) {
+            for (int i = 0; i < state.busterCnt(); i++) {
+                moves[i] = state.busterKnown[i] ? getPolicyMove(i) : null;
+            }
+            if (turn == 0) {
+                moves[me] = firstMove;
+            }
+            simulator.step(state, moves);
+        }
+        rolloutCnt++;
+        double r = state.getScore(myTeam) - state.getScore(1 - myTeam); // only contested ghosts, the root scores none
+        for (int i = 0; i < state.busterCnt(); i++) {
+            if (state.isCarryingGhost(i)) {
+                r += state.getTeam(i) == myTeam ? 1 : -1;
+            }
+        }
+        return r;
+    }
+
+    private Move getPolicyMove(int i) {
+        WorldState s = state;
+        if (s.stunDuration[i] > 0) {
+            return null;
+        }
+        int team = s.getTeam(i);
+        if (s.stunCooldown[i] == 0) {
+            int target = getStunTarget(i, 1 - team);
+            if (target != -1) {
+                double probability = s.isCarryingGhost(target) ? STUN_COURIER_PROBABILITY : STUN_BUSTER_PROBABILITY;
+                if (random.nextBoolean(probability)) {
+                    return stunMoves[target];
+                }
+            }
+        }
+        if (s.isCarryingGhost(i)) {
+            Move toBase = toBaseMoves[team];
+            if (dist2(s.busterX[i], s.busterY[i], toBase.x, toBase.y) <= gameParameters.releaseRange2()) {
+                return releaseMove;
+            }
+            return toBase;
+        }
+        int g = getNearestFreeGhost(i);
+        if (g == -1) {
+            return null;
+        }
+        if (inBustRange(dist2(s.busterX[i], s.busterY[i], s.ghostX[g], s.ghostY[g]), gameParameters) && random.nextBoolean(BUST_PROBABILITY)) {
+            return bustMoves[g];
+        }
+        return approachMoves[g];
+    }
+
+    /**
+     * Enemy in stun range that carries a contested ghost, or else one next to a free contested ghost, -1 if none.
+     */
+    private int getStunTarget(int i, int enemyTeam) {
+        WorldState s = state;
+        long stunRange2 = gameParameters.stunRange2();
+        int r = -1;
+        for (int j = enemyTeam * s.bustersPerPlayer; j < (enemyTeam + 1) * s.bustersPerPlayer; j++) {
+            if (!s.busterKnown[j] || s.stunDuration[j] > 1 || dist2(s.busterX[i], s.busterY[i], s.busterX[j], s.busterY[j]) > stunRange2) {
+                continue;
+            }
+            if (s.isCarryingGhost(j)) {
+                return j;
+            }
+            int g = getNearestFreeGhost(j);
+            if (r == -1 && g != -1 && inBustRange(dist2(s.busterX[j], s.busterY[j], s.ghostX[g], s.ghostY[g]), gameParameters)) {
+                r = j;
+            }
+        }
+        return r;
+    }
+
+    private int getNearestFreeGhost(int i) {
+        WorldState s = state;
+        int r = -1;
+        long minDist2 = Long.MAX_VALUE;
+        for (int g = 0; g < s.ghostCnt; g++) {
+            if (s.ghostState[g] != WorldState.GHOST_FREE) {
+                continue;
+            }
+            long d2 = dist2(s.busterX[i], s.busterY[i], s.ghostX[g], s.ghostY[g]);
+            if (d2 < minDist2) {
+                minDist2 = d2;
+                r = g;
+            }
+        }
+        return r;
+    }
+}
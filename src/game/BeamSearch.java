@@ -0,0 +1,190 @@
+package game;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Looks several moves ahead for one buster. The beam starts with the best BEAM_WIDTH moves of {@link BestMoveFinder},
+ * every ply plays them through {@link GameSimulator} (everyone else follows {@link EnemyPolicy}), re-runs candidate
+ * generation and {@link Evaluator} at the simulated positions and keeps the best BEAM_WIDTH children. Returns the first
+ * move of the best node of the deepest ply finished within BEAM_SEARCH_TIME_MS and the turn deadline.
+ * <p>
+ * Beam states live in two preallocated pools and are copied with {@link WorldState#copyFrom}. A node that reaches
+ * the same state as a better node of its ply is dropped; states are recognized by {@link Zobrist} hashes kept in a
+ * {@link TranspositionTable}, every node's hash is its parent's updated by the simulator.
+ */
+public class BeamSearch {
+    static final int TABLE_SIZE_LOG2 = 12;
+
+    private final GameParameters gameParameters;
+    private final BestMoveFinder bestMoveFinder;
+    private final GameSimulator simulator;
+    private final EnemyPolicy enemyPolicy;
+    private final TurnDeadline deadline = new TurnDeadline();
+    private final TranspositionTable transpositionTable = new TranspositionTable(TABLE_SIZE_LOG2);
+
+    private WorldState root;
+    private WorldState[] states = new WorldState[0];
+    private WorldState[] nextStates = new WorldState[0];
+    private Move[] firstMoves = new Move[0];
+    private Move[] nextFirstMoves = new Move[0];
+    private long[] hashes = new long[0];
+    private long[] nextHashes = new long[0];
+    private Move[] moves;
+    private int finishedPlyCnt;
+    private int duplicateCnt;
+
+    public BeamSearch(GameParameters gameParameters, BestMoveFinder bestMoveFinder) {
+        this.gameParameters = gameParameters;
+        this.bestMoveFinder = bestMoveFinder;
+        simulator = new GameSimulator(gameParameters);
+        enemyPolicy = new EnemyPolicy(gameParameters);
+    }
+
+    public Move findBestMove(Buster buster, TurnContext context, int bustersPerPlayer, int ghostCnt, int round) {
+        Move forcedMove = bestMoveFinder.findForcedMove(buster, context);
+        if (forcedMove != null) {
+            return forcedMove;
+        }
+        deadline.start(Math.min(context.deadline.getRemainingNanos(), gameParameters.BEAM_SEARCH_TIME_MS * 1_000_000L));
+        finishedPlyCnt = 0;
+        int width = gameParameters.BEAM_WIDTH;
+        List<BestMoveFinder.ScoredMove> firstPly = bestMoveFinder.getBestSmartMoves(buster, context, width);
+        if (firstPly.isEmpty()) {
+            return bestMoveFinder.findBestMove(buster, context);
+        }
+        Move bestMove = firstPly.get(0).move;
+        finishedPlyCnt = 1;
+
+        int team = buster.id / bustersPerPlayer;
+        List<Buster> busters = new ArrayList<>(context.allies);
+        busters.addAll(context.enemies);
+        root = WorldState.fromLists(bustersPerPlayer, ghostCnt, busters, context.visibleGhosts, round);
+        ensureCapacity(width, bustersPerPlayer, ghostCnt);
+        transpositionTable.newSearch();
+        duplicateCnt = 0;
+        long rootHash = Zobrist.hash(root);
+        int size = 0;
+        for (BestMoveFinder.ScoredMove scoredMove : firstPly) {
+            states[size].copyFrom(root);
+            hashes[size] = play(states[size], rootHash, buster.id, scoredMove.move, context);
+            firstMoves[size] = scoredMove.move;
+            if (isNew(hashes[size], 1)) {
+                size++;
+            }
+        }
+
+        for (int ply = 2; ply <= gameParameters.BEAM_DEPTH && !deadline.isExpired(); ply++) {
+            List<Child> children = new ArrayList<>();
+            EvaluationState reference = null;
+            for (int i = 0; i < size && !deadline.isExpired(); i++) {
+                WorldState s = states[i];
+                if (s.stunDuration[buster.id] > 0) {
+                    continue;
+                }
+                TurnContext simulatedContext = bestMoveFinder.createSimulatedContext(s, team, context, deadline);
+                Buster simulatedBuster = s.getBuster(buster.id);
+                for (BestMoveFinder.ScoredMove scoredMove : bestMoveFinder.getBestSmartMoves(simulatedBuster, simulatedContext, width)) {
+                    if (reference == null) {
+                        reference = scoredMove.evaluation;
+                    } else if (!reference.comparableWith(scoredMove.evaluation)) {
+                        continue; // positions too different to rank against the best one
+                    }
+                    BestMoveFinder.ScoredMove.insert(children, new Child(scoredMove, i), width);
+                }
+            }
+            if (children.isEmpty() || deadline.isExpired()) {
+                break;
+            }
+            int nextSize = 0;
+            for (Child child : children) {
+                nextStates[nextSize].copyFrom(states[child.parent]);
+                nextHashes[nextSize] = play(nextStates[nextSize], hashes[child.parent], buster.id, child.move, null);
+                nextFirstMoves[nextSize] = firstMoves[child.parent];
+                if (isNew(nextHashes[nextSize], ply)) {
+                    nextSize++;
+                }
+            }
+            size = nextSize;
+            swap();
+            bestMove = firstMoves[0];
+            finishedPlyCnt = ply;
+        }
+        return bestMove;
+    }
+
+    /**
+     * Plies finished by the last search, the first one is the usual one move lookahead.
+     */
+    public int getFinishedPlyCnt() {
+        return finishedPlyCnt;
+    }
+
+    /**
+     * Beam nodes of the last search dropped because a better node of the same ply had reached the same state.
+     */
+    public int getDuplicateCnt() {
+        return duplicateCnt;
+    }
+
+    private boolean isNew(long key, int ply) {
+        int index = transpositionTable.find(key);
+        if (index != -1 && transpositionTable.isFromThisSearch(index) && transpositionTable.getDepth(index) == ply) {
+            duplicateCnt++;
+            return false;
+        }
+        transpositionTable.store(key, ply, 0);
+        return true;
+    }
+
+    /**
+     * @param context of the real turn when playing the first ply, its predicted enemy moves replace the policy
+     * @return hash of the state after the move given the one before
+     */
+    private long play(WorldState s, long hash, int busterId, Move move, TurnContext context) {
+        enemyPolicy.fillMoves(s, 0, moves);
+        enemyPolicy.fillMoves(s, 1, moves);
+        if (context != null) {
+            context.fillEnemyMoves(moves);
+        }
+        moves[busterId] = move;
+        return simulator.step(s, moves, hash);
+    }
+
+    private void swap() {
+        WorldState[] t = states;
+        states = nextStates;
+        nextStates = t;
+        Move[] m = firstMoves;
+        firstMoves = nextFirstMoves;
+        nextFirstMoves = m;
+        long[] h = hashes;
+        hashes = nextHashes;
+        nextHashes = h;
+    }
+
+    private void ensureCapacity(int width, int bustersPerPlayer, int ghostCnt) {
+        if (states.length < width || states[0].bustersPerPlayer != bustersPerPlayer || states[0].ghostCnt != ghostCnt) {
+            states = new WorldState[width];
+            nextStates = new WorldState[width];
+            for (int i = 0; i < width; i++) {
+                states[i] = new WorldState(bustersPerPlayer, ghostCnt);
+                nextStates[i] = new WorldState(bustersPerPlayer, ghostCnt);
+            }
+            firstMoves = new Move[width];
+            nextFirstMoves = new Move[width];
+            hashes = new long[width];
+            nextHashes = new long[width];
+            moves = new Move[bustersPerPlayer * 2];
+        }
+    }
+
+    private static class Child extends BestMoveFinder.ScoredMove {
+        final int parent;
+
+        Child(BestMoveFinder.ScoredMove scoredMove, int parent) {
+            super(scoredMove.move, scoredMove.evaluation);
+            this.parent = parent;
+        }
+    }
+}
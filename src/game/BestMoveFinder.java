@@ -1,6 +1,8 @@
 package game;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 import static game.Move.*;
 import static game.Utils.*;
@@ -11,11 +13,15 @@ public class BestMoveFinder {
     private final GameParameters gameParameters;
     private final Evaluator evaluator;
     private final PhantomUpdater phantomUpdater;
+    private final BattleRollouts battleRollouts;
+    private final OpponentModel opponentModel;
 
     public BestMoveFinder(GameParameters gameParameters) {
         this.gameParameters = gameParameters;
         evaluator = new Evaluator(gameParameters);
         phantomUpdater = new PhantomUpdater(gameParameters);
+        battleRollouts = new BattleRollouts(gameParameters);
+        opponentModel = new OpponentModel(gameParameters, this);
     }
 
     public Move findBestMove(
@@ -31,18 +37,67 @@ public class BestMoveFinder {
             int[] prevMoveBustCnt,
             boolean iVeSeenItAll
     ) {
-        if (buster.remainingStunDuration > 0) {
-            return release();
+        TurnContext context = createTurnContext(myBase, allies, enemies, ghosts, checkPoints, halfGhostsCollected, prevMoveBustCnt, iVeSeenItAll);
+        for (int enemyId : alreadyStunnedEnemies) {
+            context.onMoveCommitted(stun(enemyId));
         }
-
-        Move move;
-        if ((move = tryReleaseGhost(buster, myBase)) != null) {
-            return move;
+        for (int ghostId : alreadyBusted) {
+            context.onMoveCommitted(bust(ghostId));
         }
-        if ((move = tryStunEnemy(buster, enemies, alreadyStunnedEnemies, halfGhostsCollected, allies, ghosts, myBase)) != null) {
-            return move;
+        return findBestMove(buster, context);
+    }
+
+    public TurnContext createTurnContext(
+            Point myBase,
+            List<Buster> allies,
+            List<Buster> enemies,
+            List<Ghost> visibleGhosts,
+            List<CheckPoint> checkPoints,
+            boolean halfGhostsCollected,
+            int[] prevMoveBustCnt,
+            boolean iVeSeenItAll
+    ) {
+        return createTurnContext(myBase, allies, enemies, visibleGhosts, checkPoints, halfGhostsCollected, prevMoveBustCnt, iVeSeenItAll, TurnDeadline.unlimited());
+    }
+
+    /**
+     * @param deadline of the turn, bounds the opponent model and becomes the deadline of the context
+     */
+    public TurnContext createTurnContext(
+            Point myBase,
+            List<Buster> allies,
+            List<Buster> enemies,
+            List<Ghost> visibleGhosts,
+            List<CheckPoint> checkPoints,
+            boolean halfGhostsCollected,
+            int[] prevMoveBustCnt,
+            boolean iVeSeenItAll,
+            TurnDeadline deadline
+    ) {
+        Map<Integer, Move> enemyMoves = null;
+        if (gameParameters.OPPONENT_MODEL) {
+            enemyMoves = opponentModel.predictMoves(myBase, allies, enemies, visibleGhosts, checkPoints, iVeSeenItAll, deadline);
         }
+        TurnContext r = createTurnContext(myBase, allies, enemies, visibleGhosts, checkPoints, halfGhostsCollected, prevMoveBustCnt, iVeSeenItAll, enemyMoves);
+        r.deadline = deadline;
+        return r;
+    }
 
+    /**
+     * @param enemyMoves predicted by {@link OpponentModel}, null to let only couriers move like {@link Evaluator#moveEnemies} does
+     */
+    TurnContext createTurnContext(
+            Point myBase,
+            List<Buster> allies,
+            List<Buster> enemies,
+            List<Ghost> visibleGhosts,
+            List<CheckPoint> checkPoints,
+            boolean halfGhostsCollected,
+            int[] prevMoveBustCnt,
+            boolean iVeSeenItAll,
+            Map<Integer, Move> enemyMoves
+    ) {
+        List<Ghost> ghosts = visibleGhosts;
         if (halfGhostsCollected) {
             ghosts = leaveOnlyClosestToBase(ghosts, myBase);
         } else {
@@ -50,8 +105,120 @@ public class BestMoveFinder {
                 ghosts = removeFatGhosts(ghosts);
             }
         }
-        Point checkPoint = getCheckPoint(buster, checkPoints);
-        return trySomethingSmart(buster, myBase, allies, enemies, ghosts, checkPoint, alreadyBusted, checkPoints, halfGhostsCollected, prevMoveBustCnt);
+        List<Buster> allBusters = new ArrayList<>(allies);
+        allBusters.addAll(enemies);
+        List<List<Buster>> enemiesWithGhostNextPositions = getEnemiesWithGhostNextPositions(enemies, getEnemyBase(myBase, gameParameters));
+        return new TurnContext(
+                myBase,
+                allies,
+                enemies,
+                visibleGhosts,
+                ghosts,
+                checkPoints,
+                halfGhostsCollected,
+                iVeSeenItAll,
+                enemyMoves == null ? evaluator.moveEnemies(enemies, myBase) : opponentModel.moveEnemies(enemies, enemyMoves),
+                enemyMoves == null ? Collections.emptyMap() : enemyMoves,
+                enemiesWithGhostNextPositions,
+                checkSomeOfUsCanCatchEnemyWithGhost(allies, enemies, enemiesWithGhostNextPositions),
+                getBattles(allies, enemies, ghosts),
+                getForbiddenGhosts(ghosts, allies, enemies, prevMoveBustCnt),
+                evaluator.moveGhosts(ghosts, allBusters)
+        );
+    }
+
+    /**
+     * Context of a simulated state for searches that look several turns ahead, everything the state doesn't know
+     * (checkpoints, game stage) is taken from the context of the real turn.
+     */
+    TurnContext createSimulatedContext(WorldState s, int team, TurnContext context, TurnDeadline deadline) {
+        List<Buster> allies = s.getBusters(team);
+        List<Buster> enemies = s.getBusters(1 - team);
+        List<Ghost> ghosts = s.getFreeGhosts();
+        Map<Integer, Move> enemyMoves = null;
+        if (gameParameters.OPPONENT_MODEL) {
+            enemyMoves = opponentModel.predictShallowMoves(context.myBase, allies, enemies, ghosts);
+        }
+        TurnContext r = createTurnContext(
+                context.myBase,
+                allies,
+                enemies,
+                ghosts,
+                context.checkPoints,
+                context.halfGhostsCollected,
+                new int[s.ghostCnt],
+                context.iVeSeenItAll,
+                enemyMoves
+        );
+        r.deadline = deadline;
+        return r;
+    }
+
+    /**
+     * Predictions behind {@link TurnContext#enemyMoves} when OPPONENT_MODEL is on.
+     */
+    public OpponentModel getOpponentModel() {
+        return opponentModel;
+    }
+
+    public Move findBestMove(Buster buster, TurnContext context) {
+        Move move = findForcedMove(buster, context);
+        if (move != null) {
+            return move;
+        }
+        Point checkPoint = getCheckPoint(buster, context);
+        List<Buster> alliesWhoNeedEscort = getAlliesWhoNeedEscort(buster, context.allies, context.enemies, context.myBase, context.halfGhostsCollected);
+        return trySomethingSmart(buster, checkPoint, context, alliesWhoNeedEscort, getPossibleMoves(buster, context, alliesWhoNeedEscort)).move;
+    }
+
+    /**
+     * Same as {@link #findBestMove(Buster, TurnContext)}, but the move of the previous turn is kept while planCache
+     * finds it still valid, that costs one evaluation instead of evaluating all candidates.
+     */
+    public Move findBestMove(Buster buster, TurnContext context, PlanCache planCache) {
+        Move move = findForcedMove(buster, context);
+        if (move != null) {
+            planCache.forget(buster);
+            return move;
+        }
+        Point checkPoint = getCheckPoint(buster, context);
+        List<Buster> alliesWhoNeedEscort = getAlliesWhoNeedEscort(buster, context.allies, context.enemies, context.myBase, context.halfGhostsCollected);
+        CandidateSet possibleMoves = getPossibleMoves(buster, context, alliesWhoNeedEscort);
+        Move cachedMove = planCache.getRevalidatedMove(buster, checkPoint, context);
+        if (cachedMove != null && possibleMoves.contains(cachedMove)) {
+            EvaluationState evaluation = evaluator.evaluate(buster, getNewPosition(buster, cachedMove, gameParameters), cachedMove, checkPoint, alliesWhoNeedEscort, context);
+            if (planCache.confirm(buster, evaluation)) {
+                planCache.onLookup(true);
+                planCache.store(buster, cachedMove, evaluation, checkPoint, context);
+                return cachedMove;
+            }
+        }
+        planCache.onLookup(false);
+        ScoredMove best = trySomethingSmart(buster, checkPoint, context, alliesWhoNeedEscort, possibleMoves);
+        EvaluationState evaluation = best.evaluation;
+        if (evaluation == null) {
+            evaluation = evaluator.evaluate(buster, getNewPosition(buster, best.move, gameParameters), best.move, checkPoint, alliesWhoNeedEscort, context);
+        }
+        planCache.store(buster, best.move, evaluation, checkPoint, context);
+        return best.move;
+    }
+
+    /**
+     * Move decided by rules before any evaluation: waiting while stunned, release at base or stun, null if none
+     * applies.
+     */
+    Move findForcedMove(Buster buster, TurnContext context) {
+        if (buster.remainingStunDuration > 0) {
+            return release();
+        }
+        Move move;
+        if ((move = tryReleaseGhost(buster, context.myBase)) != null) {
+            return move;
+        }
+        if (gameParameters.STUN_ASSIGNMENT) {
+            return tryAssignedStun(buster, context);
+        }
+        return tryStunEnemy(buster, context.enemies, context.alreadyStunnedEnemies, context.halfGhostsCollected, context.allies, context.visibleGhosts, context.myBase);
     }
 
     private List<Ghost> leaveOnlyClosestToBase(List<Ghost> ghosts, Point myBase) {
@@ -80,40 +247,227 @@ public class BestMoveFinder {
         return r;
     }
 
-    private Move trySomethingSmart(
+    /**
+     * Chosen move with its evaluation, which is null if no candidate was evaluated or battle rollouts overrode it.
+     */
+    private ScoredMove trySomethingSmart(Buster buster, Point checkPoint, TurnContext context, List<Buster> alliesWhoNeedEscort, CandidateSet possibleMoves) {
+        ScoredMove best = findEvaluatorMove(buster, checkPoint, context, alliesWhoNeedEscort, possibleMoves);
+        if (gameParameters.BATTLE_ROLLOUTS > 0) {
+            List<Ghost> contestedGhosts = getContestedGhosts(buster, context);
+            if (!contestedGhosts.isEmpty()) {
+                Move move = battleRollouts.findBattleMove(buster, best.move, contestedGhosts, context);
+                if (!move.equals(best.move)) {
+                    best = new ScoredMove(move, null);
+                }
+            }
+        }
+        return best;
+    }
+
+    private List<Ghost> getContestedGhosts(Buster buster, TurnContext context) {
+        List<Ghost> r = new ArrayList<>();
+        for (Ghost ghost : context.ghosts) {
+            if (inBustRange(buster, ghost, gameParameters) && thereIsBattleForThisGhost(ghost, context.allies, context.enemies)) {
+                r.add(ghost);
+            }
+        }
+        return r;
+    }
+
+    private ScoredMove findEvaluatorMove(Buster buster, Point checkPoint, TurnContext context, List<Buster> alliesWhoNeedEscort, CandidateSet possibleMoves) {
+        context.mergedCandidateCnt += possibleMoves.getMergedCnt();
+        if (gameParameters.PARALLEL_EVALUATION && possibleMoves.size() > gameParameters.PARALLEL_EVALUATION_CHUNK) {
+            return trySomethingSmartInParallel(buster, checkPoint, context, alliesWhoNeedEscort, possibleMoves.toArray());
+        }
+
+        Move bestMove = null;
+        EvaluationState bestEvaluation = null;
+        for (int i = 0; i < possibleMoves.size(); i++) {
+            Move move = possibleMoves.get(i);
+            if (context.deadline.isExpired()) {
+                context.deadline.onSearchCut();
+                break;
+            }
+            EvaluationState evaluation = evaluateIfBetter(evaluator, gameParameters, buster, move, checkPoint, alliesWhoNeedEscort, context, bestEvaluation);
+            if (evaluation != null) {
+                bestEvaluation = evaluation;
+                bestMove = move;
+            }
+        }
+        if (bestMove == null) {
+            return new ScoredMove(getFallbackMove(buster, checkPoint, context), null);
+        }
+        return new ScoredMove(bestMove, bestEvaluation);
+    }
+
+    /**
+     * Evaluation of the move if it is better than best, null otherwise.
+     */
+    private static EvaluationState evaluateIfBetter(
+            Evaluator evaluator,
+            GameParameters gameParameters,
             Buster buster,
-            Point myBase,
-            List<Buster> allies,
-            List<Buster> enemies,
-            List<Ghost> ghosts,
+            Move move,
             Point checkPoint,
-            Set<Integer> alreadyBusted,
-            List<CheckPoint> checkPoints,
-            boolean halfGhostsCollected,
-            int[] prevMoveBustCnt
+            List<Buster> alliesWhoNeedEscort,
+            TurnContext context,
+            EvaluationState best
     ) {
-        Set<Move> possibleMoves = new LinkedHashSet<>();
+        Point newPosition = getNewPosition(buster, move, gameParameters);
+        if (gameParameters.LAZY_EVALUATION) {
+            return evaluator.evaluateIfBetter(buster, newPosition, move, checkPoint, alliesWhoNeedEscort, context, best);
+        }
+        EvaluationState evaluation = evaluator.evaluate(buster, newPosition, move, checkPoint, alliesWhoNeedEscort, context);
+        return evaluation.better(best) ? evaluation : null;
+    }
+
+    /**
+     * Same choice as the sequential loop: every chunk keeps its first best candidate and a right half wins
+     * only if it is strictly better, so ties go to the earlier candidate whatever the split.
+     */
+    private ScoredMove trySomethingSmartInParallel(Buster buster, Point checkPoint, TurnContext context, List<Buster> alliesWhoNeedEscort, Move[] moves) {
+        CandidateEvaluation task = new CandidateEvaluation(evaluator, gameParameters, buster, checkPoint, context, alliesWhoNeedEscort, moves, 0, moves.length);
+        Candidate best = ForkJoinPool.commonPool().invoke(task);
+        if (best.cut) {
+            context.deadline.onSearchCut();
+        }
+        if (best.move == null) {
+            return new ScoredMove(getFallbackMove(buster, checkPoint, context), null);
+        }
+        return new ScoredMove(best.move, best.evaluation);
+    }
+
+    private static class Candidate {
+        final Move move;
+        final EvaluationState evaluation;
+        final boolean cut;
+
+        Candidate(Move move, EvaluationState evaluation, boolean cut) {
+            this.move = move;
+            this.evaluation = evaluation;
+            this.cut = cut;
+        }
+
+        Candidate merge(Candidate right) {
+            boolean cut = this.cut || right.cut;
+            if (right.evaluation != null && right.evaluation.better(evaluation)) {
+                return new Candidate(right.move, right.evaluation, cut);
+            }
+            return new Candidate(move, evaluation, cut);
+        }
+    }
+
+    @SuppressWarnings("serial") // never serialized, only run in the fork join pool
+    private static class CandidateEvaluation extends RecursiveTask<Candidate> {
+        private final Evaluator evaluator;
+        private final GameParameters gameParameters;
+        private final Buster buster;
+        private final Point checkPoint;
+        private final TurnContext context;
+        private final List<Buster> alliesWhoNeedEscort;
+        private final Move[] moves;
+        private final int from;
+        private final int to;
+
+        CandidateEvaluation(
+                Evaluator evaluator,
+                GameParameters gameParameters,
+                Buster buster,
+                Point checkPoint,
+                TurnContext context,
+                List<Buster> alliesWhoNeedEscort,
+                Move[] moves,
+                int from,
+                int to
+        ) {
+            this.evaluator = evaluator;
+            this.gameParameters = gameParameters;
+            this.buster = buster;
+            this.checkPoint = checkPoint;
+            this.context = context;
+            this.alliesWhoNeedEscort = alliesWhoNeedEscort;
+            this.moves = moves;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Candidate compute() {
+            if (to - from <= gameParameters.PARALLEL_EVALUATION_CHUNK) {
+                return evaluateChunk();
+            }
+            int mid = (from + to) >>> 1;
+            CandidateEvaluation left = new CandidateEvaluation(evaluator, gameParameters, buster, checkPoint, context, alliesWhoNeedEscort, moves, from, mid);
+            CandidateEvaluation right = new CandidateEvaluation(evaluator, gameParameters, buster, checkPoint, context, alliesWhoNeedEscort, moves, mid, to);
+            left.fork();
+            Candidate rightBest = right.compute();
+            return left.join().merge(rightBest);
+        }
+
+        private Candidate evaluateChunk() {
+            Move bestMove = null;
+            EvaluationState bestEvaluation = null;
+            for (int i = from; i < to; i++) {
+                if (context.deadline.isExpired()) {
+                    return new Candidate(bestMove, bestEvaluation, true);
+                }
+                EvaluationState evaluation = evaluateIfBetter(evaluator, gameParameters, buster, moves[i], checkPoint, alliesWhoNeedEscort, context, bestEvaluation);
+                if (evaluation != null) {
+                    bestEvaluation = evaluation;
+                    bestMove = moves[i];
+                }
+            }
+            return new Candidate(bestMove, bestEvaluation, false);
+        }
+    }
+
+    /**
+     * Up to maxCnt of the moves trySomethingSmart chooses from, best first.
+     */
+    List<ScoredMove> getBestSmartMoves(Buster buster, TurnContext context, int maxCnt) {
+        Point checkPoint = getCheckPoint(buster, context);
+        List<Buster> alliesWhoNeedEscort = getAlliesWhoNeedEscort(buster, context.allies, context.enemies, context.myBase, context.halfGhostsCollected);
+        List<ScoredMove> r = new ArrayList<>();
+        CandidateSet possibleMoves = getPossibleMoves(buster, context, alliesWhoNeedEscort);
+        context.mergedCandidateCnt += possibleMoves.getMergedCnt();
+        for (int i = 0; i < possibleMoves.size(); i++) {
+            Move move = possibleMoves.get(i);
+            if (context.deadline.isExpired()) {
+                context.deadline.onSearchCut();
+                break;
+            }
+            Point newPosition = getNewPosition(buster, move, this.gameParameters);
+            EvaluationState evaluation = evaluator.evaluate(buster, newPosition, move, checkPoint, alliesWhoNeedEscort, context);
+            ScoredMove.insert(r, new ScoredMove(move, evaluation), maxCnt);
+        }
+        return r;
+    }
+
+    private CandidateSet getPossibleMoves(Buster buster, TurnContext context, List<Buster> alliesWhoNeedEscort) {
+        Point myBase = context.myBase;
+        List<Buster> enemies = context.enemies;
+        List<Ghost> ghosts = context.ghosts;
+        CandidateSet possibleMoves = new CandidateSet(buster, gameParameters);
         possibleMoves.add(move(moveToWithAllowedRange(buster.x, buster.y, myBase.x, myBase.y, gameParameters.RELEASE_RANGE)));
         possibleMoves.add(move(buster.x, buster.y));
         for (Buster enemy : enemies) {
             possibleMoves.add(move(runawayPoint(enemy.x, enemy.y, buster.x, buster.y, gameParameters.MOVE_RANGE)));
             possibleMoves.add(move(moveToBeOutsideRange(buster.x, buster.y, enemy.x, enemy.y, gameParameters.MIN_BUST_RANGE)));
         }
-        Set<Integer> forbiddenGhosts = getForbiddenGhosts(ghosts, allies, enemies, prevMoveBustCnt);
+        Set<Integer> forbiddenGhosts = context.forbiddenGhosts;
         for (Ghost ghost : ghosts) {
-            if (dist(buster, ghost) >= gameParameters.MIN_BUST_RANGE && dist(buster, ghost) <= gameParameters.MAX_BUST_RANGE
-                    && !forbiddenGhosts.contains(ghost.id)) {
+            if (inBustRange(buster, ghost, gameParameters) && !forbiddenGhosts.contains(ghost.id)) {
                 possibleMoves.add(bust(ghost.id));
             }
             possibleMoves.add(move(ghost.x, ghost.y));
         }
-        for (CheckPoint point : checkPoints) {
+        for (CheckPoint point : context.checkPoints) {
             possibleMoves.add(move(point.p));
         }
         for (Buster enemy : enemies) {
             possibleMoves.add(move(enemy.x, enemy.y));
         }
-        List<List<Buster>> enemiesWithGhostNextPositions = getEnemiesWithGhostNextPositions(enemies, getEnemyBase(myBase, gameParameters));
+        List<List<Buster>> enemiesWithGhostNextPositions = context.enemiesWithGhostNextPositions;
         for (List<Buster> list : enemiesWithGhostNextPositions) {
             for (Buster enemyPosition : list) {
                 possibleMoves.add(move(enemyPosition.x, enemyPosition.y));
@@ -123,9 +477,6 @@ public class BestMoveFinder {
                 possibleMoves.add(move(moveToBeOutsideRange(buster.x, buster.y, afterOneMove.x, afterOneMove.y, gameParameters.MIN_BUST_RANGE)));
             }
         }
-        boolean someOfUsCanCatchSomeEnemyWithGhost = checkSomeOfUsCanCatchEnemyWithGhost(allies, enemies, enemiesWithGhostNextPositions);
-        List<Buster> alliesWhoNeedEscort = getAlliesWhoNeedEscort(buster, allies, enemies, myBase, halfGhostsCollected);
-        List<Point> battles = getBattles(allies, enemies, ghosts);
         for (Buster ally : alliesWhoNeedEscort) {
             possibleMoves.add(move(ally.x, ally.y));
             Point nextPosition = getPositionAfterMovingToBase(ally, myBase, gameParameters);
@@ -133,35 +484,55 @@ public class BestMoveFinder {
             possibleMoves.add(move(moveToBeOutsideRange(buster.x, buster.y, nextPosition.x, nextPosition.y, gameParameters.MIN_BUST_RANGE)));
             possibleMoves.add(move(moveToBeOutsideRange(buster.x, buster.y, ally.x, ally.y, gameParameters.MIN_BUST_RANGE)));
         }
+        return possibleMoves;
+    }
 
-        Move bestMove = null;
-        EvaluationState bestEvaluation = null;
-        for (Move move : possibleMoves) {
-            Point newPosition = getNewPosition(buster, move, this.gameParameters);
-            EvaluationState evaluation = evaluator.evaluate(
-                    buster,
-                    newPosition,
-                    myBase,
-                    allies,
-                    enemies,
-                    ghosts,
-                    move,
-                    checkPoint,
-                    alreadyBusted,
-                    enemiesWithGhostNextPositions,
-                    alliesWhoNeedEscort,
-                    someOfUsCanCatchSomeEnemyWithGhost,
-                    battles
-            );
-            if (evaluation.better(bestEvaluation)) {
-                bestEvaluation = evaluation;
-                bestMove = move;
+    /**
+     * Move without any evaluation for when the deadline came before the first candidate.
+     */
+    private Move getFallbackMove(Buster buster, Point checkPoint, TurnContext context) {
+        if (buster.isCarryingGhost) {
+            return move(context.myBase);
+        }
+        for (Ghost ghost : context.ghosts) {
+            if (inBustRange(buster, ghost, gameParameters) && !context.forbiddenGhosts.contains(ghost.id)) {
+                return bust(ghost.id);
             }
         }
-        return bestMove;
+        if (checkPoint == null) {
+            return move(buster.x, buster.y);
+        }
+        return move(checkPoint);
     }
 
-    private List<Point> getBattles(List<Buster> allies, List<Buster> enemies, List<Ghost> ghosts) {
+    static class ScoredMove {
+        final Move move;
+        final EvaluationState evaluation;
+
+        ScoredMove(Move move, EvaluationState evaluation) {
+            this.move = move;
+            this.evaluation = evaluation;
+        }
+
+        /**
+         * Inserts into list sorted best first, after equally good ones, keeping at most maxCnt elements.
+         */
+        static <T extends ScoredMove> void insert(List<T> sorted, T scoredMove, int maxCnt) {
+            int i = sorted.size();
+            while (i > 0 && scoredMove.evaluation.better(sorted.get(i - 1).evaluation)) {
+                i--;
+            }
+            if (i >= maxCnt) {
+                return;
+            }
+            sorted.add(i, scoredMove);
+            if (sorted.size() > maxCnt) {
+                sorted.remove(maxCnt);
+            }
+        }
+    }
+
+    List<Point> getBattles(List<Buster> allies, List<Buster> enemies, List<Ghost> ghosts) {
         List<Point> r = new ArrayList<>();
         for (Ghost ghost : ghosts) {
             if (thereIsBattleForThisGhost(ghost, allies, enemies)) {
@@ -183,8 +554,7 @@ public class BestMoveFinder {
     private int getInBustRange(Ghost ghost, List<Buster> busters) {
         int cnt = 0;
         for (Buster buster : busters) {
-            double dist = dist(buster, ghost);
-            if (inBustRange(dist, gameParameters)) {
+            if (inBustRange(buster, ghost, gameParameters)) {
                 cnt++;
             }
         }
@@ -217,8 +587,7 @@ public class BestMoveFinder {
             if (enemy.remainingStunDuration == 0) {
                 continue;
             }
-            double dist = dist(enemy, ghost);
-            if (enemy.remainingStunDuration < movesToBust && inBustRange(dist, gameParameters)) {
+            if (enemy.remainingStunDuration < movesToBust && inBustRange(enemy, ghost, gameParameters)) {
                 cnt++;
             }
         }
@@ -235,21 +604,20 @@ public class BestMoveFinder {
             if (buster.remainingStunDuration > 0) {
                 continue;
             }
-            double dist = dist(buster, ghost);
-            if (inBustRange(dist, gameParameters)) {
+            if (inBustRange(buster, ghost, gameParameters)) {
                 cnt++;
             }
         }
         return cnt;
     }
 
-    private boolean checkSomeOfUsCanCatchEnemyWithGhost(List<Buster> allies, List<Buster> enemies, List<List<Buster>> enemiesWithGhostNextPositions) {
+    boolean checkSomeOfUsCanCatchEnemyWithGhost(List<Buster> allies, List<Buster> enemies, List<List<Buster>> enemiesWithGhostNextPositions) {
         for (Buster enemy : enemies) {
             if (!enemy.isCarryingGhost) {
                 continue;
             }
             for (Buster ally : allies) {
-                if (ally.remainingStunDuration == 0 && ally.hasStun() && dist(ally, enemy) <= gameParameters.STUN_RANGE) {
+                if (ally.remainingStunDuration == 0 && ally.hasStun() && dist2(ally, enemy) <= gameParameters.stunRange2()) {
                     return true;
                 }
             }
@@ -279,7 +647,7 @@ public class BestMoveFinder {
         return false;
     }
 
-    private List<Buster> getAlliesWhoNeedEscort(Buster me, List<Buster> allies, List<Buster> enemies, Point myBase, boolean halfGhostsCollected) {
+    List<Buster> getAlliesWhoNeedEscort(Buster me, List<Buster> allies, List<Buster> enemies, Point myBase, boolean halfGhostsCollected) {
         List<Buster> r = new ArrayList<>();
         for (Buster ally : allies) {
             if (needsEscort(me, ally, enemies, myBase, halfGhostsCollected, allies)) {
@@ -302,7 +670,7 @@ public class BestMoveFinder {
             if (isDangerous(courier, myBase, newCourierPosition, enemy)) {
                 dangerousEnemiesCnt++;
             }
-            if (enemy.remainingStunDuration == 0 && enemy.remainingStunCooldown == 0 && dist(enemy, courier) <= gameParameters.STUN_RANGE) {
+            if (enemy.remainingStunDuration == 0 && enemy.remainingStunCooldown == 0 && dist2(enemy, courier) <= gameParameters.stunRange2()) {
                 return true;
             }
         }
@@ -317,10 +685,10 @@ public class BestMoveFinder {
             if (ally.remainingStunDuration > 0) {
                 continue;
             }
-            if (dist(ally, courier) >= dist(ally, me)) {
+            if (dist2(ally, courier) >= dist2(ally, me)) {
                 continue;
             }
-            if (dist(ally, courier) <= gameParameters.STUN_RANGE + gameParameters.MOVE_RANGE) {
+            if (withinRange(ally, courier, gameParameters.STUN_RANGE + gameParameters.MOVE_RANGE)) {
                 escortersCloserThanMeCnt++;
             }
         }
@@ -332,21 +700,21 @@ public class BestMoveFinder {
             return false;
         }
         if (enemy.remainingStunDuration == 1) {
-            return dist(enemy, newCourierPosition) <= gameParameters.STUN_RANGE;
+            return dist2(enemy, newCourierPosition) <= gameParameters.stunRange2();
         }
-        if (dist(enemy, courier) <= gameParameters.STUN_RANGE) {
+        if (dist2(enemy, courier) <= gameParameters.stunRange2()) {
             return true;
         }
-        if (dist(enemy, myBase) <= dist(courier, myBase)) {
+        if (dist2(enemy, myBase) <= dist2(courier, myBase)) {
             return true;
         }
-        if (dist(enemy, newCourierPosition) <= gameParameters.MOVE_RANGE + gameParameters.STUN_RANGE) {
+        if (withinRange(enemy, newCourierPosition, gameParameters.MOVE_RANGE + gameParameters.STUN_RANGE)) {
             return true;
         }
         return false;
     }
 
-    private List<List<Buster>> getEnemiesWithGhostNextPositions(List<Buster> enemies, Point enemyBase) {
+    List<List<Buster>> getEnemiesWithGhostNextPositions(List<Buster> enemies, Point enemyBase) {
         List<List<Buster>> r = new ArrayList<>();
         for (Buster enemy : enemies) {
             if (enemy.isCarryingGhost) {
@@ -378,12 +746,41 @@ public class BestMoveFinder {
         if (!buster.isCarryingGhost) {
             return null;
         }
-        if (dist(buster, myBase) <= gameParameters.RELEASE_RANGE) {
+        if (dist2(buster, myBase) <= gameParameters.releaseRange2()) {
             return release();
         }
         return null;
     }
 
+    private Point getCheckPoint(Buster buster, TurnContext context) {
+        if (context.ghostBelief != null) {
+            return getMostValuableCheckPoint(buster, context.checkPoints, context.ghostBelief);
+        }
+        return getCheckPoint(buster, context.checkPoints);
+    }
+
+    /**
+     * Like {@link #getCheckPoint(Buster, List)} one of the check points we haven't seen for the longest time, but the
+     * one with the most expected ghost value within FOG_RANGE per turn of getting there instead of the nearest.
+     */
+    private Point getMostValuableCheckPoint(Buster buster, List<CheckPoint> checkPoints, GhostBelief ghostBelief) {
+        int range = gameParameters.FOG_RANGE;
+        int minLastSeen = Integer.MAX_VALUE;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        Point r = null;
+        for (CheckPoint checkPoint : checkPoints) {
+            Point p = checkPoint.p;
+            double turns = 1 + Math.ceil(dist(buster, p) / gameParameters.MOVE_RANGE);
+            double value = ghostBelief.getExpectedValue(p.x - range, p.y - range, p.x + range, p.y + range) / turns;
+            if (checkPoint.lastSeen < minLastSeen || checkPoint.lastSeen == minLastSeen && value > bestValue) {
+                minLastSeen = checkPoint.lastSeen;
+                bestValue = value;
+                r = p;
+            }
+        }
+        return r;
+    }
+
     private Point getCheckPoint(Buster buster, List<CheckPoint> checkPoints) {
         int minLastSeen = Integer.MAX_VALUE;
         double minDist = Double.POSITIVE_INFINITY;
@@ -418,11 +815,102 @@ public class BestMoveFinder {
         return stun(bestTarget.id);
     }
 
+    /**
+     * Stun of the target {@link StunAssignment} gives this buster when all allies who could stun now are matched
+     * together once per turn. If somebody else has stunned that target meanwhile, the buster chooses by itself.
+     */
+    private Move tryAssignedStun(Buster buster, TurnContext context) {
+        if (buster.remainingStunCooldown > 0) {
+            return null;
+        }
+        if (context.stunTargets == null) {
+            context.stunTargets = getStunTargets(context);
+        }
+        Integer target = context.stunTargets.get(buster.id);
+        if (target != null && context.alreadyStunnedEnemies.contains(target)) {
+            return tryStunEnemy(buster, context.enemies, context.alreadyStunnedEnemies, context.halfGhostsCollected, context.allies, context.visibleGhosts, context.myBase);
+        }
+        return target == null ? null : stun(target);
+    }
+
+    /**
+     * Target enemy id by ally id.
+     */
+    Map<Integer, Integer> getStunTargets(TurnContext context) {
+        List<Buster> stunners = new ArrayList<>();
+        for (Buster ally : context.allies) {
+            if (ally.remainingStunCooldown == 0 && ally.remainingStunDuration == 0 && tryReleaseGhost(ally, context.myBase) == null) {
+                stunners.add(ally);
+            }
+        }
+        List<Buster> targets = new ArrayList<>();
+        for (Buster enemy : context.enemies) {
+            for (Buster stunner : stunners) {
+                if (getStunValue(stunner, enemy, context) >= 0) {
+                    targets.add(enemy);
+                    break;
+                }
+            }
+        }
+        Map<Integer, Integer> r = new HashMap<>();
+        if (targets.isEmpty()) {
+            return r;
+        }
+        targets = targets.subList(0, min(targets.size(), StunAssignment.MAX_TARGET_CNT));
+        long[][] values = new long[stunners.size()][targets.size()];
+        for (int i = 0; i < stunners.size(); i++) {
+            for (int j = 0; j < targets.size(); j++) {
+                values[i][j] = getStunValue(stunners.get(i), targets.get(j), context);
+            }
+        }
+        int[] assignment = StunAssignment.assign(values);
+        for (int i = 0; i < stunners.size(); i++) {
+            if (assignment[i] != -1) {
+                r.put(stunners.get(i).id, targets.get(assignment[i]).id);
+            }
+        }
+        return r;
+    }
+
+    /**
+     * Fields in the order of {@link #betterTarget}, with enemies who bust a contested ghost right after couriers,
+     * each field outweighs the sum of the next ones over five stuns. Negative if the stun shouldn't be used.
+     */
+    private long getStunValue(Buster buster, Buster enemy, TurnContext context) {
+        if (shouldNotUseStun(buster, enemy, context.alreadyStunnedEnemies, context.halfGhostsCollected, context.allies, context.visibleGhosts, context.enemies, context.myBase)) {
+            return -1;
+        }
+        long r = 0;
+        if (enemy.isCarryingGhost) {
+            r += 10_000_000;
+        }
+        if (isBustingInBattle(enemy, context.battles)) {
+            r += 1_000_000;
+        }
+        if (!enemy.hasStun()) {
+            r += 100_000;
+        }
+        r += 100 * max(0, gameParameters.STUN_COOLDOWN - enemy.remainingStunCooldown);
+        if (inBustRange(dist2(enemy, buster), gameParameters)) {
+            r += 1;
+        }
+        return r;
+    }
+
+    private boolean isBustingInBattle(Buster enemy, List<Point> battles) {
+        for (Point battle : battles) {
+            if (inBustRange(dist2(enemy, battle), gameParameters)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private boolean shouldNotUseStun(Buster buster, Buster enemy, Set<Integer> alreadyStunnedEnemies, boolean halfGhostsCollected, List<Buster> allies, List<Ghost> ghosts, List<Buster> enemies, Point myBase) {
         if (alreadyStunnedEnemies.contains(enemy.id)) {
             return true;
         }
-        if (dist(buster, enemy) > gameParameters.STUN_RANGE) {
+        if (dist2(buster, enemy) > gameParameters.stunRange2()) {
             return true;
         }
         if (enemy.remainingStunDuration > 1) {
@@ -462,14 +950,14 @@ public class BestMoveFinder {
     private int getMovesToEscape(List<Buster> allies, List<Buster> enemies, Ghost ghost, Point myBase) {
         Buster closest = null;
         for (Buster ally : allies) {
-            if (closest == null || dist(ally, ghost) < dist(closest, ally)) {
+            if (closest == null || dist2(ally, ghost) < dist2(closest, ally)) {
                 closest = ally;
             }
         }
         //noinspection ConstantConditions
         Point courierPosition = new Point(closest.x, closest.y);
         int cnt = 0;
-        while (inStunRange(courierPosition, enemies) && dist(courierPosition, myBase) > gameParameters.RELEASE_RANGE) {
+        while (inStunRange(courierPosition, enemies) && dist2(courierPosition, myBase) > gameParameters.releaseRange2()) {
             courierPosition = getPositionAfterMovingToBase(courierPosition.x, courierPosition.y, myBase, gameParameters);
             cnt++;
         }
@@ -478,7 +966,7 @@ public class BestMoveFinder {
 
     private boolean inStunRange(Point courier, List<Buster> enemies) {
         for (Buster enemy : enemies) {
-            if (dist(courier, enemy) <= gameParameters.STUN_RANGE) {
+            if (dist2(courier, enemy) <= gameParameters.stunRange2()) {
                 return true;
             }
         }
@@ -498,8 +986,8 @@ public class BestMoveFinder {
         if (newTarget.remainingStunCooldown != oldTarget.remainingStunCooldown) {
             return newTarget.remainingStunCooldown < oldTarget.remainingStunCooldown;
         }
-        boolean newCanTakeGhost = inBustRange(dist(newTarget, me), gameParameters);
-        boolean oldCanTakeGhost = inBustRange(dist(oldTarget, me), gameParameters);
+        boolean newCanTakeGhost = inBustRange(dist2(newTarget, me), gameParameters);
+        boolean oldCanTakeGhost = inBustRange(dist2(oldTarget, me), gameParameters);
         if (newCanTakeGhost != oldCanTakeGhost) {
             return newCanTakeGhost;
         }
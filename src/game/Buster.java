@@ -29,6 +29,20 @@ public class Buster {
         return remainingStunCooldown == 0;
     }
 
+    public Buster withPosition(int x, int y) {
+        if (x == this.x && y == this.y) {
+            return this;
+        }
+        return new Buster(id, x, y, isCarryingGhost, remainingStunDuration, remainingStunCooldown, ghostId, lastSeen);
+    }
+
+    public Buster withStunCooldown(int remainingStunCooldown) {
+        if (remainingStunCooldown == this.remainingStunCooldown) {
+            return this;
+        }
+        return new Buster(id, x, y, isCarryingGhost, remainingStunDuration, remainingStunCooldown, ghostId, lastSeen);
+    }
+
     @Override
     public String toString() {
         return "Buster{" +
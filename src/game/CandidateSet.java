@@ -0,0 +1,137 @@
+package game;
+
+import java.util.Arrays;
+
+import static game.Utils.*;
+
+/**
+ * Candidate moves of one buster in insertion order, so that ties still go to the first one. A MOVE is kept only if no
+ * earlier candidate leads to the same next position, the one {@link Utils#getNewPosition} resolves it to:
+ * {@link Evaluator} would give it the same evaluation and it could never win. Other moves are told apart by type and
+ * target.
+ * <p>
+ * Moves are keyed by packed (type, x, y, target) longs in an open addressing table. Every move is stored twice, with
+ * its raw target and with its resolved position, so that moves dropped for their position are told apart from plain
+ * repeats, which a set of moves drops too.
+ */
+public class CandidateSet {
+    private static final long EMPTY = 0;
+    private static final long RAW = 1L << 61;
+    private static final long RESOLVED = 1L << 62;
+    private static final int INITIAL_CAPACITY_LOG2 = 7;
+
+    private final Buster buster;
+    private final GameParameters gameParameters;
+    private long[] table = new long[1 << INITIAL_CAPACITY_LOG2];
+    private int tableSizeLog2 = INITIAL_CAPACITY_LOG2;
+    private int keyCnt;
+    private Move[] moves = new Move[32];
+    private int size;
+    private int mergedCnt;
+
+    public CandidateSet(Buster buster, GameParameters gameParameters) {
+        this.buster = buster;
+        this.gameParameters = gameParameters;
+    }
+
+    public void add(Move move) {
+        if (!insert(RAW | pack(move.type, move.x, move.y, move.targetId))) {
+            return;
+        }
+        if (!insert(getResolvedKey(move))) {
+            mergedCnt++;
+            return;
+        }
+        if (size == moves.length) {
+            moves = Arrays.copyOf(moves, size * 2);
+        }
+        moves[size++] = move;
+    }
+
+    /**
+     * True if some candidate leads where move does.
+     */
+    public boolean contains(Move move) {
+        return find(getResolvedKey(move)) >= 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public Move get(int i) {
+        return moves[i];
+    }
+
+    public Move[] toArray() {
+        return Arrays.copyOf(moves, size);
+    }
+
+    /**
+     * Moves dropped because an earlier candidate leads to the same position, each one an evaluation saved.
+     */
+    public int getMergedCnt() {
+        return mergedCnt;
+    }
+
+    private long getResolvedKey(Move move) {
+        if (move.type != MoveType.MOVE) {
+            return RESOLVED | pack(move.type, -1, -1, move.targetId);
+        }
+        Point p = getNewPosition(buster.x, buster.y, move.x, move.y, gameParameters.MOVE_RANGE, gameParameters);
+        return RESOLVED | pack(MoveType.MOVE, p.x, p.y, -1);
+    }
+
+    /**
+     * 2 bits of type, 20 of x and y each, targets may be outside the map, and 18 of target id.
+     */
+    private static long pack(MoveType type, int x, int y, int targetId) {
+        return (long) type.ordinal() << 58 | (x & 0xFFFFFL) << 38 | (y & 0xFFFFFL) << 18 | (targetId & 0x3FFFFL);
+    }
+
+    /**
+     * @return false if the key was there already
+     */
+    private boolean insert(long key) {
+        int i = find(key);
+        if (i >= 0) {
+            return false;
+        }
+        table[-i - 1] = key;
+        keyCnt++;
+        if (keyCnt * 2 > table.length) {
+            grow();
+        }
+        return true;
+    }
+
+    /**
+     * @return index of the key, or -(index of the empty slot where it would go) - 1
+     */
+    private int find(long key) {
+        int mask = table.length - 1;
+        int i = index(key);
+        while (table[i] != EMPTY) {
+            if (table[i] == key) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return -i - 1;
+    }
+
+    private int index(long key) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> (64 - tableSizeLog2));
+    }
+
+    private void grow() {
+        long[] old = table;
+        tableSizeLog2++;
+        table = new long[1 << tableSizeLog2];
+        for (long key : old) {
+            if (key != EMPTY) {
+                table[-find(key) - 1] = key;
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package game;
+
+import static game.Utils.*;
+
+/**
+ * Cheap guess of what busters of one team do in a simulated turn: couriers go home and release there,
+ * those who can stun a courier of the other team do it, those next to a ghost bust it, others stay.
+ * Staying is a null move, which {@link GameSimulator} plays the same way, and the other moves are made once and
+ * shared between calls, so that rollouts calling this every turn don't allocate.
+ */
+public class EnemyPolicy {
+    private final GameParameters gameParameters;
+    private final Move release = Move.release();
+    private final Move[] toBase;
+    private Move[] busts = new Move[0];
+    private Move[] stuns = new Move[0];
+
+    public EnemyPolicy(GameParameters gameParameters) {
+        this.gameParameters = gameParameters;
+        toBase = new Move[]{Move.move(0, 0), Move.move(gameParameters.H - 1, gameParameters.W - 1)};
+    }
+
+    public void fillMoves(WorldState s, int team, Move[] moves) {
+        ensureCapacity(s);
+        int baseX = team == 0 ? 0 : gameParameters.H - 1;
+        int baseY = team == 0 ? 0 : gameParameters.W - 1;
+        for (int i = team * s.bustersPerPlayer; i < (team + 1) * s.bustersPerPlayer; i++) {
+            if (!s.busterKnown[i] || s.stunDuration[i] > 0) {
+                moves[i] = null;
+            } else if (s.isCarryingGhost(i)) {
+                if (dist2(s.busterX[i], s.busterY[i], baseX, baseY) <= gameParameters.releaseRange2()) {
+                    moves[i] = release;
+                } else {
+                    moves[i] = toBase[team];
+                }
+            } else {
+                moves[i] = getIdleMove(s, team, i);
+            }
+        }
+    }
+
+    private Move getIdleMove(WorldState s, int team, int i) {
+        if (s.stunCooldown[i] == 0) {
+            for (int j = (1 - team) * s.bustersPerPlayer; j < (2 - team) * s.bustersPerPlayer; j++) {
+                if (s.busterKnown[j] && s.isCarryingGhost(j) && s.stunDuration[j] == 0
+                        && dist2(s.busterX[i], s.busterY[i], s.busterX[j], s.busterY[j]) <= gameParameters.stunRange2()) {
+                    return stuns[j];
+                }
+            }
+        }
+        for (int g = 0; g < s.ghostCnt; g++) {
+            if (s.ghostState[g] == WorldState.GHOST_FREE
+                    && inBustRange(dist2(s.busterX[i], s.busterY[i], s.ghostX[g], s.ghostY[g]), gameParameters)) {
+                return busts[g];
+            }
+        }
+        return null;
+    }
+
+    private void ensureCapacity(WorldState s) {
+        if (busts.length < s.ghostCnt) {
+            busts = new Move[s.ghostCnt];
+            for (int g = 0; g < busts.length; g++) {
+                busts[g] = Move.bust(g);
+            }
+        }
+        if (stuns.length < s.busterCnt()) {
+            stuns = new Move[s.busterCnt()];
+            for (int i = 0; i < stuns.length; i++) {
+                stuns[i] = Move.stun(i);
+            }
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package game;
+
+import java.util.Arrays;
+
+/**
+ * Sortable 128 bit keys of a batch of {@link EvaluationState}s, a larger key is a better state. Fields are written in
+ * the priority order of {@link EvaluationState#better} from the highest bit down, so comparing two keys compares the
+ * states field by field with no branches. Fields {@link EvaluationState#better} doesn't look at for a state are zeros.
+ * <p>
+ * Distances and move counts are quantized to their rank among the distinct values of the same field in the batch,
+ * VALUE_BITS each. A fixed grid fitting the map diagonal into the same bits can't tell apart candidate moves of one
+ * buster, whose distances often differ by a fraction of a unit, ranks lose nothing. Keys of comparable states order
+ * them exactly like {@link EvaluationState#better} and are equal when neither is better; they mean nothing outside
+ * their batch.
+ * <p>
+ * Ranking costs a sort per field, so for the few dozen candidates of one buster {@link BestMoveFinder.ScoredMove#insert}
+ * with {@link EvaluationState#better} stays cheaper; keys are for large batches like pooled search states.
+ */
+public class EvaluationKey implements Comparable<EvaluationKey> {
+    static final int VALUE_BITS = 12;
+    static final int MAX_DISTINCT_VALUE_CNT = (1 << VALUE_BITS) - 1;
+
+    final long high;
+    final long low;
+
+    EvaluationKey(long high, long low) {
+        this.high = high;
+        this.low = low;
+    }
+
+    /**
+     * @return keys of states in the same order
+     */
+    public static EvaluationKey[] encode(EvaluationState[] states) {
+        Collector collector = new Collector(states.length);
+        for (EvaluationState state : states) {
+            collector.startState();
+            state.writeKey(collector);
+        }
+        EvaluationKey[] r = new EvaluationKey[states.length];
+        Builder builder = new Builder(collector.getDistinctValues());
+        for (int i = 0; i < states.length; i++) {
+            builder.startState();
+            states[i].writeKey(builder);
+            r[i] = builder.build();
+        }
+        return r;
+    }
+
+    /**
+     * @return indices of comparable states best first, equally good ones in their original order
+     */
+    public static Integer[] sortBestFirst(EvaluationState[] states) {
+        EvaluationKey[] keys = encode(states);
+        Integer[] r = new Integer[states.length];
+        for (int i = 0; i < r.length; i++) {
+            r[i] = i;
+        }
+        Arrays.sort(r, (i, j) -> keys[j].compareTo(keys[i]));
+        return r;
+    }
+
+    /**
+     * Pairs of comparable states whose keys order them unlike {@link EvaluationState#better}: a key is larger while its
+     * state is not better, or not larger while it is.
+     */
+    static int countDisagreements(EvaluationState[] states) {
+        EvaluationKey[] keys = encode(states);
+        int r = 0;
+        for (int i = 0; i < states.length; i++) {
+            for (int j = 0; j < states.length; j++) {
+                if (i != j && states[i].comparableWith(states[j]) && (keys[i].compareTo(keys[j]) > 0) != states[i].better(states[j])) {
+                    r++;
+                }
+            }
+        }
+        return r;
+    }
+
+    @Override
+    public int compareTo(EvaluationKey o) {
+        if (high != o.high) {
+            return Long.compareUnsigned(high, o.high);
+        }
+        return Long.compareUnsigned(low, o.low);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        EvaluationKey that = (EvaluationKey) o;
+        return high == that.high && low == that.low;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(high) * 31 + Long.hashCode(low);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%016x%016x", high, low);
+    }
+
+    /**
+     * Receives the fields of one state in the order {@link EvaluationState#better} looks at them.
+     */
+    interface Writer {
+        /**
+         * @param value true is better
+         */
+        void flag(boolean value);
+
+        /**
+         * @param value smaller is better
+         */
+        void value(double value);
+
+        /**
+         * A value {@link EvaluationState#better} doesn't look at for this state.
+         */
+        void skip();
+    }
+
+    private static class Collector implements Writer {
+        private final double[][] values;
+        private final int[] valueCnts = new int[EvaluationState.KEY_VALUE_CNT];
+        private int slot;
+
+        Collector(int stateCnt) {
+            values = new double[EvaluationState.KEY_VALUE_CNT][stateCnt];
+        }
+
+        void startState() {
+            slot = 0;
+        }
+
+        @Override
+        public void flag(boolean value) {
+        }
+
+        @Override
+        public void value(double value) {
+            values[slot][valueCnts[slot]++] = value + 0.0; // -0.0 is 0.0 for better, not for Arrays.sort
+            slot++;
+        }
+
+        @Override
+        public void skip() {
+            slot++;
+        }
+
+        double[][] getDistinctValues() {
+            double[][] r = new double[values.length][];
+            for (int i = 0; i < r.length; i++) {
+                double[] a = values[i];
+                Arrays.sort(a, 0, valueCnts[i]);
+                int cnt = 0;
+                for (int j = 0; j < valueCnts[i]; j++) {
+                    if (j == 0 || a[j] != a[j - 1]) {
+                        a[cnt++] = a[j];
+                    }
+                }
+                if (cnt > MAX_DISTINCT_VALUE_CNT) {
+                    throw new RuntimeException("Too many distinct values in one field: " + cnt);
+                }
+                r[i] = Arrays.copyOf(a, cnt);
+            }
+            return r;
+        }
+    }
+
+    /**
+     * Writes fields one after another, every new field shifts the ones before it to higher bits.
+     */
+    private static class Builder implements Writer {
+        private final double[][] distinctValues;
+        private long high;
+        private long low;
+        private int bitCnt;
+        private int slot;
+
+        Builder(double[][] distinctValues) {
+            this.distinctValues = distinctValues;
+        }
+
+        void startState() {
+            high = 0;
+            low = 0;
+            bitCnt = 0;
+            slot = 0;
+        }
+
+        @Override
+        public void flag(boolean value) {
+            add(value ? 1 : 0, 1);
+        }
+
+        @Override
+        public void value(double value) {
+            double[] distinct = distinctValues[slot++];
+            int rank = Arrays.binarySearch(distinct, value + 0.0);
+            if (rank < 0) {
+                throw new RuntimeException("Value " + value + " was not collected");
+            }
+            add(distinct.length - rank, VALUE_BITS);
+        }
+
+        @Override
+        public void skip() {
+            slot++;
+            add(0, VALUE_BITS);
+        }
+
+        EvaluationKey build() {
+            return new EvaluationKey(high, low);
+        }
+
+        private void add(long value, int bits) {
+            bitCnt += bits;
+            if (bitCnt > 128) {
+                throw new RuntimeException("Key is longer than 128 bits");
+            }
+            high = (high << bits) | (low >>> (64 - bits));
+            low = (low << bits) | value;
+        }
+    }
+}
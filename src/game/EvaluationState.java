@@ -1,6 +1,8 @@
 package game;
 
 public class EvaluationState {
+    static final int KEY_VALUE_CNT = 10;
+
     private final boolean iCanBeStunned;
     private final boolean iHaveStun;
     private final boolean isCarryingGhost;
@@ -48,6 +50,84 @@ public class EvaluationState {
         this.distToBattle = distToBattle;
     }
 
+    boolean canBeStunned() {
+        return iCanBeStunned;
+    }
+
+    boolean iHaveStun() {
+        return iHaveStun;
+    }
+
+    boolean isCarryingGhost() {
+        return isCarryingGhost;
+    }
+
+    double getDistToCheckPoint() {
+        return distToCheckPoint;
+    }
+
+    double getDistToBase() {
+        return distToBase;
+    }
+
+    boolean isInReleaseRange() {
+        return inReleaseRange;
+    }
+
+    Evaluator.MovesAndDist getMovesAndDistToBustGhost() {
+        return movesAndDistToBustGhost;
+    }
+
+    boolean weSeeSomeGhost() {
+        return weSeeSomeGhost;
+    }
+
+    Evaluator.MovesAndDist getMovesToStunEnemyWithGhost() {
+        return movesToStunEnemyWithGhost;
+    }
+
+    double getDistToAllyWhoNeedsEscort() {
+        return distToAllyWhoNeedsEscort;
+    }
+
+    boolean someOfUsCanCatchEnemyWithGhost() {
+        return someOfUsCanCatchEnemyWithGhost;
+    }
+
+    double getMinDistToEnemyWithGhost() {
+        return minDistToEnemyWithGhost;
+    }
+
+    boolean hasSmallStunCooldown() {
+        return smallStunCooldown;
+    }
+
+    double getDistToBattle() {
+        return distToBattle;
+    }
+
+    /**
+     * States of moves from different positions can be compared by {@link #better} only if they agree on what it
+     * expects to be the same for all moves of one buster.
+     */
+    public boolean comparableWith(EvaluationState st) {
+        return iHaveStun == st.iHaveStun
+                && smallStunCooldown == st.smallStunCooldown
+                && someOfUsCanCatchEnemyWithGhost == st.someOfUsCanCatchEnemyWithGhost
+                && weSeeSomeGhost == st.weSeeSomeGhost;
+    }
+
+    /**
+     * Whether a move evaluated in another turn still faces the same: comparable, and the same danger of being
+     * stunned, carrying or not and in release range or not.
+     */
+    public boolean sameSituation(EvaluationState st) {
+        return comparableWith(st)
+                && iCanBeStunned == st.iCanBeStunned
+                && isCarryingGhost == st.isCarryingGhost
+                && inReleaseRange == st.inReleaseRange;
+    }
+
     public boolean better(EvaluationState st) {
         if (st == null) {
             return true;
@@ -121,6 +201,44 @@ public class EvaluationState {
         return false;
     }
 
+    /**
+     * Fields of {@link #better} in its order, see {@link EvaluationKey}. Always KEY_VALUE_CNT values or skips.
+     */
+    void writeKey(EvaluationKey.Writer w) {
+        w.flag(isCarryingGhost);
+        if (isCarryingGhost) {
+            w.flag(!iHaveStun && !iCanBeStunned);
+            w.flag(inReleaseRange);
+            if (inReleaseRange) {
+                w.skip();
+            } else {
+                w.value(distToBase);
+            }
+        } else {
+            w.flag(false);
+            w.flag(false);
+            w.skip();
+        }
+        w.flag(smallStunCooldown && !iCanBeStunned);
+        w.value(movesToStunEnemyWithGhost.getMoves());
+        w.value(movesToStunEnemyWithGhost.getDist());
+        w.value(distToAllyWhoNeedsEscort);
+        if (someOfUsCanCatchEnemyWithGhost) {
+            w.value(minDistToEnemyWithGhost);
+        } else {
+            w.skip();
+        }
+        w.value(distToBattle);
+        w.value(movesAndDistToBustGhost.getMoves());
+        w.value(movesAndDistToBustGhost.getDist());
+        if (weSeeSomeGhost) {
+            w.value(distToBase);
+        } else {
+            w.skip();
+        }
+        w.value(distToCheckPoint);
+    }
+
     @Override
     public String toString() {
         return "EvaluationState{" +
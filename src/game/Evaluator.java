@@ -2,7 +2,6 @@ package game;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
 
 import static game.Utils.*;
 import static java.lang.Math.*;
@@ -19,24 +18,15 @@ public class Evaluator {
     EvaluationState evaluate(
             Buster buster,
             Point newMyPosition,
-            Point myBase,
-            List<Buster> allies,
-            List<Buster> enemies,
-            List<Ghost> ghosts,
             Move move,
             Point checkPoint,
-            Set<Integer> alreadyBusted,
-            List<List<Buster>> enemiesWithGhostNextPositions,
             List<Buster> alliesWhoNeedEscort,
-            boolean someOfUsCanCatchEnemyWithGhost,
-            List<Point> battles
+            TurnContext context
     ) {
-        List<Buster> allBusters = new ArrayList<>(allies);
-        allBusters.addAll(enemies);
-        ghosts = moveGhosts(ghosts, move, allBusters, alreadyBusted);
-        List<Buster> currentEnemies = enemies;
-        enemies = moveEnemies(enemies, myBase);
-
+        Point myBase = context.myBase;
+        List<Ghost> ghosts = context.getGhostsAfterMove(move);
+        List<Buster> currentEnemies = context.enemies;
+        List<Buster> enemies = context.enemiesAfterMove;
 
         boolean canBeStunned = checkCanBeStunned(newMyPosition, enemies);
         boolean iHaveStun = buster.remainingStunCooldown == 0;
@@ -46,11 +36,105 @@ public class Evaluator {
         boolean inReleaseRange = distToBase <= gameParameters.RELEASE_RANGE;
         MovesAndDist movesToBustGhost = getMinMovesToBustGhost(newMyPosition, move, ghosts);
         boolean weSeeSomeGhost = !ghosts.isEmpty();
-        MovesAndDist movesToStunEnemyWithGhost = getMovesToStunEnemyWithGhost(newMyPosition, enemies, enemiesWithGhostNextPositions, buster.remainingStunCooldown);
+        MovesAndDist movesToStunEnemyWithGhost = getMovesToStunEnemyWithGhost(newMyPosition, enemies, context.enemiesWithGhostNextPositions, buster.remainingStunCooldown, Integer.MAX_VALUE);
         double distToAllyWhoNeedsEscort = getDistToAllyWhoNeedsEscort(buster, newMyPosition, alliesWhoNeedEscort, myBase, enemies);
         double minDistToEnemyWithGhost = getMinDistToEnemyWithGhost(newMyPosition, currentEnemies);
         boolean smallStunCooldown = buster.remainingStunCooldown > 1 && buster.remainingStunCooldown <= 5;
-        double distToBattle = getDistToBattle(newMyPosition, battles);
+        double distToBattle = getDistToBattle(newMyPosition, context.battles);
+        return new EvaluationState(
+                canBeStunned,
+                iHaveStun,
+                isCarryingGhost,
+                distToCheckPoint,
+                distToBase,
+                inReleaseRange,
+                movesToBustGhost,
+                weSeeSomeGhost,
+                movesToStunEnemyWithGhost,
+                distToAllyWhoNeedsEscort,
+                context.someOfUsCanCatchEnemyWithGhost,
+                minDistToEnemyWithGhost,
+                smallStunCooldown,
+                distToBattle
+        );
+    }
+
+    /**
+     * Same as {@link #evaluate} if the move is better than best by {@link EvaluationState#better}, null otherwise.
+     * Criteria are computed in the order better compares them and a move is dropped at the first one it loses on, so
+     * most moves never get to the costly ones. What doesn't depend on the move is taken from best.
+     */
+    EvaluationState evaluateIfBetter(
+            Buster buster,
+            Point newMyPosition,
+            Move move,
+            Point checkPoint,
+            List<Buster> alliesWhoNeedEscort,
+            TurnContext context,
+            EvaluationState best
+    ) {
+        if (best == null) {
+            return evaluate(buster, newMyPosition, move, checkPoint, alliesWhoNeedEscort, context);
+        }
+        Point myBase = context.myBase;
+        List<Buster> enemies = context.enemiesAfterMove;
+        boolean iHaveStun = best.iHaveStun();
+        boolean smallStunCooldown = best.hasSmallStunCooldown();
+        boolean someOfUsCanCatchEnemyWithGhost = best.someOfUsCanCatchEnemyWithGhost();
+        boolean weSeeSomeGhost = best.weSeeSomeGhost();
+
+        List<Ghost> ghosts = context.getGhostsAfterMove(move);
+        boolean isCarryingGhost = checkIsCarryingGhost(buster, move, ghosts);
+        int verdict = compareFlags(isCarryingGhost, best.isCarryingGhost());
+        boolean canBeStunned = checkCanBeStunned(newMyPosition, enemies);
+        double distToBase = dist(newMyPosition, myBase);
+        boolean inReleaseRange = distToBase <= gameParameters.RELEASE_RANGE;
+        if (verdict == 0 && isCarryingGhost) {
+            if (!iHaveStun) {
+                verdict = compareFlags(!canBeStunned, !best.canBeStunned());
+            }
+            if (verdict == 0) {
+                verdict = compareFlags(inReleaseRange, best.isInReleaseRange());
+            }
+            if (verdict == 0 && !inReleaseRange) {
+                verdict = compareDists(distToBase, best.getDistToBase());
+            }
+        }
+        if (verdict == 0 && smallStunCooldown) {
+            verdict = compareFlags(!canBeStunned, !best.canBeStunned());
+        }
+        if (verdict < 0) {
+            return null;
+        }
+
+        int maxMovesToStun = verdict == 0 ? best.getMovesToStunEnemyWithGhost().getMoves() : Integer.MAX_VALUE; // more lose anyway
+        MovesAndDist movesToStunEnemyWithGhost = getMovesToStunEnemyWithGhost(newMyPosition, enemies, context.enemiesWithGhostNextPositions, buster.remainingStunCooldown, maxMovesToStun);
+        if (verdict == 0 && (verdict = -movesToStunEnemyWithGhost.compareTo(best.getMovesToStunEnemyWithGhost())) < 0) {
+            return null;
+        }
+        double distToAllyWhoNeedsEscort = getDistToAllyWhoNeedsEscort(buster, newMyPosition, alliesWhoNeedEscort, myBase, enemies);
+        if (verdict == 0 && (verdict = compareDists(distToAllyWhoNeedsEscort, best.getDistToAllyWhoNeedsEscort())) < 0) {
+            return null;
+        }
+        double minDistToEnemyWithGhost = getMinDistToEnemyWithGhost(newMyPosition, context.enemies);
+        if (verdict == 0 && someOfUsCanCatchEnemyWithGhost && (verdict = compareDists(minDistToEnemyWithGhost, best.getMinDistToEnemyWithGhost())) < 0) {
+            return null;
+        }
+        double distToBattle = getDistToBattle(newMyPosition, context.battles);
+        if (verdict == 0 && (verdict = compareDists(distToBattle, best.getDistToBattle())) < 0) {
+            return null;
+        }
+        MovesAndDist movesToBustGhost = getMinMovesToBustGhost(newMyPosition, move, ghosts);
+        if (verdict == 0 && (verdict = -movesToBustGhost.compareTo(best.getMovesAndDistToBustGhost())) < 0) {
+            return null;
+        }
+        if (verdict == 0 && weSeeSomeGhost && (verdict = compareDists(distToBase, best.getDistToBase())) < 0) {
+            return null;
+        }
+        double distToCheckPoint = dist(newMyPosition, checkPoint);
+        if (verdict == 0 && (verdict = compareDists(distToCheckPoint, best.getDistToCheckPoint())) <= 0) {
+            return null;
+        }
         return new EvaluationState(
                 canBeStunned,
                 iHaveStun,
@@ -69,6 +153,20 @@ public class Evaluator {
         );
     }
 
+    /**
+     * Positive if a is better, true is.
+     */
+    private static int compareFlags(boolean a, boolean b) {
+        return a == b ? 0 : a ? 1 : -1;
+    }
+
+    /**
+     * Positive if a is better, the smaller one is. Equal like for {@link EvaluationState#better}, -0.0 == 0.0.
+     */
+    private static int compareDists(double a, double b) {
+        return a < b ? 1 : a > b ? -1 : 0;
+    }
+
     private double getDistToBattle(Point newMyPosition, List<Point> battles) {
         double minDist = Double.POSITIVE_INFINITY;
         for (Point battle : battles) {
@@ -122,14 +220,17 @@ public class Evaluator {
             if (enemy.remainingStunDuration > 1) {
                 continue;
             }
-            if (dist(courier, enemy) <= gameParameters.STUN_RANGE) {
+            if (dist2(courier, enemy) <= gameParameters.stunRange2()) {
                 return true;
             }
         }
         return false;
     }
 
-    private MovesAndDist getMovesToStunEnemyWithGhost(Point newMyPosition, List<Buster> enemies, List<List<Buster>> enemiesWithGhostNextPositions, int remainingStunCooldown) {
+    /**
+     * @param maxMoves enemies that need more moves are skipped
+     */
+    private MovesAndDist getMovesToStunEnemyWithGhost(Point newMyPosition, List<Buster> enemies, List<List<Buster>> enemiesWithGhostNextPositions, int remainingStunCooldown, int maxMoves) {
         remainingStunCooldown--;
         if (remainingStunCooldown < 0) {
             remainingStunCooldown = 0;
@@ -141,13 +242,13 @@ public class Evaluator {
             }
             Buster enemyAfterOneMove = list.get(0);
             Buster currentState = getWithId(enemies, enemyAfterOneMove.id);
-            int movesToStunEnemy = getMovesToStunEnemy(newMyPosition, list, remainingStunCooldown);
+            int movesToStunEnemy = getMovesToStunEnemy(newMyPosition, list, remainingStunCooldown, maxMoves);
             if (movesToStunEnemy == MovesAndDist.INFINITY.moves) {
                 continue;
             }
             double dist = dist(newMyPosition, currentState);
             //noinspection ConstantConditions
-            if (currentState.remainingStunCooldown == 1 && movesToStunEnemy == 1 && dist(newMyPosition, enemyAfterOneMove) < gameParameters.MIN_BUST_RANGE) {
+            if (currentState.remainingStunCooldown == 1 && movesToStunEnemy == 1 && dist2(newMyPosition, enemyAfterOneMove) < gameParameters.minBustRange2()) {
                 dist += 100500;
             }
             MovesAndDist m = new MovesAndDist(movesToStunEnemy, dist);
@@ -158,8 +259,8 @@ public class Evaluator {
         return r;
     }
 
-    private int getMovesToStunEnemy(Point newMyPosition, List<Buster> enemyStates, int remainingStunCooldown) {
-        for (int k = remainingStunCooldown; k < enemyStates.size(); k++) {
+    private int getMovesToStunEnemy(Point newMyPosition, List<Buster> enemyStates, int remainingStunCooldown, int maxMoves) {
+        for (int k = remainingStunCooldown; k < enemyStates.size() && k < maxMoves; k++) {
             Buster enemy = enemyStates.get(k);
             if (canGetInStunRangeInKMoves(newMyPosition, enemy, k)) {
                 return k + 1;
@@ -169,8 +270,13 @@ public class Evaluator {
     }
 
     private boolean canGetInStunRangeInKMoves(Point myPosition, Buster enemy, int k) {
+        double reach = gameParameters.STUN_RANGE + k * (gameParameters.MOVE_RANGE + 1.0); // a move gets closer by at most its range and rounding
+        if (dist2(myPosition, enemy) > reach * reach) {
+            return false;
+        }
+        long stunRange2 = gameParameters.stunRange2();
         for (int i = 0; i <= k; i++) {
-            if (dist(myPosition, enemy) <= gameParameters.STUN_RANGE) {
+            if (dist2(myPosition, enemy) <= stunRange2) {
                 return true;
             }
             myPosition = getNewPosition(myPosition.x, myPosition.y, enemy.x, enemy.y, gameParameters.MOVE_RANGE, gameParameters);
@@ -178,7 +284,7 @@ public class Evaluator {
         return false;
     }
 
-    private List<Buster> moveEnemies(List<Buster> enemies, Point myBase) {
+    List<Buster> moveEnemies(List<Buster> enemies, Point myBase) {
         Point enemyBase = getEnemyBase(myBase, gameParameters);
         List<Buster> r = new ArrayList<>();
         Move toBase = Move.move(enemyBase);
@@ -186,7 +292,7 @@ public class Evaluator {
             if (enemy.isCarryingGhost) {
                 Point p = getNewPosition(enemy, toBase, gameParameters);
                 //noinspection ConstantConditions
-                r.add(new Buster(enemy.id, p.x, p.y, enemy.isCarryingGhost, enemy.remainingStunDuration, enemy.remainingStunCooldown, enemy.ghostId, enemy.lastSeen));
+                r.add(enemy.withPosition(p.x, p.y));
             } else {
                 r.add(enemy);
             }
@@ -194,27 +300,22 @@ public class Evaluator {
         return r;
     }
 
-    private List<Ghost> moveGhosts(List<Ghost> ghosts, Move move, List<Buster> allBusters, Set<Integer> alreadyBusted) {
+    /**
+     * Ghosts after the turn if nobody new busts them. Ghosts someone is already busting stay in place.
+     */
+    List<Ghost> moveGhosts(List<Ghost> ghosts, List<Buster> allBusters) {
         List<Ghost> r = new ArrayList<>();
+        SpatialGrid<Buster> busterGrid = SpatialGrid.ofBusters(allBusters, gameParameters);
         for (Ghost ghost : ghosts) {
-            r.add(moveGhost(ghost, move, allBusters, alreadyBusted));
+            if (ghost.bustCnt > 0) {
+                r.add(ghost);
+            } else {
+                r.add(phantomUpdater.moveGhost(ghost, busterGrid));
+            }
         }
         return r;
     }
 
-    private Ghost moveGhost(Ghost ghost, Move move, List<Buster> allBusters, Set<Integer> alreadyBusted) {
-        if (ghost.bustCnt > 0) {
-            return ghost;
-        }
-        if (alreadyBusted.contains(ghost.id)) {
-            return ghost;
-        }
-        if (move.type == MoveType.BUST && move.targetId == ghost.id) {
-            return ghost;
-        }
-        return phantomUpdater.moveGhost(ghost, allBusters);
-    }
-
     private MovesAndDist getMinMovesToBustGhost(Point newMyPosition, Move move, List<Ghost> ghosts) {
         MovesAndDist r = MovesAndDist.INFINITY;
         for (Ghost ghost : ghosts) {
@@ -265,11 +366,12 @@ public class Evaluator {
     }
 
     private boolean checkCanBeStunned(Point myPosition, List<Buster> enemies) {
+        long dangerRange2 = sqr(gameParameters.STUN_RANGE + gameParameters.MOVE_RANGE);
         for (Buster enemy : enemies) {
             if (enemy.remainingStunDuration > 0) {
                 continue;
             }
-            if (dist(enemy, myPosition) <= gameParameters.STUN_RANGE + gameParameters.MOVE_RANGE) {
+            if (dist2(enemy, myPosition) <= dangerRange2) {
                 return true;
             }
         }
@@ -286,6 +388,14 @@ public class Evaluator {
             this.dist = dist;
         }
 
+        int getMoves() {
+            return moves;
+        }
+
+        double getDist() {
+            return dist;
+        }
+
         @Override
         public int compareTo(MovesAndDist o) {
             if (moves != o.moves) {
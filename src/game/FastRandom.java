@@ -0,0 +1,45 @@
+package game;
+
+/**
+ * Seeded xorshift64* generator for rollouts: no synchronization and no allocations, unlike {@link java.util.Random}.
+ */
+public class FastRandom {
+    private long state;
+
+    public FastRandom(long seed) {
+        setSeed(seed);
+    }
+
+    /**
+     * Seeds are scrambled with the splitmix64 finalizer, so that close seeds give unrelated sequences.
+     */
+    public void setSeed(long seed) {
+        long z = seed + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z ^= z >>> 31;
+        state = z == 0 ? 1 : z;
+    }
+
+    public long nextLong() {
+        state ^= state >>> 12;
+        state ^= state << 25;
+        state ^= state >>> 27;
+        return state * 0x2545F4914F6CDD1DL;
+    }
+
+    /**
+     * Uniform in [0, bound), bound must be positive.
+     */
+    public int nextInt(int bound) {
+        return (int) (((nextLong() >>> 33) * bound) >>> 31);
+    }
+
+    public double nextDouble() {
+        return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+
+    public boolean nextBoolean(double probability) {
+        return nextDouble() < probability;
+    }
+}
@@ -0,0 +1,136 @@
+package game;
+
+import java.util.List;
+
+import static game.Utils.*;
+
+/**
+ * Bitmap of map cells we have ever seen. Cells are FOG_RANGE / 20 wide, a cell counts as seen when its center
+ * was in fog range of one of our busters, so answers may differ from exact distances by about one cell.
+ */
+public class FogCoverage {
+    private static final int CELLS_PER_FOG_RANGE = 20;
+
+    private final int cellSize;
+    private final int rows;
+    private final int cols;
+    private final long[] seen;
+    private final int[] diskHalfWidth; // diskHalfWidth[d] = max |dc| of cells (dr, dc) with |dr| = d inside the fog disk
+
+    public FogCoverage(GameParameters gameParameters) {
+        cellSize = Math.max(1, gameParameters.FOG_RANGE / CELLS_PER_FOG_RANGE);
+        rows = gameParameters.H / cellSize + 1;
+        cols = gameParameters.W / cellSize + 1;
+        seen = createMask();
+        int radius = gameParameters.FOG_RANGE / cellSize;
+        diskHalfWidth = new int[radius + 1];
+        long fogRange2 = gameParameters.fogRange2();
+        for (int d = 0; d <= radius; d++) {
+            int w = 0;
+            while (sqr(d * cellSize) + sqr((w + 1) * cellSize) <= fogRange2) {
+                w++;
+            }
+            diskHalfWidth[d] = w;
+        }
+    }
+
+    public void stamp(int x, int y) {
+        int row = x / cellSize;
+        int col = y / cellSize;
+        for (int d = -(diskHalfWidth.length - 1); d < diskHalfWidth.length; d++) {
+            int r = row + d;
+            if (r < 0 || r >= rows) {
+                continue;
+            }
+            int w = diskHalfWidth[Math.abs(d)];
+            int from = Math.max(0, col - w);
+            int to = Math.min(cols - 1, col + w);
+            setRange(r * cols + from, r * cols + to);
+        }
+    }
+
+    public boolean isSeen(int x, int y) {
+        int bit = cellIndex(x, y);
+        return (seen[bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    /**
+     * Mask with cells whose centers satisfy the filter, for {@link #getCoveredFraction}.
+     */
+    public long[] createMask(PointFilter filter) {
+        long[] mask = createMask();
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                if (filter.test(row * cellSize + cellSize / 2, col * cellSize + cellSize / 2)) {
+                    int bit = row * cols + col;
+                    mask[bit >>> 6] |= 1L << bit;
+                }
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Mask with the cells of the points, {@link #isCovered} then tells if {@link #isSeen} holds for all of them.
+     */
+    public long[] createMask(List<Point> points) {
+        long[] mask = createMask();
+        for (Point p : points) {
+            int bit = cellIndex(p.x, p.y);
+            mask[bit >>> 6] |= 1L << bit;
+        }
+        return mask;
+    }
+
+    /**
+     * Part of the mask cells that were seen, 1 for an empty mask.
+     */
+    public double getCoveredFraction(long[] mask) {
+        int total = 0;
+        int covered = 0;
+        for (int i = 0; i < mask.length; i++) {
+            total += Long.bitCount(mask[i]);
+            covered += Long.bitCount(mask[i] & seen[i]);
+        }
+        return total == 0 ? 1 : (double) covered / total;
+    }
+
+    public boolean isCovered(long[] mask) {
+        for (int i = 0; i < mask.length; i++) {
+            if ((mask[i] & ~seen[i]) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long[] createMask() {
+        return new long[(rows * cols + 63) >>> 6];
+    }
+
+    private int cellIndex(int x, int y) {
+        int row = Math.min(Math.max(x, 0) / cellSize, rows - 1);
+        int col = Math.min(Math.max(y, 0) / cellSize, cols - 1);
+        return row * cols + col;
+    }
+
+    private void setRange(int from, int to) {
+        int fromWord = from >>> 6;
+        int toWord = to >>> 6;
+        long fromMask = -1L << from;
+        long toMask = -1L >>> (63 - (to & 63));
+        if (fromWord == toWord) {
+            seen[fromWord] |= fromMask & toMask;
+            return;
+        }
+        seen[fromWord] |= fromMask;
+        for (int i = fromWord + 1; i < toWord; i++) {
+            seen[i] = -1L;
+        }
+        seen[toWord] |= toMask;
+    }
+
+    public interface PointFilter {
+        boolean test(int x, int y);
+    }
+}
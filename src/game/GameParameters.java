@@ -12,4 +12,72 @@ public class GameParameters {
     int STUN_DURATION = 10;
     int MOVE_RANGE = 800;
     int GHOST_MOVE_RANGE = 400;
+    int MAX_ROUNDS = 400;
+    // our time budgets, a bit less than the 1000 ms of the first turn and 100 ms of others to leave room for GC and IO
+    int FIRST_TURN_TIME_MS = 900;
+    int TURN_TIME_MS = 85;
+    // joint search over moves of all allies, see TeamPlanner
+    boolean TEAM_SEARCH = false;
+    int TEAM_SEARCH_CANDIDATES = 3;
+    int TEAM_SEARCH_TIME_MS = 30;
+    // several plies lookahead for every buster, see BeamSearch
+    boolean BEAM_SEARCH = false;
+    int BEAM_WIDTH = 4;
+    int BEAM_DEPTH = 3;
+    int BEAM_SEARCH_TIME_MS = 10;
+    // evolution of several turns long plans for all allies, see RollingHorizonPlanner
+    boolean ROLLING_HORIZON = false;
+    int ROLLING_HORIZON_LENGTH = 6;
+    int ROLLING_HORIZON_POPULATION = 12;
+    int ROLLING_HORIZON_TIME_MS = 30;
+    int ROLLING_HORIZON_MAX_GENERATIONS = 100_000;
+    // search deepened one ply at a time for every buster, see IterativeDeepening
+    boolean ITERATIVE_DEEPENING = false;
+    int ITERATIVE_DEEPENING_BRANCHING = 3;
+    int ITERATIVE_DEEPENING_MAX_DEPTH = 6;
+    int ITERATIVE_DEEPENING_TIME_MS = 10;
+    // enemy moves predicted by our own BestMoveFinder from their side instead of only couriers moving, see OpponentModel
+    boolean OPPONENT_MODEL = false;
+    int OPPONENT_MODEL_TIME_MS = 10;
+    // moves of the previous turn kept while the world around a buster stays the same, see PlanCache
+    boolean PLAN_CACHE = false;
+    // stun targets of all allies matched together instead of chosen by each buster, see StunAssignment
+    boolean STUN_ASSIGNMENT = false;
+    // playouts per decision of a buster in a ghost battle, 0 to leave battles to Evaluator, see BattleRollouts
+    int BATTLE_ROLLOUTS = 0;
+    int BATTLE_ROLLOUT_DEPTH = 8;
+    // unseen ghosts tracked as probability grids, phantoms where one is likely enough and check points chosen by expected
+    // ghost value, see GhostBelief
+    boolean GHOST_BELIEF = false;
+    double GHOST_BELIEF_MIN_PROBABILITY = 0.5;
+    // rounds PhantomUpdater keeps an unseen enemy without a ghost where it was last seen, 1 forgets it at once
+    int PHANTOM_ENEMY_MEMORY_TURNS = 20;
+    // candidates evaluated criterion by criterion and dropped at the first one they lose on, same moves as evaluating all
+    boolean LAZY_EVALUATION = true;
+    // evaluations saved by merging candidates in CandidateSet printed every turn
+    boolean CANDIDATE_STATS = false;
+    // candidates of one buster evaluated on the common ForkJoinPool in chunks of this size, for many-core offline runs
+    boolean PARALLEL_EVALUATION = false;
+    int PARALLEL_EVALUATION_CHUNK = 8;
+
+    // squares of the ranges for comparing with Utils.dist2, derived on access since tests tweak the ranges
+    long fogRange2() {
+        return (long) FOG_RANGE * FOG_RANGE;
+    }
+
+    long stunRange2() {
+        return (long) STUN_RANGE * STUN_RANGE;
+    }
+
+    long minBustRange2() {
+        return (long) MIN_BUST_RANGE * MIN_BUST_RANGE;
+    }
+
+    long maxBustRange2() {
+        return (long) MAX_BUST_RANGE * MAX_BUST_RANGE;
+    }
+
+    long releaseRange2() {
+        return (long) RELEASE_RANGE * RELEASE_RANGE;
+    }
 }
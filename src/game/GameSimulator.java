@@ -0,0 +1,350 @@
+package game;
+
+import static game.Utils.*;
+import static game.WorldState.*;
+import static java.lang.Math.*;
+
+/**
+ * Advances a full {@link WorldState} by one turn given the moves of all busters of both teams.
+ * <p>
+ * Order of resolution: stuns (ranges checked on start-of-turn positions, stunned busters lose their own action
+ * and drop their ghost the way {@link PhantomUpdater#dropGhostFromStunnedEnemy} predicts), moves, busts, releases,
+ * then ghosts that nobody busts flee like in {@link PhantomUpdater#moveGhost} from start-of-turn buster positions.
+ * A bust on a ghost with zero stamina traps it for the team with more busters on it, tie means nobody gets it.
+ * Unknown busters neither act nor scare ghosts, unknown ghosts are left alone.
+ * <p>
+ * Keeps its scratch arrays between calls, so one instance should be used by one thread only.
+ */
+public class GameSimulator {
+    private final GameParameters gameParameters;
+
+    private int[] startX = new int[0];
+    private int[] startY = new int[0];
+    private boolean[] acts = new boolean[0];
+    private boolean[] newlyStunned = new boolean[0];
+    private boolean[] usedStun = new boolean[0];
+    private int[] stunnedBy = new int[0];
+    private int[][] bustersByTeam = new int[2][0];
+    private boolean[] justDropped = new boolean[0];
+    private boolean[] touched = new boolean[0]; // ghosts the turn may have changed
+    private boolean hashing;
+    private long hash;
+
+    public GameSimulator(GameParameters gameParameters) {
+        this.gameParameters = gameParameters;
+    }
+
+    public void step(WorldState s, Move[] moves) {
+        hashing = false;
+        advance(s, moves);
+    }
+
+    /**
+     * Same as {@link #step(WorldState, Move[])}, also updates the {@link Zobrist} hash of the state: keys of all
+     * busters and the score are replaced, but of ghosts only those the turn touched, most ghosts are far from every
+     * buster.
+     *
+     * @return hash of the state after the turn given its hash before
+     */
+    public long step(WorldState s, Move[] moves, long hash) {
+        hashing = true;
+        this.hash = hash ^ Zobrist.scoreKey(s);
+        for (int i = 0; i < s.busterCnt(); i++) {
+            this.hash ^= Zobrist.busterKey(s, i);
+        }
+        advance(s, moves);
+        this.hash ^= Zobrist.scoreKey(s);
+        for (int i = 0; i < s.busterCnt(); i++) {
+            this.hash ^= Zobrist.busterKey(s, i);
+        }
+        for (int g = 0; g < s.ghostCnt; g++) {
+            if (touched[g]) {
+                this.hash ^= Zobrist.ghostKey(s, g);
+            }
+        }
+        return this.hash;
+    }
+
+    private void advance(WorldState s, Move[] moves) {
+        int n = s.busterCnt();
+        ensureCapacity(n, s.ghostCnt);
+        for (int i = 0; i < n; i++) {
+            startX[i] = s.busterX[i];
+            startY[i] = s.busterY[i];
+            acts[i] = s.busterKnown[i] && s.stunDuration[i] == 0 && moves[i] != null;
+            newlyStunned[i] = false;
+            usedStun[i] = false;
+        }
+        for (int g = 0; g < s.ghostCnt; g++) {
+            touched[g] = false;
+            if (s.bustCnt[g] != 0) {
+                touch(s, g);
+            }
+            s.bustCnt[g] = 0;
+            bustersByTeam[0][g] = 0;
+            bustersByTeam[1][g] = 0;
+            justDropped[g] = false;
+        }
+
+        applyStuns(s, moves, n);
+        applyMoves(s, moves, n);
+        applyBusts(s, moves, n);
+        applyReleases(s, moves, n);
+        moveGhosts(s, n);
+
+        for (int i = 0; i < n; i++) {
+            if (!newlyStunned[i] && s.stunDuration[i] > 0) {
+                s.stunDuration[i]--;
+            }
+            if (usedStun[i]) {
+                s.stunCooldown[i] = gameParameters.STUN_COOLDOWN;
+            }
+            if (s.stunCooldown[i] > 0) {
+                s.stunCooldown[i]--;
+            }
+        }
+        s.round++;
+    }
+
+    public boolean isGameOver(WorldState s) {
+        return s.round >= gameParameters.MAX_ROUNDS || s.getRemainingGhostCnt() == 0;
+    }
+
+    private void applyStuns(WorldState s, Move[] moves, int n) {
+        long stunRange2 = gameParameters.stunRange2();
+        for (int i = 0; i < n; i++) {
+            Move move = moves[i];
+            if (!acts[i] || move.type != MoveType.STUN || s.stunCooldown[i] > 0) {
+                continue;
+            }
+            int target = move.targetId;
+            if (target < 0 || target >= n || !s.busterKnown[target] || s.getTeam(target) == s.getTeam(i)) {
+                continue;
+            }
+            if (dist2(startX[i], startY[i], startX[target], startY[target]) > stunRange2) {
+                continue;
+            }
+            usedStun[i] = true;
+            if (!newlyStunned[target]) {
+                newlyStunned[target] = true;
+                stunnedBy[target] = i;
+            }
+        }
+        for (int t = 0; t < n; t++) {
+            if (!newlyStunned[t]) {
+                continue;
+            }
+            acts[t] = false;
+            s.stunDuration[t] = gameParameters.STUN_DURATION;
+            int g = s.carriedGhost[t];
+            if (g == -1) {
+                continue;
+            }
+            touch(s, g);
+            s.carriedGhost[t] = -1;
+            int stunner = stunnedBy[t];
+            s.ghostX[g] = startX[t];
+            s.ghostY[g] = startY[t];
+            runAway(s.ghostX, s.ghostY, g, startX[stunner], startY[stunner], gameParameters.MOVE_RANGE);
+            s.stamina[g] = 0;
+            s.ghostState[g] = GHOST_FREE;
+            justDropped[g] = true;
+        }
+    }
+
+    private void applyMoves(WorldState s, Move[] moves, int n) {
+        for (int i = 0; i < n; i++) {
+            Move move = moves[i];
+            if (!acts[i] || move.type != MoveType.MOVE) {
+                continue;
+            }
+            moveTo(s.busterX, s.busterY, i, move.x, move.y, gameParameters.MOVE_RANGE);
+            int g = s.carriedGhost[i];
+            if (g != -1) {
+                touch(s, g);
+                s.ghostX[g] = s.busterX[i];
+                s.ghostY[g] = s.busterY[i];
+            }
+        }
+    }
+
+    private void applyBusts(WorldState s, Move[] moves, int n) {
+        for (int i = 0; i < n; i++) {
+            Move move = moves[i];
+            if (!acts[i] || move.type != MoveType.BUST || s.isCarryingGhost(i)) {
+                continue;
+            }
+            int g = move.targetId;
+            if (g < 0 || g >= s.ghostCnt || s.ghostState[g] != GHOST_FREE) {
+                continue;
+            }
+            if (!inBustRange(dist2(s.busterX[i], s.busterY[i], s.ghostX[g], s.ghostY[g]), gameParameters)) {
+                continue;
+            }
+            touch(s, g);
+            s.bustCnt[g]++;
+            bustersByTeam[s.getTeam(i)][g]++;
+        }
+        for (int g = 0; g < s.ghostCnt; g++) {
+            if (s.bustCnt[g] == 0) {
+                continue;
+            }
+            if (s.stamina[g] > 0) {
+                s.stamina[g] = max(0, s.stamina[g] - s.bustCnt[g]);
+                continue;
+            }
+            int team0 = bustersByTeam[0][g];
+            int team1 = bustersByTeam[1][g];
+            if (team0 == team1) {
+                continue;
+            }
+            int winnerTeam = team0 > team1 ? 0 : 1;
+            for (int i = winnerTeam * s.bustersPerPlayer; i < (winnerTeam + 1) * s.bustersPerPlayer; i++) {
+                Move move = moves[i];
+                if (acts[i] && move.type == MoveType.BUST && move.targetId == g && !s.isCarryingGhost(i)) {
+                    s.carriedGhost[i] = g;
+                    s.ghostState[g] = GHOST_CARRIED;
+                    s.ghostX[g] = s.busterX[i];
+                    s.ghostY[g] = s.busterY[i];
+                    break;
+                }
+            }
+        }
+    }
+
+    private void applyReleases(WorldState s, Move[] moves, int n) {
+        long releaseRange2 = gameParameters.releaseRange2();
+        for (int i = 0; i < n; i++) {
+            Move move = moves[i];
+            if (!acts[i] || move.type != MoveType.RELEASE || !s.isCarryingGhost(i)) {
+                continue;
+            }
+            int g = s.carriedGhost[i];
+            touch(s, g);
+            s.carriedGhost[i] = -1;
+            int team = s.getTeam(i);
+            int baseX = team == 0 ? 0 : gameParameters.H - 1;
+            int baseY = team == 0 ? 0 : gameParameters.W - 1;
+            if (dist2(s.busterX[i], s.busterY[i], baseX, baseY) <= releaseRange2) {
+                s.score[team]++;
+                s.ghostState[g] = GHOST_RELEASED;
+            } else {
+                s.ghostX[g] = s.busterX[i];
+                s.ghostY[g] = s.busterY[i];
+                s.stamina[g] = 0;
+                s.ghostState[g] = GHOST_FREE;
+                justDropped[g] = true;
+            }
+        }
+    }
+
+    private void moveGhosts(WorldState s, int n) {
+        long fogRange2 = gameParameters.fogRange2();
+        for (int g = 0; g < s.ghostCnt; g++) {
+            if (s.ghostState[g] != GHOST_FREE || s.bustCnt[g] > 0 || justDropped[g]) {
+                continue;
+            }
+            int gx = s.ghostX[g];
+            int gy = s.ghostY[g];
+            long minDist2 = Long.MAX_VALUE;
+            long sumX = 0;
+            long sumY = 0;
+            int cnt = 0;
+            for (int i = 0; i < n; i++) {
+                if (!s.busterKnown[i]) {
+                    continue;
+                }
+                long d2 = dist2(startX[i], startY[i], gx, gy);
+                if (d2 > fogRange2) {
+                    continue;
+                }
+                if (d2 < minDist2) {
+                    minDist2 = d2;
+                    sumX = startX[i];
+                    sumY = startY[i];
+                    cnt = 1;
+                } else if (d2 == minDist2) {
+                    sumX += startX[i];
+                    sumY += startY[i];
+                    cnt++;
+                }
+            }
+            if (cnt == 0) {
+                continue;
+            }
+            int meanX = (int) round((double) sumX / cnt);
+            int meanY = (int) round((double) sumY / cnt);
+            touch(s, g);
+            runAway(s.ghostX, s.ghostY, g, meanX, meanY, gameParameters.GHOST_MOVE_RANGE);
+        }
+    }
+
+    /**
+     * Called before the turn changes a ghost, xors out its old key once when hashing.
+     */
+    private void touch(WorldState s, int g) {
+        if (touched[g]) {
+            return;
+        }
+        touched[g] = true;
+        if (hashing) {
+            hash ^= Zobrist.ghostKey(s, g);
+        }
+    }
+
+    /**
+     * Same as {@link Utils#runawayPoint} followed by {@link Utils#getNewPosition}, but in place. The direction is the
+     * normalized vector instead of cos and sin of atan2, which was the most of a rollout turn; both round to the same
+     * point for every offset within the fog range.
+     */
+    private void runAway(int[] xs, int[] ys, int i, int scaryX, int scaryY, int range) {
+        int x = xs[i];
+        int y = ys[i];
+        if (x == scaryX && y == scaryY) {
+            return;
+        }
+        double dx = x - scaryX;
+        double dy = y - scaryY;
+        double len = sqrt(dx * dx + dy * dy);
+        int toX = (int) round(x + range * (dx / len));
+        int toY = (int) round(y + range * (dy / len));
+        moveTo(xs, ys, i, toX, toY, range);
+    }
+
+    /**
+     * Same as {@link Utils#getNewPosition(int, int, int, int, int, GameParameters)}, but in place.
+     */
+    private void moveTo(int[] xs, int[] ys, int i, int toX, int toY, int range) {
+        int fromX = xs[i];
+        int fromY = ys[i];
+        int newX;
+        int newY;
+        double dist = dist(fromX, fromY, toX, toY);
+        if (dist <= range) {
+            newX = toX;
+            newY = toY;
+        } else {
+            double w = range / dist;
+            newX = (int) round(fromX + (toX - fromX) * w);
+            newY = (int) round(fromY + (toY - fromY) * w);
+        }
+        xs[i] = min(max(newX, 0), gameParameters.H - 1);
+        ys[i] = min(max(newY, 0), gameParameters.W - 1);
+    }
+
+    private void ensureCapacity(int busterCnt, int ghostCnt) {
+        if (startX.length < busterCnt) {
+            startX = new int[busterCnt];
+            startY = new int[busterCnt];
+            acts = new boolean[busterCnt];
+            newlyStunned = new boolean[busterCnt];
+            usedStun = new boolean[busterCnt];
+            stunnedBy = new int[busterCnt];
+        }
+        if (justDropped.length < ghostCnt) {
+            bustersByTeam = new int[2][ghostCnt];
+            justDropped = new boolean[ghostCnt];
+            touched = new boolean[ghostCnt];
+        }
+    }
+}
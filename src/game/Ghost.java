@@ -14,6 +14,13 @@ public class Ghost {
         this.bustCnt = bustCnt;
     }
 
+    public Ghost withPosition(int x, int y) {
+        if (x == this.x && y == this.y) {
+            return this;
+        }
+        return new Ghost(id, x, y, stamina, bustCnt);
+    }
+
     @Override
     public String toString() {
         return "Ghost{" +
@@ -0,0 +1,404 @@
+package game;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static game.Utils.*;
+
+/**
+ * Where every ghost we don't see may be: a probability grid per ghost id, kept as masses in one float array and
+ * normalized by the total mass of the ghost. Cells are GHOST_MOVE_RANGE wide, a fleeing ghost moves about one cell.
+ * <p>
+ * Ghosts start spread over the whole map, ghost 0 in the center, and when a ghost is seen for the first time its
+ * spawn twin of {@link PhantomUpdater} gets the mirrored point unless that is in the enemy half. Every turn ghosts flee
+ * from the busters we see, like phantoms of {@link PhantomUpdater#updatePhantomGhosts} do, cells in our vision are
+ * cleared, and a ghost with no mass left is considered taken until it is seen or dropped again. Busters we don't see
+ * don't scare ghosts here. Every cell counts the spread ghosts with mass in it, so fleeing and clearing vision skip
+ * cells nobody can be in, like most of what our busters saw last turn too, and touch the ghost masses only of the rest.
+ * <p>
+ * Values of ghosts, one over the turns a lone buster needs to bust them, are summed into a map with prefix sums when
+ * {@link #getExpectedValue} is first called after a change, so any rectangle is O(1) and turns that place several
+ * ghosts rebuild once. The rebuild takes every cell of ghosts spread over cells, but one cell of ghosts at a point.
+ */
+public class GhostBelief {
+    private static final double MIN_TOTAL_MASS = 1e-4;
+    private static final int UNKNOWN_STAMINA = -1;
+    private static final int NO_POINT = -1;
+    private static final int[] STAMINA_CLASSES = {3, 15, 40};
+
+    private final GameParameters gameParameters;
+    private final PhantomUpdater phantomUpdater;
+    private final int ghostCnt;
+    private final int cellSize;
+    private final int rows;
+    private final int cols;
+    private final int cellCnt;
+    private final float[] mass; // mass[ghostId * cellCnt + cell]
+    private final double[] totalMass;
+    private final int[] pointX; // exact position while the ghost is known to be at one point, NO_POINT otherwise
+    private final int[] pointY;
+    private final int[] stamina; // last seen, or the initial one of the twin, UNKNOWN_STAMINA if neither was seen
+    private final boolean[] seen;
+    private final boolean[] visible;
+    private final int[] spreadCnt; // ghosts not at a point with mass in the cell
+    private final double[] cellValue;
+    private final double[] valuePrefix; // valuePrefix[r * (cols + 1) + c] = value of cells above r and left of c
+    private boolean valuesChanged;
+    private final int[] cellMarks; // cells already collected this turn have the current mark
+    private int mark;
+    private int[] fleeFrom = new int[64];
+    private int[] fleeTo = new int[64];
+    private float[] fleeMass = new float[64];
+
+    public GhostBelief(int ghostCnt, GameParameters gameParameters) {
+        this.gameParameters = gameParameters;
+        this.ghostCnt = ghostCnt;
+        phantomUpdater = new PhantomUpdater(gameParameters);
+        cellSize = Math.max(1, gameParameters.GHOST_MOVE_RANGE);
+        rows = (gameParameters.H - 1) / cellSize + 1;
+        cols = (gameParameters.W - 1) / cellSize + 1;
+        cellCnt = rows * cols;
+        mass = new float[ghostCnt * cellCnt];
+        totalMass = new double[ghostCnt];
+        pointX = new int[ghostCnt];
+        pointY = new int[ghostCnt];
+        stamina = new int[ghostCnt];
+        seen = new boolean[ghostCnt];
+        visible = new boolean[ghostCnt];
+        spreadCnt = new int[cellCnt];
+        cellValue = new double[cellCnt];
+        valuePrefix = new double[(rows + 1) * (cols + 1)];
+        cellMarks = new int[cellCnt];
+        for (int id = 0; id < ghostCnt; id++) {
+            stamina[id] = UNKNOWN_STAMINA;
+            pointX[id] = NO_POINT;
+            if (id == 0) {
+                place(id, gameParameters.H / 2, gameParameters.W / 2);
+            } else {
+                for (int cell = 0; cell < cellCnt; cell++) {
+                    mass[id * cellCnt + cell] = 1;
+                    spreadCnt[cell]++;
+                }
+                totalMass[id] = cellCnt;
+            }
+        }
+        valuesChanged = true;
+    }
+
+    /**
+     * Takes in one turn: the ghosts and busters we see now.
+     */
+    public void update(List<Ghost> ghosts, List<Buster> allies, List<Buster> enemies, Point enemyBase) {
+        List<Buster> busters = new ArrayList<>(allies);
+        busters.addAll(enemies);
+        flee(busters);
+        for (Buster buster : allies) {
+            forgetCarried(buster);
+        }
+        for (Buster buster : enemies) {
+            forgetCarried(buster);
+        }
+        for (int id = 0; id < ghostCnt; id++) {
+            visible[id] = false;
+        }
+        for (Ghost ghost : ghosts) {
+            if (!seen[ghost.id] && ghost.id != 0) {
+                Ghost twin = phantomUpdater.getMirrorImage(ghost);
+                if (twin.id < ghostCnt && !seen[twin.id] && getProbability(twin.id, twin.x, twin.y) > 0 && !withinRange(twin, enemyBase, gameParameters.H / 2)) {
+                    place(twin.id, twin.x, twin.y);
+                    stamina[twin.id] = twin.stamina;
+                }
+            }
+            place(ghost.id, ghost.x, ghost.y);
+            stamina[ghost.id] = ghost.stamina;
+            seen[ghost.id] = true;
+            visible[ghost.id] = true;
+        }
+        clearVision(allies);
+        valuesChanged = true;
+    }
+
+    /**
+     * A ghost known to be at (x, y), like one dropped by an enemy we stunned.
+     */
+    public void place(Ghost ghost) {
+        place(ghost.id, ghost.x, ghost.y);
+        stamina[ghost.id] = ghost.stamina;
+        valuesChanged = true;
+    }
+
+    public double getProbability(int ghostId, int x, int y) {
+        if (totalMass[ghostId] == 0) {
+            return 0;
+        }
+        return mass[ghostId * cellCnt + cellIndex(x, y)] / totalMass[ghostId];
+    }
+
+    /**
+     * False once the ghost has been taken: carried by someone or nowhere outside our vision.
+     */
+    public boolean isOnMap(int ghostId) {
+        return totalMass[ghostId] > 0;
+    }
+
+    /**
+     * Expected value of ghosts in the cells of the rectangle, corners included, parts outside the map count for
+     * nothing.
+     */
+    public double getExpectedValue(int fromX, int fromY, int toX, int toY) {
+        int fromRow = Math.max(fromX, 0) / cellSize;
+        int fromCol = Math.max(fromY, 0) / cellSize;
+        int toRow = Math.min(toX / cellSize, rows - 1);
+        int toCol = Math.min(toY / cellSize, cols - 1);
+        if (toX < 0 || toY < 0 || fromRow > toRow || fromCol > toCol) {
+            return 0;
+        }
+        if (valuesChanged) {
+            updateValues();
+            valuesChanged = false;
+        }
+        int w = cols + 1;
+        return valuePrefix[(toRow + 1) * w + toCol + 1] - valuePrefix[fromRow * w + toCol + 1]
+                - valuePrefix[(toRow + 1) * w + fromCol] + valuePrefix[fromRow * w + fromCol];
+    }
+
+    /**
+     * Visible ghosts and, for every other ghost on the map whose likeliest cell has at least minProbability, a phantom
+     * in the center of that cell, like {@link PhantomUpdater#updatePhantomGhosts}.
+     */
+    public List<Ghost> getPhantomGhosts(List<Ghost> ghosts, double minProbability) {
+        List<Ghost> r = new ArrayList<>(ghosts);
+        for (int id = 0; id < ghostCnt; id++) {
+            if (visible[id] || totalMass[id] == 0) {
+                continue;
+            }
+            if (pointX[id] != NO_POINT) {
+                r.add(new Ghost(id, pointX[id], pointY[id], getStamina(id), 0));
+                continue;
+            }
+            int bestCell = 0;
+            for (int cell = 1; cell < cellCnt; cell++) {
+                if (mass[id * cellCnt + cell] > mass[id * cellCnt + bestCell]) {
+                    bestCell = cell;
+                }
+            }
+            if (mass[id * cellCnt + bestCell] / totalMass[id] >= minProbability) {
+                r.add(new Ghost(id, centerX(bestCell / cols), centerY(bestCell % cols), getStamina(id), 0));
+            }
+        }
+        return r;
+    }
+
+    private int getStamina(int ghostId) {
+        return stamina[ghostId] == UNKNOWN_STAMINA ? STAMINA_CLASSES[1] : stamina[ghostId];
+    }
+
+    private void place(int ghostId, int x, int y) {
+        clear(ghostId);
+        mass[ghostId * cellCnt + cellIndex(x, y)] = 1;
+        totalMass[ghostId] = 1;
+        pointX[ghostId] = x;
+        pointY[ghostId] = y;
+    }
+
+    private void clear(int ghostId) {
+        if (pointX[ghostId] != NO_POINT) {
+            mass[ghostId * cellCnt + cellIndex(pointX[ghostId], pointY[ghostId])] = 0;
+        } else if (totalMass[ghostId] != 0) {
+            for (int cell = 0; cell < cellCnt; cell++) {
+                if (mass[ghostId * cellCnt + cell] != 0) {
+                    mass[ghostId * cellCnt + cell] = 0;
+                    spreadCnt[cell]--;
+                }
+            }
+        }
+        totalMass[ghostId] = 0;
+        pointX[ghostId] = NO_POINT;
+    }
+
+    private void forgetCarried(Buster buster) {
+        if (buster.isCarryingGhost && buster.ghostId >= 0 && buster.ghostId < ghostCnt) {
+            clear(buster.ghostId);
+            seen[buster.ghostId] = true;
+        }
+    }
+
+    /**
+     * Moves ghosts known to be at one point and mass of cells within FOG_RANGE of busters the way they flee,
+     * {@link PhantomUpdater#moveGhost}, a cell as if the ghost was in its center.
+     */
+    private void flee(List<Buster> busters) {
+        if (busters.isEmpty()) {
+            return;
+        }
+        SpatialGrid<Buster> busterGrid = SpatialGrid.ofBusters(busters, gameParameters);
+        boolean someSpread = false;
+        for (int id = 0; id < ghostCnt; id++) {
+            if (pointX[id] != NO_POINT) {
+                Ghost ghost = phantomUpdater.moveGhost(new Ghost(id, pointX[id], pointY[id], 0, 0), busterGrid);
+                mass[id * cellCnt + cellIndex(pointX[id], pointY[id])] = 0;
+                mass[id * cellCnt + cellIndex(ghost.x, ghost.y)] = 1;
+                pointX[id] = ghost.x;
+                pointY[id] = ghost.y;
+            } else if (totalMass[id] != 0) {
+                someSpread = true;
+            }
+        }
+        if (!someSpread) {
+            return;
+        }
+        int pairCnt = 0;
+        mark++;
+        for (Buster buster : busters) {
+            int fromRow = Math.max(buster.x - gameParameters.FOG_RANGE, 0) / cellSize;
+            int toRow = Math.min((buster.x + gameParameters.FOG_RANGE) / cellSize, rows - 1);
+            int fromCol = Math.max(buster.y - gameParameters.FOG_RANGE, 0) / cellSize;
+            int toCol = Math.min((buster.y + gameParameters.FOG_RANGE) / cellSize, cols - 1);
+            for (int row = fromRow; row <= toRow; row++) {
+                for (int col = fromCol; col <= toCol; col++) {
+                    int cell = row * cols + col;
+                    if (spreadCnt[cell] == 0 || cellMarks[cell] == mark || dist2(buster.x, buster.y, centerX(row), centerY(col)) > gameParameters.fogRange2()) {
+                        continue;
+                    }
+                    cellMarks[cell] = mark;
+                    Ghost ghost = phantomUpdater.moveGhost(new Ghost(-1, centerX(row), centerY(col), 0, 0), busterGrid);
+                    int to = cellIndex(ghost.x, ghost.y);
+                    if (to == cell) {
+                        continue;
+                    }
+                    if (pairCnt == fleeFrom.length) {
+                        fleeFrom = Arrays.copyOf(fleeFrom, pairCnt * 2);
+                        fleeTo = Arrays.copyOf(fleeTo, pairCnt * 2);
+                        fleeMass = Arrays.copyOf(fleeMass, pairCnt * 2);
+                    }
+                    fleeFrom[pairCnt] = cell;
+                    fleeTo[pairCnt] = to;
+                    pairCnt++;
+                }
+            }
+        }
+        for (int id = 0; id < ghostCnt; id++) {
+            if (totalMass[id] == 0 || pointX[id] != NO_POINT) {
+                continue;
+            }
+            int offset = id * cellCnt;
+            for (int i = 0; i < pairCnt; i++) {
+                fleeMass[i] = mass[offset + fleeFrom[i]];
+                if (fleeMass[i] != 0) {
+                    mass[offset + fleeFrom[i]] = 0;
+                    spreadCnt[fleeFrom[i]]--;
+                }
+            }
+            for (int i = 0; i < pairCnt; i++) {
+                if (fleeMass[i] == 0) {
+                    continue;
+                }
+                if (mass[offset + fleeTo[i]] == 0) {
+                    spreadCnt[fleeTo[i]]++;
+                }
+                mass[offset + fleeTo[i]] += fleeMass[i];
+            }
+        }
+    }
+
+    /**
+     * Ghosts we don't see are not where we see, cells count as seen when their centers are.
+     */
+    private void clearVision(List<Buster> allies) {
+        for (int id = 0; id < ghostCnt; id++) {
+            if (pointX[id] == NO_POINT || visible[id]) {
+                continue;
+            }
+            for (Buster ally : allies) {
+                if (dist2(ally.x, ally.y, pointX[id], pointY[id]) <= gameParameters.fogRange2()) {
+                    clear(id);
+                    break;
+                }
+            }
+        }
+        int radius = gameParameters.FOG_RANGE / cellSize + 1;
+        for (Buster ally : allies) {
+            int allyRow = ally.x / cellSize;
+            int allyCol = ally.y / cellSize;
+            for (int row = Math.max(allyRow - radius, 0); row <= Math.min(allyRow + radius, rows - 1); row++) {
+                for (int col = Math.max(allyCol - radius, 0); col <= Math.min(allyCol + radius, cols - 1); col++) {
+                    if (dist2(ally.x, ally.y, centerX(row), centerY(col)) > gameParameters.fogRange2()) {
+                        continue;
+                    }
+                    int cell = row * cols + col;
+                    if (spreadCnt[cell] == 0) {
+                        continue;
+                    }
+                    for (int id = 0; id < ghostCnt; id++) {
+                        float m = mass[id * cellCnt + cell];
+                        if (m != 0 && pointX[id] == NO_POINT) {
+                            mass[id * cellCnt + cell] = 0;
+                            totalMass[id] -= m;
+                        }
+                    }
+                    spreadCnt[cell] = 0;
+                }
+            }
+        }
+        for (int id = 0; id < ghostCnt; id++) {
+            if (totalMass[id] != 0 && totalMass[id] < MIN_TOTAL_MASS) {
+                clear(id);
+            }
+        }
+    }
+
+    private void updateValues() {
+        Arrays.fill(cellValue, 0);
+        for (int id = 0; id < ghostCnt; id++) {
+            if (totalMass[id] == 0) {
+                continue;
+            }
+            double weight = getValue(stamina[id]) / totalMass[id];
+            if (pointX[id] != NO_POINT) {
+                cellValue[cellIndex(pointX[id], pointY[id])] += weight * mass[id * cellCnt + cellIndex(pointX[id], pointY[id])];
+                continue;
+            }
+            int offset = id * cellCnt;
+            for (int cell = 0; cell < cellCnt; cell++) {
+                cellValue[cell] += weight * mass[offset + cell];
+            }
+        }
+        int w = cols + 1;
+        for (int row = 0; row < rows; row++) {
+            double rowSum = 0;
+            for (int col = 0; col < cols; col++) {
+                rowSum += cellValue[row * cols + col];
+                valuePrefix[(row + 1) * w + col + 1] = valuePrefix[row * w + col + 1] + rowSum;
+            }
+        }
+    }
+
+    /**
+     * One over the turns a lone buster needs to bust the ghost, the mean over stamina classes if it was never seen.
+     */
+    private static double getValue(int stamina) {
+        if (stamina != UNKNOWN_STAMINA) {
+            return 1.0 / (1 + stamina);
+        }
+        double sum = 0;
+        for (int staminaClass : STAMINA_CLASSES) {
+            sum += 1.0 / (1 + staminaClass);
+        }
+        return sum / STAMINA_CLASSES.length;
+    }
+
+    private int cellIndex(int x, int y) {
+        int row = Math.min(Math.max(x, 0) / cellSize, rows - 1);
+        int col = Math.min(Math.max(y, 0) / cellSize, cols - 1);
+        return row * cols + col;
+    }
+
+    private int centerX(int row) {
+        return Math.min(row * cellSize + cellSize / 2, gameParameters.H - 1);
+    }
+
+    private int centerY(int col) {
+        return Math.min(col * cellSize + cellSize / 2, gameParameters.W - 1);
+    }
+}
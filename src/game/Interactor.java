@@ -1,5 +1,7 @@
 package game;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.PrintWriter;
 import java.util.*;
 
@@ -9,41 +11,55 @@ import static game.Utils.*;
 public class Interactor {
     GameParameters gameParameters = new GameParameters();
 
-    public void solve(int testNumber, Scanner scanner, PrintWriter out) {
-        BestMoveFinder bestMoveFinder = new BestMoveFinder(gameParameters);
-        PhantomUpdater phantomUpdater = new PhantomUpdater(gameParameters);
-        Investigator investigator = new Investigator(gameParameters);
-
-        IntReader in = new IntReader(scanner);
+    private BestMoveFinder bestMoveFinder;
+    private PhantomUpdater phantomUpdater;
+    private Investigator investigator;
+    private TurnDeadline turnDeadline;
+    private TeamPlanner teamPlanner;
+    private BeamSearch beamSearch;
+    private IterativeDeepening iterativeDeepening;
+    private RollingHorizonPlanner rollingHorizonPlanner;
+    private PlanCache planCache;
+    private GhostBelief ghostBelief; // null unless GHOST_BELIEF is on
+
+    private int bustersPerPlayer;
+    private int ghostCnt;
+    private int myTeamId;
+    private Point myBase;
+    private Point enemyBase;
+    private List<CheckPoint> checkPoints;
+
+    private int[] lastStunUsed;
+    private int round;
+    private List<Buster> phantomEnemies;
+    private List<Ghost> phantomGhosts;
+    private List<Buster> prevEnemies;
+    private List<Buster> prevAllies;
+    private boolean exploring;
+    private boolean weSawCenter;
+    private int ghostsCollectedCnt;
+    private boolean halfGhostsCollected;
+    private int overrunTurnCnt;
+    private long depthSum; // of iterative deepening searches this game
+    private int depthCnt;
+    private int[] prevMoveBustCnt;
+    private Set<Integer> seenGhosts;
+    private FogCoverage fogCoverage;
+    private long[] myHalfCheckPointMask;
+    private List<Point> initialEnemyPositions;
+    private Set<Integer> knownGhostType;
+
+    private List<Buster> allies;
+    private List<Buster> enemies;
+    private List<Ghost> ghosts;
+
+    public void solve(int testNumber, InputStream inputStream, PrintWriter out) {
+        IntReader in = new IntReader(inputStream);
         int bustersPerPlayer = in.nextInt(); // the amount of busters you control
         int ghostCnt = in.nextInt(); // the amount of ghosts on the map
         int myTeamId = in.nextInt(); // if this is 0, your base is on the top left of the map, if it is one, on the bottom right
-        Point topLeftCorner = new Point(0, 0);
-        Point myBase = myTeamId == 0 ? topLeftCorner : Utils.getEnemyBase(topLeftCorner, gameParameters);
-        Point enemyBase = Utils.getEnemyBase(myBase, gameParameters);
-        List<CheckPoint> checkPoints = genCheckPoints(gameParameters, enemyBase);
-
-        int[] lastStunUsed = new int[bustersPerPlayer * 2];
-        Arrays.fill(lastStunUsed, -gameParameters.STUN_COOLDOWN - 5);
-        int round = 0;
-        List<Buster> phantomEnemies = new ArrayList<>();
-        List<Ghost> phantomGhosts = new ArrayList<>();
-        List<Buster> prevEnemies = new ArrayList<>();
-        List<Buster> prevAllies = new ArrayList<>();
-        boolean exploring = true;
-        boolean weSawCenter = false;
-        int ghostsCollectedCnt = 0;
-        boolean halfGhostsCollected = false;
-        int[] prevMoveBustCnt = new int[ghostCnt];
-        Set<Integer> seenGhosts = new HashSet<>();
-        Set<Point> allMyPreviousPositions = new HashSet<>();
-        List<Point> initialEnemyPositions = null;
-        Set<Integer> knownGhostType = new HashSet<>();
+        init(bustersPerPlayer, ghostCnt, myTeamId);
         while (true) {
-            List<Buster> allies = new ArrayList<>();
-            List<Buster> enemies = new ArrayList<>();
-            List<Ghost> ghosts = new ArrayList<>();
-
             int entities = in.nextInt(); // the number of busters and ghosts visible to you
             for (int i = 0; i < entities; i++) {
                 int entityId = in.nextInt(); // buster id or ghost id
@@ -52,102 +68,232 @@ public class Interactor {
                 int entityType = in.nextInt(); // the team id if it is a buster, -1 if it is a ghost.
                 int state = in.nextInt(); // For busters: 0=idle, 1=carrying a ghost.
                 int value = in.nextInt(); // For busters: Ghost id being carried. For ghosts: number of busters attempting to trap this ghost.
-
-                if (entityType == -1) {
-                    ghosts.add(new Ghost(entityId, x, y, state, value));
-                } else {
-                    Buster buster = buildBuster(entityId, x, y, state, value, lastStunUsed[entityId], round, gameParameters);
-                    if (entityType == myTeamId) {
-                        allies.add(buster);
-                    } else {
-                        enemies.add(buster);
-                    }
-                }
-            }
-            if (initialEnemyPositions == null) {
-                initialEnemyPositions = getInitialEnemyPositions(allies);
+                addEntity(entityId, x, y, entityType, state, value);
             }
             System.err.println("Round: " + round);
-            Set<Integer> whoUsedStunOnPrevMove = investigator.whoUsedStunOnPrevMove(allies, prevAllies, enemies, prevEnemies);
-            for (int enemyId : whoUsedStunOnPrevMove) {
-                lastStunUsed[enemyId] = round - 1;
-            }
-            enemies = updateStunCd(enemies, lastStunUsed, round);
-            allies.sort(Comparator.comparing(Buster::getId));
-            updateCheckpoints(allies, checkPoints, round);
-            if (inVisionRange(new Point(gameParameters.H / 2, gameParameters.W / 2), allies)) {
-                weSawCenter = true;
+            List<Move> moves = makeMoves();
+            for (int i = 0; i < moves.size(); i++) {
+                printMove(prevAllies.get(i), moves.get(i));
             }
+            in.dump();
+        }
+    }
 
-            for (Buster ally : allies) {
-                allMyPreviousPositions.add(new Point(ally.x, ally.y));
-            }
-            for (Buster enemy : enemies) {
-                if (enemy.isCarryingGhost) {
-                    seenGhosts.add(enemy.ghostId);
-                }
+    public void init(int bustersPerPlayer, int ghostCnt, int myTeamId) {
+        bestMoveFinder = new BestMoveFinder(gameParameters);
+        phantomUpdater = new PhantomUpdater(gameParameters);
+        investigator = new Investigator(gameParameters);
+        turnDeadline = new TurnDeadline();
+        teamPlanner = new TeamPlanner(gameParameters, bestMoveFinder);
+        beamSearch = new BeamSearch(gameParameters, bestMoveFinder);
+        iterativeDeepening = new IterativeDeepening(gameParameters, bestMoveFinder);
+        rollingHorizonPlanner = new RollingHorizonPlanner(gameParameters, 0);
+        planCache = new PlanCache(gameParameters);
+        ghostBelief = gameParameters.GHOST_BELIEF ? new GhostBelief(ghostCnt, gameParameters) : null;
+
+        this.bustersPerPlayer = bustersPerPlayer;
+        this.ghostCnt = ghostCnt;
+        this.myTeamId = myTeamId;
+        Point topLeftCorner = new Point(0, 0);
+        myBase = myTeamId == 0 ? topLeftCorner : Utils.getEnemyBase(topLeftCorner, gameParameters);
+        enemyBase = Utils.getEnemyBase(myBase, gameParameters);
+        checkPoints = genCheckPoints(gameParameters, enemyBase);
+
+        lastStunUsed = new int[bustersPerPlayer * 2];
+        Arrays.fill(lastStunUsed, -gameParameters.STUN_COOLDOWN - 5);
+        round = 0;
+        phantomEnemies = new ArrayList<>();
+        phantomGhosts = new ArrayList<>();
+        prevEnemies = new ArrayList<>();
+        prevAllies = new ArrayList<>();
+        exploring = true;
+        weSawCenter = false;
+        ghostsCollectedCnt = 0;
+        halfGhostsCollected = false;
+        overrunTurnCnt = 0;
+        depthSum = 0;
+        depthCnt = 0;
+        prevMoveBustCnt = new int[ghostCnt];
+        seenGhosts = new HashSet<>();
+        fogCoverage = new FogCoverage(gameParameters);
+        List<Point> myHalfCheckPoints = new ArrayList<>();
+        for (CheckPoint checkPoint : checkPoints) {
+            if (shouldBeeSeen(myBase, enemyBase, checkPoint.p)) {
+                myHalfCheckPoints.add(checkPoint.p);
             }
+        }
+        myHalfCheckPointMask = fogCoverage.createMask(myHalfCheckPoints);
+        initialEnemyPositions = null;
+        knownGhostType = new HashSet<>();
+
+        allies = new ArrayList<>();
+        enemies = new ArrayList<>();
+        ghosts = new ArrayList<>();
+    }
 
-            phantomEnemies = phantomUpdater.updatePhantomEnemies(allies, phantomEnemies, enemies, enemyBase, round);
-            phantomGhosts = phantomUpdater.updatePhantomGhosts(ghosts, phantomGhosts, allies, enemies, seenGhosts, allMyPreviousPositions, enemyBase);
-            for (Ghost ghost : ghosts) {
-                seenGhosts.add(ghost.id);
-                knownGhostType.add(ghost.id);
+    /**
+     * Adds one entity of the current turn input, coordinates are already swapped to our (x = row, y = column) system.
+     */
+    public void addEntity(int entityId, int x, int y, int entityType, int state, int value) {
+        if (entityType == -1) {
+            ghosts.add(new Ghost(entityId, x, y, state, value));
+        } else {
+            Buster buster = buildBuster(entityId, x, y, state, value, lastStunUsed[entityId], round, gameParameters);
+            if (entityType == myTeamId) {
+                allies.add(buster);
+            } else {
+                enemies.add(buster);
             }
+        }
+    }
 
-//            print(ghosts, "Ghosts");
-//            print(phantomGhosts, "Phantom ghosts");
-//            print(enemies, "Enemies");
-//            print(allies, "Allies");
-//            print(phantomEnemies, "Phantom enemies");
+    /**
+     * Decides moves for all allies from the entities added since the previous call, ordered by ally id.
+     */
+    public List<Move> makeMoves() {
+        int timeMs = round == 0 ? gameParameters.FIRST_TURN_TIME_MS : gameParameters.TURN_TIME_MS;
+        turnDeadline.start(timeMs * 1_000_000L);
+        List<Buster> allies = this.allies;
+        List<Buster> enemies = this.enemies;
+        List<Ghost> ghosts = this.ghosts;
+        this.allies = new ArrayList<>();
+        this.enemies = new ArrayList<>();
+        this.ghosts = new ArrayList<>();
+
+        if (initialEnemyPositions == null) {
+            initialEnemyPositions = getInitialEnemyPositions(allies);
+        }
+        Set<Integer> whoUsedStunOnPrevMove = investigator.whoUsedStunOnPrevMove(allies, prevAllies, enemies, prevEnemies);
+        for (int enemyId : whoUsedStunOnPrevMove) {
+            lastStunUsed[enemyId] = round - 1;
+        }
+        updateStunCd(enemies, lastStunUsed, round);
+        allies.sort(Comparator.comparing(Buster::getId));
+        updateCheckpoints(allies, checkPoints, round);
+        if (inVisionRange(new Point(gameParameters.H / 2, gameParameters.W / 2), allies)) {
+            weSawCenter = true;
+        }
 
-            if (!enemies.isEmpty() || round >= 7) {
-                exploring = false;
+        for (Buster ally : allies) {
+            fogCoverage.stamp(ally.x, ally.y);
+        }
+        for (Buster enemy : enemies) {
+            if (enemy.isCarryingGhost) {
+                seenGhosts.add(enemy.ghostId);
             }
-            Set<Integer> alreadyStunnedEnemies = new HashSet<>();
-            Set<Integer> alreadyBusted = new HashSet<>();
-
-            List<Move> moves = new ArrayList<>();
-            for (Buster buster : allies) {
-                Move move;
-                if ((exploring || !weSawCenter) && !buster.isCarryingGhost && !seeSomeSmallGhostNearCenter(buster, ghosts, initialEnemyPositions, round)) {
-                    move = bestMoveFinder.findExploringMove(buster, allies, myBase, weSawCenter);
-                } else {
-                    boolean iVeSeenItAll = checkIVeSeenItAll(checkPoints, myBase, knownGhostType, ghostCnt);
-                    move = bestMoveFinder.findBestMove(buster, myBase, allies, phantomEnemies, phantomGhosts, checkPoints, alreadyStunnedEnemies, alreadyBusted, halfGhostsCollected, prevMoveBustCnt, iVeSeenItAll);
-                }
+        }
+
+        phantomEnemies = phantomUpdater.updatePhantomEnemies(allies, phantomEnemies, enemies, enemyBase, round);
+        if (ghostBelief != null) {
+            ghostBelief.update(ghosts, allies, enemies, enemyBase);
+            phantomGhosts = ghostBelief.getPhantomGhosts(ghosts, gameParameters.GHOST_BELIEF_MIN_PROBABILITY);
+        } else {
+            phantomGhosts = phantomUpdater.updatePhantomGhosts(ghosts, phantomGhosts, allies, enemies, seenGhosts, fogCoverage, enemyBase);
+        }
+        for (Ghost ghost : ghosts) {
+            seenGhosts.add(ghost.id);
+            knownGhostType.add(ghost.id);
+        }
 
-                moves.add(move);
-                if (move.type == STUN) {
-                    lastStunUsed[buster.id] = round;
-                    alreadyStunnedEnemies.add(move.targetId);
+//        print(ghosts, "Ghosts");
+//        print(phantomGhosts, "Phantom ghosts");
+//        print(enemies, "Enemies");
+//        print(allies, "Allies");
+//        print(phantomEnemies, "Phantom enemies");
+
+        if (!enemies.isEmpty() || round >= 7) {
+            exploring = false;
+        }
+        TurnContext context = null;
+        List<Move> moves = new ArrayList<>();
+        boolean[] searchable = new boolean[allies.size()];
+        StringBuilder depths = new StringBuilder();
+        for (Buster buster : allies) {
+            Move move;
+            if ((exploring || !weSawCenter) && !buster.isCarryingGhost && !seeSomeSmallGhostNearCenter(buster, ghosts, initialEnemyPositions, round)) {
+                move = bestMoveFinder.findExploringMove(buster, allies, myBase, weSawCenter);
+            } else {
+                if (context == null) {
+                    boolean iVeSeenItAll = checkIVeSeenItAll(knownGhostType, ghostCnt);
+                    context = bestMoveFinder.createTurnContext(myBase, allies, phantomEnemies, phantomGhosts, checkPoints, halfGhostsCollected, prevMoveBustCnt, iVeSeenItAll, turnDeadline);
+                    context.ghostBelief = ghostBelief;
+                    for (Move prevMove : moves) {
+                        context.onMoveCommitted(prevMove);
+                    }
                 }
-                if (move.type == BUST) {
-                    alreadyBusted.add(move.targetId);
+                if (gameParameters.BEAM_SEARCH) {
+                    move = beamSearch.findBestMove(buster, context, bustersPerPlayer, ghostCnt, round);
+                } else if (gameParameters.ITERATIVE_DEEPENING) {
+                    move = iterativeDeepening.findBestMove(buster, context, bustersPerPlayer, ghostCnt, round);
+                    depths.append(' ').append(iterativeDeepening.getDepthReached());
+                    depthSum += iterativeDeepening.getDepthReached();
+                    depthCnt++;
+                } else if (gameParameters.PLAN_CACHE) {
+                    move = bestMoveFinder.findBestMove(buster, context, planCache);
+                } else {
+                    move = bestMoveFinder.findBestMove(buster, context);
                 }
-                printMove(buster, move);
+                searchable[moves.size()] = true;
             }
 
-            Arrays.fill(prevMoveBustCnt, 0);
-            for (int i = 0; i < allies.size(); i++) {
-                Buster buster = allies.get(i);
-                Move move = moves.get(i);
-                if (move.type == RELEASE && dist(buster, myBase) <= gameParameters.RELEASE_RANGE) {
-                    ghostsCollectedCnt++;
-                    if (ghostsCollectedCnt >= ghostCnt / 2) {
-                        halfGhostsCollected = true;
-                    }
-                }
-                if (move.type == BUST) {
-                    prevMoveBustCnt[move.targetId]++;
+            moves.add(move);
+            if (context != null) {
+                context.onMoveCommitted(move);
+            }
+        }
+        if (gameParameters.PLAN_CACHE) {
+            System.err.println("Plan cache: " + planCache.getHitCnt() + " hits, " + planCache.getMissCnt() + " misses, "
+                    + String.format("%.2f", planCache.getHitRate()) + " hit rate this game");
+        }
+        if (gameParameters.CANDIDATE_STATS && context != null) {
+            System.err.println("Candidates: " + context.mergedCandidateCnt + " evaluations saved by merging moves to the same position");
+        }
+        if (depths.length() > 0) {
+            System.err.println("Iterative deepening depths:" + depths + ", " + String.format("%.2f", (double) depthSum / depthCnt) + " on average this game");
+        }
+        if (gameParameters.TEAM_SEARCH && context != null && allies.size() > 1) {
+            moves = teamPlanner.findTeamMoves(context, moves, searchable, bustersPerPlayer, ghostCnt, round);
+        } else if (gameParameters.ROLLING_HORIZON && context != null) {
+            moves = rollingHorizonPlanner.findTeamMoves(context, moves, searchable, bustersPerPlayer, ghostCnt, round);
+            System.err.println("Rolling horizon: " + rollingHorizonPlanner.getGenerationCnt() + " generations, "
+                    + (long) rollingHorizonPlanner.getEvaluationsPerSecond() + " plans/s");
+        }
+        for (int i = 0; i < allies.size(); i++) {
+            if (moves.get(i).type == STUN) {
+                lastStunUsed[allies.get(i).id] = round;
+            }
+        }
+
+        if (turnDeadline.getCutSearchCnt() > 0) {
+            overrunTurnCnt++;
+            System.err.println("Deadline: " + turnDeadline.getCutSearchCnt() + " searches cut, " + overrunTurnCnt + " turns overrun so far");
+        }
+
+        Arrays.fill(prevMoveBustCnt, 0);
+        for (int i = 0; i < allies.size(); i++) {
+            Buster buster = allies.get(i);
+            Move move = moves.get(i);
+            if (move.type == RELEASE && dist2(buster, myBase) <= gameParameters.releaseRange2()) {
+                ghostsCollectedCnt++;
+                if (ghostsCollectedCnt >= ghostCnt / 2) {
+                    halfGhostsCollected = true;
                 }
             }
-            phantomUpdater.updateAfterMoves(phantomEnemies, phantomGhosts, allies, enemies, moves);
-            prevEnemies = enemies;
-            prevAllies = allies;
-            in.dump();
-            round++;
+            if (move.type == BUST) {
+                prevMoveBustCnt[move.targetId]++;
+            }
+        }
+        int phantomGhostCnt = phantomGhosts.size();
+        phantomUpdater.updateAfterMoves(phantomEnemies, phantomGhosts, allies, enemies, moves);
+        if (ghostBelief != null) {
+            for (Ghost dropped : phantomGhosts.subList(phantomGhostCnt, phantomGhosts.size())) {
+                ghostBelief.place(dropped);
+            }
         }
+        prevEnemies = enemies;
+        prevAllies = allies;
+        round++;
+        return moves;
     }
 
     private List<Point> getInitialEnemyPositions(List<Buster> allies) {
@@ -160,7 +306,7 @@ public class Interactor {
 
     private boolean seeSomeSmallGhostNearCenter(Buster buster, List<Ghost> ghosts, List<Point> initialEnemyPositions, int round) {
         for (Ghost ghost : ghosts) {
-            if (ghost.stamina <= 3 && dist(buster, ghost) <= gameParameters.FOG_RANGE && enemiesAlreadyCanSee(initialEnemyPositions, round, ghost)) {
+            if (ghost.stamina <= 3 && dist2(buster, ghost) <= gameParameters.fogRange2() && enemiesAlreadyCanSee(initialEnemyPositions, round, ghost)) {
                 return true;
             }
         }
@@ -169,20 +315,21 @@ public class Interactor {
 
     private boolean enemiesAlreadyCanSee(List<Point> initialEnemyPositions, int round, Ghost ghost) {
         for (Point p : initialEnemyPositions) {
-            if (dist(p, ghost) <= round * gameParameters.MOVE_RANGE + gameParameters.FOG_RANGE) {
+            if (withinRange(p, ghost, round * gameParameters.MOVE_RANGE + gameParameters.FOG_RANGE)) {
                 return true;
             }
         }
         return false;
     }
 
-    private List<Buster> updateStunCd(List<Buster> enemies, int[] lastStunUsed, int round) {
-        List<Buster> r = new ArrayList<>();
-        for (Buster enemy : enemies) {
-            int cd = getCd(lastStunUsed[enemy.id], round, gameParameters);
-            r.add(new Buster(enemy.id, enemy.x, enemy.y, enemy.isCarryingGhost, enemy.remainingStunDuration, cd, enemy.ghostId, enemy.lastSeen));
+    /**
+     * Only enemies who stunned on previous move get new cooldown, others keep what buildBuster gave them.
+     */
+    private void updateStunCd(List<Buster> enemies, int[] lastStunUsed, int round) {
+        for (int i = 0; i < enemies.size(); i++) {
+            Buster enemy = enemies.get(i);
+            enemies.set(i, enemy.withStunCooldown(getCd(lastStunUsed[enemy.id], round, gameParameters)));
         }
-        return r;
     }
 
     private <T> void print(List<T> list, final String message) {
@@ -202,7 +349,7 @@ public class Interactor {
 
     private boolean inVisionRange(Point p, List<Buster> myBusters) {
         for (Buster myBuster : myBusters) {
-            if (dist(myBuster, p) <= gameParameters.FOG_RANGE) {
+            if (dist2(myBuster, p) <= gameParameters.fogRange2()) {
                 return true;
             }
         }
@@ -221,7 +368,7 @@ public class Interactor {
                 int x = (int) Math.round((double) i * (gameParameters.H - 1) / (n - 1));
                 int y = (int) Math.round((double) j * (gameParameters.W - 1) / (m - 1));
                 int lastSeen;
-                if (dist(x, y, enemyBase.x, enemyBase.y) <= gameParameters.H / 2) {
+                if (withinRange(x, y, enemyBase.x, enemyBase.y, gameParameters.H / 2)) {
                     lastSeen = -1;
                 } else {
                     lastSeen = CheckPoint.NEVER;
@@ -259,19 +406,11 @@ public class Interactor {
         return stunDelta < gameParameters.STUN_COOLDOWN ? gameParameters.STUN_COOLDOWN - stunDelta : 0;
     }
 
-    private boolean checkIVeSeenItAll(List<CheckPoint> checkPoints, Point myBase, Set<Integer> knownGhostTypes, int ghostCnt) {
+    private boolean checkIVeSeenItAll(Set<Integer> knownGhostTypes, int ghostCnt) {
         if (allGhostTypesAreKnown(knownGhostTypes, ghostCnt)) {
             return true;
         }
-        Point enemyBase = getEnemyBase(myBase, gameParameters);
-        for (CheckPoint checkPoint : checkPoints) {
-            if (shouldBeeSeen(myBase, enemyBase, checkPoint.p)) {
-                if (checkPoint.lastSeen == CheckPoint.NEVER) {
-                    return false;
-                }
-            }
-        }
-        return true;
+        return fogCoverage.isCovered(myHalfCheckPointMask);
     }
 
     private boolean allGhostTypesAreKnown(Set<Integer> knownGhostTypes, int ghostCnt) {
@@ -300,26 +439,74 @@ public class Interactor {
     }
 
     static class IntReader {
-        private final Scanner in;
-        List<Integer> input = new ArrayList<>();
+        private static final int DUMP_CAPACITY = 1 << 10;
+
+        private final InputStream in;
+        private final byte[] buf = new byte[1 << 16];
+        private int bufLen = 0;
+        private int bufPos = 0;
+
+        private final int[] input = new int[DUMP_CAPACITY];
+        private int inputCnt = 0;
 
-        IntReader(Scanner in) {
+        IntReader(InputStream in) {
             this.in = in;
         }
 
         public int nextInt() {
-            int r = in.nextInt();
-            input.add(r);
+            int c = read();
+            while (c != '-' && (c < '0' || c > '9')) {
+                if (c == -1) {
+                    throw new NoSuchElementException();
+                }
+                c = read();
+            }
+            boolean negative = false;
+            if (c == '-') {
+                negative = true;
+                c = read();
+            }
+            int r = 0;
+            while (c >= '0' && c <= '9') {
+                r = r * 10 + (c - '0');
+                c = read();
+            }
+            if (negative) {
+                r = -r;
+            }
+            input[inputCnt & (DUMP_CAPACITY - 1)] = r;
+            inputCnt++;
             return r;
         }
 
+        private int read() {
+            if (bufPos == bufLen) {
+                try {
+                    bufLen = in.read(buf, 0, buf.length);
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+                bufPos = 0;
+                if (bufLen <= 0) {
+                    bufLen = 0;
+                    return -1;
+                }
+            }
+            return buf[bufPos++];
+        }
+
         public void dump() {
             System.err.println("input dump:");
-            for (int v : input) {
-                System.err.print(v + " ");
+            System.err.println(getDump());
+            inputCnt = 0;
+        }
+
+        String getDump() {
+            StringBuilder sb = new StringBuilder();
+            for (int i = Math.max(0, inputCnt - DUMP_CAPACITY); i < inputCnt; i++) {
+                sb.append(input[i & (DUMP_CAPACITY - 1)]).append(' ');
             }
-            System.err.println();
-            input.clear();
+            return sb.toString();
         }
     }
 }
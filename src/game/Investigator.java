@@ -43,7 +43,7 @@ public class Investigator {
         if (alreadyUsedStun.contains(prevEnemy.id)) {
             return false;
         }
-        if (dist(prevAlly, prevEnemy) > gameParameters.STUN_RANGE) {
+        if (dist2(prevAlly, prevEnemy) > gameParameters.stunRange2()) {
             return false;
         }
         if (enemy != null) {
@@ -69,7 +69,7 @@ public class Investigator {
 
     private boolean weCanSeePosition(Buster prevEnemy, List<Buster> allies) {
         for (Buster ally : allies) {
-            if (dist(ally, prevEnemy) <= gameParameters.FOG_RANGE) {
+            if (dist2(ally, prevEnemy) <= gameParameters.fogRange2()) {
                 return true;
             }
         }
@@ -0,0 +1,216 @@
+package game;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Looks ahead for one buster one ply deeper at a time until ITERATIVE_DEEPENING_TIME_MS or the turn deadline. Every
+ * node tries the best ITERATIVE_DEEPENING_BRANCHING moves of {@link BestMoveFinder} at its simulated position (everyone
+ * else follows {@link EnemyPolicy}), leaves are scored by {@link TeamEvaluator} minus a small penalty for every move
+ * that was not the best one of its node, so without a clear gain the greedy line wins.
+ * <p>
+ * Moves of the principal variation of the previous depth are tried first. An unfinished depth is thrown away unless
+ * the previous best move was searched to the end, then a move that did better at the new depth may replace it.
+ */
+public class IterativeDeepening {
+    static final double RANK_PENALTY = 20;
+
+    private final GameParameters gameParameters;
+    private final BestMoveFinder bestMoveFinder;
+    private final GameSimulator simulator;
+    private final EnemyPolicy enemyPolicy;
+    private final TeamEvaluator teamEvaluator;
+    private final TurnDeadline deadline = new TurnDeadline();
+
+    private TurnContext rootContext;
+    private int busterId;
+    private int team;
+    private WorldState[] states = new WorldState[0];
+    private Move[] moves;
+    private Move[] path = new Move[0];
+    private Move[] pv = new Move[0];
+    private Move[] nextPv = new Move[0];
+    private Move[][] bestLines = new Move[0][]; // triangular, bestLines[ply] holds the best line below a node of ply
+    private int pvLength;
+    private int depthReached;
+    private int nodeCnt;
+
+    public IterativeDeepening(GameParameters gameParameters, BestMoveFinder bestMoveFinder) {
+        this.gameParameters = gameParameters;
+        this.bestMoveFinder = bestMoveFinder;
+        simulator = new GameSimulator(gameParameters);
+        enemyPolicy = new EnemyPolicy(gameParameters);
+        teamEvaluator = new TeamEvaluator(gameParameters);
+    }
+
+    public Move findBestMove(Buster buster, TurnContext context, int bustersPerPlayer, int ghostCnt, int round) {
+        depthReached = 0;
+        nodeCnt = 0;
+        pvLength = 0;
+        Move forcedMove = bestMoveFinder.findForcedMove(buster, context);
+        if (forcedMove != null) {
+            return forcedMove;
+        }
+        deadline.start(Math.min(context.deadline.getRemainingNanos(), gameParameters.ITERATIVE_DEEPENING_TIME_MS * 1_000_000L));
+        List<BestMoveFinder.ScoredMove> rootMoves = bestMoveFinder.getBestSmartMoves(buster, context, gameParameters.ITERATIVE_DEEPENING_BRANCHING);
+        if (rootMoves.isEmpty()) {
+            return bestMoveFinder.findBestMove(buster, context);
+        }
+        Move bestMove = rootMoves.get(0).move;
+        depthReached = 1;
+
+        rootContext = context;
+        busterId = buster.id;
+        team = buster.id / bustersPerPlayer;
+        int maxDepth = gameParameters.ITERATIVE_DEEPENING_MAX_DEPTH;
+        ensureCapacity(maxDepth, bustersPerPlayer, ghostCnt);
+        List<Buster> busters = new ArrayList<>(context.allies);
+        busters.addAll(context.enemies);
+        states[0] = WorldState.fromLists(bustersPerPlayer, ghostCnt, busters, context.visibleGhosts, round);
+        pv[0] = bestMove;
+        pvLength = 1;
+
+        for (int depth = 2; depth <= maxDepth && !deadline.isExpired(); depth++) {
+            List<BestMoveFinder.ScoredMove> ordered = orderByPv(rootMoves, 0);
+            double bestValue = Double.NEGATIVE_INFINITY;
+            Move depthBestMove = null;
+            int searchedCnt = 0;
+            for (int c = 0; c < ordered.size(); c++) {
+                Move move = ordered.get(c).move;
+                path[0] = move;
+                double value = search(1, depth, c == 0, move) - RANK_PENALTY * rootMoves.indexOf(ordered.get(c));
+                if (deadline.isExpired()) {
+                    break;
+                }
+                searchedCnt++;
+                if (value > bestValue) {
+                    bestValue = value;
+                    depthBestMove = move;
+                    nextPv[0] = move;
+                    System.arraycopy(path, 1, nextPv, 1, depth - 1);
+                }
+            }
+            if (depthBestMove == null) {
+                break; // not even the previous best move finished, the new depth tells nothing
+            }
+            bestMove = depthBestMove;
+            Move[] t = pv;
+            pv = nextPv;
+            nextPv = t;
+            pvLength = depth;
+            if (searchedCnt < ordered.size()) {
+                break;
+            }
+            depthReached = depth;
+        }
+        return bestMove;
+    }
+
+    /**
+     * Deepest ply searched completely by the last {@link #findBestMove}, 1 is the usual one move lookahead and 0 a
+     * forced move.
+     */
+    public int getDepthReached() {
+        return depthReached;
+    }
+
+    /**
+     * Simulated positions the last {@link #findBestMove} generated moves for.
+     */
+    public int getNodeCnt() {
+        return nodeCnt;
+    }
+
+    /**
+     * Best value of the state after playing move at ply - 1, path[ply..depth) is left holding its best line.
+     */
+    private double search(int ply, int depth, boolean onPv, Move move) {
+        WorldState s = states[ply];
+        s.copyFrom(states[ply - 1]);
+        enemyPolicy.fillMoves(s, 0, moves);
+        enemyPolicy.fillMoves(s, 1, moves);
+        if (ply == 1) {
+            rootContext.fillEnemyMoves(moves);
+        }
+        moves[busterId] = move;
+        simulator.step(s, moves);
+        if (ply == depth) {
+            return teamEvaluator.evaluate(s, team);
+        }
+
+        nodeCnt++;
+        TurnContext context = bestMoveFinder.createSimulatedContext(s, team, rootContext, deadline);
+        Buster buster = s.getBuster(busterId);
+        Move forcedMove = s.stunDuration[busterId] > 0 ? null : bestMoveFinder.findForcedMove(buster, context);
+        List<BestMoveFinder.ScoredMove> children;
+        if (s.stunDuration[busterId] > 0 || forcedMove != null) {
+            children = new ArrayList<>();
+            children.add(new BestMoveFinder.ScoredMove(forcedMove, null));
+        } else {
+            children = bestMoveFinder.getBestSmartMoves(buster, context, gameParameters.ITERATIVE_DEEPENING_BRANCHING);
+            if (children.isEmpty()) {
+                return teamEvaluator.evaluate(s, team);
+            }
+        }
+
+        List<BestMoveFinder.ScoredMove> ordered = onPv ? orderByPv(children, ply) : children;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        Move[] bestLine = bestLines[ply];
+        int lineLength = depth - ply;
+        for (int c = 0; c < ordered.size() && !deadline.isExpired(); c++) {
+            Move child = ordered.get(c).move;
+            path[ply] = child;
+            boolean childOnPv = onPv && c == 0 && ply < pvLength && Objects.equals(pv[ply], child);
+            double value = search(ply + 1, depth, childOnPv, child) - RANK_PENALTY * children.indexOf(ordered.get(c));
+            if (value > bestValue) {
+                bestValue = value;
+                System.arraycopy(path, ply, bestLine, 0, lineLength);
+            }
+        }
+        System.arraycopy(bestLine, 0, path, ply, lineLength);
+        return bestValue;
+    }
+
+    /**
+     * Line of play behind the move the last {@link #findBestMove} returned, starting with it, empty if no search ran.
+     */
+    List<Move> getPrincipalVariation() {
+        return Arrays.asList(Arrays.copyOf(pv, pvLength));
+    }
+
+    /**
+     * The move of the principal variation at this ply first, the rest in the order of {@link Evaluator}.
+     */
+    List<BestMoveFinder.ScoredMove> orderByPv(List<BestMoveFinder.ScoredMove> scoredMoves, int ply) {
+        if (ply >= pvLength) {
+            return scoredMoves;
+        }
+        for (int i = 1; i < scoredMoves.size(); i++) {
+            if (Objects.equals(pv[ply], scoredMoves.get(i).move)) {
+                List<BestMoveFinder.ScoredMove> r = new ArrayList<>(scoredMoves);
+                r.add(0, r.remove(i));
+                return r;
+            }
+        }
+        return scoredMoves;
+    }
+
+    private void ensureCapacity(int maxDepth, int bustersPerPlayer, int ghostCnt) {
+        if (states.length < maxDepth + 1 || states[1].bustersPerPlayer != bustersPerPlayer || states[1].ghostCnt != ghostCnt) {
+            states = new WorldState[maxDepth + 1];
+            for (int i = 1; i <= maxDepth; i++) {
+                states[i] = new WorldState(bustersPerPlayer, ghostCnt);
+            }
+            path = new Move[maxDepth];
+            pv = new Move[maxDepth];
+            nextPv = new Move[maxDepth];
+            bestLines = new Move[maxDepth][];
+            for (int ply = 1; ply < maxDepth; ply++) {
+                bestLines[ply] = new Move[maxDepth - ply];
+            }
+            moves = new Move[bustersPerPlayer * 2];
+        }
+    }
+}
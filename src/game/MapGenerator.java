@@ -0,0 +1,70 @@
+package game;
+
+import java.util.Random;
+
+import static game.Utils.*;
+
+/**
+ * Random starting positions the way the referee places them: ghost 0 in the center of the map, other ghosts in pairs
+ * (2k - 1, 2k) mirrored through the center with the same stamina (3, 15 or 40), busters spread along a diagonal near
+ * their base, team 1 mirroring team 0.
+ */
+public class MapGenerator {
+    private static final int[] STAMINA_CLASSES = {3, 15, 40};
+    private static final int BUSTERS_DIAGONAL = 3200;
+
+    private final GameParameters gameParameters;
+
+    public MapGenerator(GameParameters gameParameters) {
+        this.gameParameters = gameParameters;
+    }
+
+    public WorldState generate(Random random) {
+        int bustersPerPlayer = 2 + random.nextInt(4);
+        int ghostCnt = 2 * (4 + random.nextInt(10)) + 1;
+        return generate(random, bustersPerPlayer, ghostCnt);
+    }
+
+    public WorldState generate(Random random, int bustersPerPlayer, int ghostCnt) {
+        WorldState s = new WorldState(bustersPerPlayer, ghostCnt);
+        for (int i = 0; i < bustersPerPlayer; i++) {
+            int x = (int) Math.round((double) BUSTERS_DIAGONAL * (i + 1) / (bustersPerPlayer + 1));
+            int y = BUSTERS_DIAGONAL - x;
+            s.setBuster(i, x, y);
+            s.setBuster(bustersPerPlayer + i, mirrorX(x), mirrorY(y));
+        }
+        s.setGhost(0, gameParameters.H / 2, gameParameters.W / 2, randomStamina(random));
+        for (int id = 1; id + 1 < ghostCnt; id += 2) {
+            int x;
+            int y;
+            do {
+                x = random.nextInt(gameParameters.H);
+                y = random.nextInt(gameParameters.W);
+            } while (nearBase(x, y));
+            int stamina = randomStamina(random);
+            s.setGhost(id, x, y, stamina);
+            s.setGhost(id + 1, mirrorX(x), mirrorY(y), stamina);
+        }
+        if (ghostCnt % 2 == 0) {
+            s.setGhost(ghostCnt - 1, gameParameters.H / 2, gameParameters.W / 2, randomStamina(random));
+        }
+        return s;
+    }
+
+    private boolean nearBase(int x, int y) {
+        return withinRange(x, y, 0, 0, gameParameters.FOG_RANGE)
+                || withinRange(x, y, gameParameters.H - 1, gameParameters.W - 1, gameParameters.FOG_RANGE);
+    }
+
+    private int randomStamina(Random random) {
+        return STAMINA_CLASSES[random.nextInt(STAMINA_CLASSES.length)];
+    }
+
+    private int mirrorX(int x) {
+        return gameParameters.H - x - 1;
+    }
+
+    private int mirrorY(int y) {
+        return gameParameters.W - y - 1;
+    }
+}
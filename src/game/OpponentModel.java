@@ -0,0 +1,205 @@
+package game;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static game.Utils.*;
+
+/**
+ * Guesses what enemies do this turn by asking {@link BestMoveFinder} what we would do in their place: the enemy base
+ * becomes "my" base and the lists of allies and enemies swap. Predictions are memoized per enemy for the state they
+ * were made in, and enemies left when OPPONENT_MODEL_TIME_MS or the turn deadline runs out get the shallow guess.
+ * <p>
+ * The shallow guess is for contexts of simulated states inside searches, it needs no evaluation: couriers go home
+ * and release there, those who can stun a courier of ours do it, those next to a ghost bust it, others go to the
+ * nearest ghost they see or stay.
+ */
+public class OpponentModel {
+    private final GameParameters gameParameters;
+    private final BestMoveFinder bestMoveFinder;
+    private final TurnDeadline deadline = new TurnDeadline();
+    private final Map<Integer, Move> memo = new HashMap<>();
+    private long memoStateKey;
+    private int predictionCnt;
+    private int memoHitCnt;
+
+    public OpponentModel(GameParameters gameParameters, BestMoveFinder bestMoveFinder) {
+        this.gameParameters = gameParameters;
+        this.bestMoveFinder = bestMoveFinder;
+    }
+
+    /**
+     * @return predicted move of every enemy by id
+     */
+    public Map<Integer, Move> predictMoves(
+            Point myBase,
+            List<Buster> allies,
+            List<Buster> enemies,
+            List<Ghost> visibleGhosts,
+            List<CheckPoint> checkPoints,
+            boolean iVeSeenItAll,
+            TurnDeadline turnDeadline
+    ) {
+        long stateKey = getStateKey(allies, enemies, visibleGhosts);
+        if (stateKey != memoStateKey) {
+            memo.clear();
+            memoStateKey = stateKey;
+        }
+        Map<Integer, Move> r = new HashMap<>();
+        TurnContext enemyContext = null;
+        for (Buster enemy : enemies) {
+            Move move = memo.get(enemy.id);
+            if (move != null) {
+                memoHitCnt++;
+            } else {
+                if (enemyContext == null) {
+                    deadline.start(Math.min(turnDeadline.getRemainingNanos(), gameParameters.OPPONENT_MODEL_TIME_MS * 1_000_000L));
+                    enemyContext = createEnemyContext(myBase, allies, enemies, visibleGhosts, checkPoints, iVeSeenItAll);
+                    for (Move committed : r.values()) {
+                        enemyContext.onMoveCommitted(committed);
+                    }
+                }
+                move = deadline.isExpired() ? predictShallowMove(enemy, getEnemyBase(myBase, gameParameters), allies, visibleGhosts)
+                        : bestMoveFinder.findBestMove(enemy, enemyContext);
+                memo.put(enemy.id, move);
+                predictionCnt++;
+            }
+            if (enemyContext != null) {
+                enemyContext.onMoveCommitted(move);
+            }
+            r.put(enemy.id, move);
+        }
+        return r;
+    }
+
+    public Map<Integer, Move> predictShallowMoves(Point myBase, List<Buster> allies, List<Buster> enemies, List<Ghost> visibleGhosts) {
+        Point enemyBase = getEnemyBase(myBase, gameParameters);
+        Map<Integer, Move> r = new HashMap<>();
+        for (Buster enemy : enemies) {
+            r.put(enemy.id, predictShallowMove(enemy, enemyBase, allies, visibleGhosts));
+        }
+        return r;
+    }
+
+    /**
+     * Enemies after their predicted moves, stuns and busts leave them in place.
+     */
+    List<Buster> moveEnemies(List<Buster> enemies, Map<Integer, Move> moves) {
+        List<Buster> r = new ArrayList<>();
+        for (Buster enemy : enemies) {
+            Move move = moves.get(enemy.id);
+            if (move == null || move.type != MoveType.MOVE || enemy.remainingStunDuration > 0) {
+                r.add(enemy);
+            } else {
+                Point p = getNewPosition(enemy, move, gameParameters);
+                r.add(enemy.withPosition(p.x, p.y));
+            }
+        }
+        return r;
+    }
+
+    /**
+     * Enemies predicted with {@link BestMoveFinder} since this model was created, memo hits not included.
+     */
+    public int getPredictionCnt() {
+        return predictionCnt;
+    }
+
+    public int getMemoHitCnt() {
+        return memoHitCnt;
+    }
+
+    private TurnContext createEnemyContext(
+            Point myBase,
+            List<Buster> allies,
+            List<Buster> enemies,
+            List<Ghost> visibleGhosts,
+            List<CheckPoint> checkPoints,
+            boolean iVeSeenItAll
+    ) {
+        int maxGhostId = -1;
+        for (Ghost ghost : visibleGhosts) {
+            maxGhostId = Math.max(maxGhostId, ghost.id);
+        }
+        TurnContext r = bestMoveFinder.createTurnContext(
+                getEnemyBase(myBase, gameParameters),
+                enemies,
+                allies,
+                visibleGhosts,
+                mirror(checkPoints),
+                false,
+                new int[maxGhostId + 1],
+                iVeSeenItAll,
+                (Map<Integer, Move>) null
+        );
+        r.deadline = deadline;
+        return r;
+    }
+
+    /**
+     * Our checkpoints turned around the map center, all never seen: we don't know where enemies have been.
+     */
+    private List<CheckPoint> mirror(List<CheckPoint> checkPoints) {
+        List<CheckPoint> r = new ArrayList<>();
+        for (CheckPoint checkPoint : checkPoints) {
+            r.add(new CheckPoint(new Point(gameParameters.H - 1 - checkPoint.p.x, gameParameters.W - 1 - checkPoint.p.y), CheckPoint.NEVER));
+        }
+        return r;
+    }
+
+    private Move predictShallowMove(Buster enemy, Point enemyBase, List<Buster> allies, List<Ghost> visibleGhosts) {
+        if (enemy.remainingStunDuration > 0) {
+            return Move.move(enemy.x, enemy.y);
+        }
+        if (enemy.isCarryingGhost) {
+            if (dist2(enemy, enemyBase) <= gameParameters.releaseRange2()) {
+                return Move.release();
+            }
+            return Move.move(enemyBase);
+        }
+        if (enemy.remainingStunCooldown == 0) {
+            for (Buster ally : allies) {
+                if (ally.isCarryingGhost && ally.remainingStunDuration <= 1 && dist2(enemy, ally) <= gameParameters.stunRange2()) {
+                    return Move.stun(ally.id);
+                }
+            }
+        }
+        Ghost nearest = null;
+        long minDist2 = Long.MAX_VALUE;
+        for (Ghost ghost : visibleGhosts) {
+            long d2 = dist2(enemy, ghost);
+            if (d2 < minDist2) {
+                minDist2 = d2;
+                nearest = ghost;
+            }
+        }
+        if (nearest == null || minDist2 > gameParameters.fogRange2()) {
+            return Move.move(enemy.x, enemy.y);
+        }
+        if (inBustRange(enemy, nearest, gameParameters)) {
+            return Move.bust(nearest.id);
+        }
+        return Move.move(nearest.x, nearest.y);
+    }
+
+    private static long getStateKey(List<Buster> allies, List<Buster> enemies, List<Ghost> visibleGhosts) {
+        long r = 0;
+        for (Buster buster : allies) {
+            r ^= getKey(buster);
+        }
+        for (Buster buster : enemies) {
+            r ^= getKey(buster);
+        }
+        for (Ghost ghost : visibleGhosts) {
+            r ^= Zobrist.ghostKey(ghost.id, ghost.x, ghost.y, ghost.stamina, ghost.bustCnt, WorldState.GHOST_FREE);
+        }
+        return r;
+    }
+
+    private static long getKey(Buster buster) {
+        int carriedGhost = buster.isCarryingGhost ? buster.ghostId : -1;
+        return Zobrist.busterKey(buster.id, buster.x, buster.y, buster.remainingStunDuration, buster.remainingStunCooldown, carriedGhost);
+    }
+}
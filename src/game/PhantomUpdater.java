@@ -22,7 +22,7 @@ public class PhantomUpdater {
             if (containsWithId(enemies, phantomEnemy.id)) {
                 continue;
             }
-            if (!phantomEnemy.isCarryingGhost && round - phantomEnemy.lastSeen >= 20) {
+            if (!phantomEnemy.isCarryingGhost && round - phantomEnemy.lastSeen >= gameParameters.PHANTOM_ENEMY_MEMORY_TURNS) {
                 continue;
             }
             Buster newState = movePhantomEnemy(phantomEnemy, enemyBase);
@@ -39,8 +39,9 @@ public class PhantomUpdater {
     }
 
     private boolean weHaveVisionOverThisPlace(List<Buster> allies, int x, int y) {
+        long fogRange2 = gameParameters.fogRange2();
         for (Buster ally : allies) {
-            if (dist(ally.x, ally.y, x, y) <= gameParameters.FOG_RANGE) {
+            if (dist2(ally.x, ally.y, x, y) <= fogRange2) {
                 return true;
             }
         }
@@ -51,12 +52,12 @@ public class PhantomUpdater {
         if (!pe.isCarryingGhost) {
             return pe;
         }
-        if (dist(pe, enemyBase) <= gameParameters.RELEASE_RANGE) {
+        if (dist2(pe, enemyBase) <= gameParameters.releaseRange2()) {
             return null;
         }
         Point newPosition = getNewPosition(pe, Move.move(enemyBase), gameParameters);
         //noinspection ConstantConditions
-        return new Buster(pe.id, newPosition.x, newPosition.y, pe.isCarryingGhost, pe.remainingStunDuration, pe.remainingStunCooldown, pe.ghostId, pe.lastSeen);
+        return pe.withPosition(newPosition.x, newPosition.y);
     }
 
     private boolean containsWithId(List<Buster> busters, int id) {
@@ -68,12 +69,13 @@ public class PhantomUpdater {
         return false;
     }
 
-    public List<Ghost> updatePhantomGhosts(List<Ghost> ghosts, List<Ghost> phantomGhosts, List<Buster> allies, List<Buster> enemies, Set<Integer> seenGhosts, Set<Point> allMyPreviousPositions, Point enemyBase) {
+    public List<Ghost> updatePhantomGhosts(List<Ghost> ghosts, List<Ghost> phantomGhosts, List<Buster> allies, List<Buster> enemies, Set<Integer> seenGhosts, FogCoverage fogCoverage, Point enemyBase) {
         ArrayList<Ghost> r = new ArrayList<>();
         r.addAll(ghosts);
 
         List<Buster> allBusters = new ArrayList<>(allies);
         allBusters.addAll(enemies);
+        SpatialGrid<Buster> busterGrid = SpatialGrid.ofBusters(allBusters, gameParameters);
 
         for (Ghost phantomGhost : phantomGhosts) {
             if (containsGhostWithId(ghosts, phantomGhost.id)) {
@@ -82,7 +84,7 @@ public class PhantomUpdater {
             if (carriesGhostWithId(allBusters, phantomGhost.id)) {
                 continue;
             }
-            Ghost newGhostState = moveGhost(phantomGhost, allBusters);
+            Ghost newGhostState = moveGhost(phantomGhost, busterGrid);
             if (weHaveVisionOverThisPlace(allies, newGhostState.x, newGhostState.y)) {
                 continue;
             }
@@ -96,10 +98,10 @@ public class PhantomUpdater {
             if (seenGhosts.contains(ghost.id) || seenGhosts.contains(mirrorImage.id)) {
                 continue;
             }
-            if (weSawThisPosition(mirrorImage, allMyPreviousPositions)) {
+            if (fogCoverage.isSeen(mirrorImage.x, mirrorImage.y)) {
                 continue;
             }
-            if (dist(mirrorImage, enemyBase) <= gameParameters.H / 2) {
+            if (withinRange(mirrorImage, enemyBase, gameParameters.H / 2)) {
                 continue;
             }
             r.add(mirrorImage);
@@ -107,16 +109,7 @@ public class PhantomUpdater {
         return r;
     }
 
-    private boolean weSawThisPosition(Ghost mirrorImage, Set<Point> allMyPreviousPositions) {
-        for (Point p : allMyPreviousPositions) {
-            if (dist(mirrorImage, p) <= gameParameters.FOG_RANGE) {
-                return true;
-            }
-        }
-        return false;
-    }
-
-    private Ghost getMirrorImage(Ghost ghost) {
+    Ghost getMirrorImage(Ghost ghost) {
         return new Ghost(getMirrorId(ghost.id), gameParameters.H - ghost.x - 1, gameParameters.W - ghost.y - 1, getInitialStamina(ghost.stamina), 0);
     }
 
@@ -159,14 +152,18 @@ public class PhantomUpdater {
     }
 
     public Ghost moveGhost(Ghost ghost, List<Buster> allBusters) {
-        List<Buster> bustersWithMinDist = getBustersInRangeWithMinDist(ghost, allBusters);
+        return moveGhost(ghost, SpatialGrid.ofBusters(allBusters, gameParameters));
+    }
+
+    public Ghost moveGhost(Ghost ghost, SpatialGrid<Buster> allBusters) {
+        List<Buster> bustersWithMinDist = allBusters.getNearestWithinRange(ghost.x, ghost.y, gameParameters.FOG_RANGE);
         if (bustersWithMinDist.isEmpty()) {
             return ghost;
         }
         Point mean = getMeanPoint(bustersWithMinDist);
         Point p = runawayPoint(mean.x, mean.y, ghost.x, ghost.y, gameParameters.GHOST_MOVE_RANGE);
         p = getNewPosition(ghost.x, ghost.y, p.x, p.y, gameParameters.GHOST_MOVE_RANGE, gameParameters);
-        return new Ghost(ghost.id, p.x, p.y, ghost.stamina, ghost.bustCnt);
+        return ghost.withPosition(p.x, p.y);
     }
 
     private Point getMeanPoint(List<Buster> bustersWithMinDist) {
@@ -180,25 +177,6 @@ public class PhantomUpdater {
         return Point.round(sumX / cnt, sumY / cnt);
     }
 
-    private List<Buster> getBustersInRangeWithMinDist(Ghost ghost, List<Buster> allBusters) {
-        double minDist = Double.POSITIVE_INFINITY;
-        List<Buster> r = new ArrayList<>();
-        for (Buster buster : allBusters) {
-            double dist = dist(buster, ghost);
-            if (dist > gameParameters.FOG_RANGE) {
-                continue;
-            }
-            if (dist < minDist) {
-                minDist = dist;
-                r.clear();
-                r.add(buster);
-            } else if (dist == minDist) {
-                r.add(buster);
-            }
-        }
-        return r;
-    }
-
     public Ghost dropGhostFromStunnedEnemy(Buster buster, Buster target) {
         Point to = runawayPoint(buster.x, buster.y, target.x, target.y, gameParameters.MOVE_RANGE);
         to = getNewPosition(target.x, target.y, to.x, to.y, gameParameters.MOVE_RANGE, gameParameters);
@@ -0,0 +1,207 @@
+package game;
+
+import java.util.*;
+
+import static game.Utils.*;
+
+/**
+ * Move every buster chose last turn with its {@link EvaluationState}, so that a turn in which nothing around the
+ * buster changed doesn't need the full evaluation again, like a courier walking home. A plan is revalidated cheaply:
+ * it must be from the previous round, the buster must still carry or not carry a ghost and have or not have stun,
+ * head to the same checkpoint, see the same ghosts, enemies and ally couriers, have the same ghosts in bust range, have
+ * no new enemy within STUN_RANGE + MOVE_RANGE, not be at the target of its move yet and its target ghost must still be
+ * free. {@link BestMoveFinder} then checks that the move is still one of its candidates and that its evaluation is in
+ * the same situation as the stored one.
+ * <p>
+ * Plans are kept per game, hits and misses count decisions that were not forced.
+ */
+public class PlanCache {
+    private final GameParameters gameParameters;
+    private final Map<Integer, Plan> plans = new HashMap<>();
+    private int hitCnt;
+    private int missCnt;
+
+    public PlanCache(GameParameters gameParameters) {
+        this.gameParameters = gameParameters;
+    }
+
+    /**
+     * Move of the previous turn if it passes the cheap checks, null otherwise.
+     */
+    Move getRevalidatedMove(Buster buster, Point checkPoint, TurnContext context) {
+        Plan plan = plans.get(buster.id);
+        if (plan == null
+                || plan.round != buster.lastSeen - 1
+                || plan.isCarryingGhost != buster.isCarryingGhost
+                || plan.hasStun != buster.hasStun()
+                || !Objects.equals(plan.checkPoint, checkPoint)
+                || plan.move.type == MoveType.MOVE && plan.move.x == buster.x && plan.move.y == buster.y
+                || !plan.ghostIds.equals(getGhostIds(context))
+                || !plan.bustableGhostIds.equals(getBustableGhostIds(buster, context))
+                || !plan.enemyIds.equals(getIds(context.enemies))
+                || !plan.courierIds.equals(getCourierIds(context.allies))
+                || !plan.threatIds.containsAll(getThreatIds(buster, context.enemies))) {
+            return null;
+        }
+        if (plan.targetGhostId != -1 && context.forbiddenGhosts.contains(plan.targetGhostId)) {
+            return null;
+        }
+        return plan.move;
+    }
+
+    /**
+     * True if the evaluation of the revalidated move now says the same about the buster as when it was chosen.
+     * A confirmed move is stored again so that the plan is checked against this turn on the next one.
+     */
+    boolean confirm(Buster buster, EvaluationState evaluation) {
+        return evaluation.sameSituation(plans.get(buster.id).evaluation);
+    }
+
+    void store(Buster buster, Move move, EvaluationState evaluation, Point checkPoint, TurnContext context) {
+        plans.put(buster.id, new Plan(
+                move,
+                evaluation,
+                buster.lastSeen,
+                buster.isCarryingGhost,
+                buster.hasStun(),
+                checkPoint,
+                getGhostIds(context),
+                getBustableGhostIds(buster, context),
+                getIds(context.enemies),
+                getCourierIds(context.allies),
+                getThreatIds(buster, context.enemies),
+                getTargetGhostId(move, context.ghosts)
+        ));
+    }
+
+    void forget(Buster buster) {
+        plans.remove(buster.id);
+    }
+
+    void onLookup(boolean hit) {
+        if (hit) {
+            hitCnt++;
+        } else {
+            missCnt++;
+        }
+    }
+
+    public int getHitCnt() {
+        return hitCnt;
+    }
+
+    public int getMissCnt() {
+        return missCnt;
+    }
+
+    public double getHitRate() {
+        return hitCnt + missCnt == 0 ? 0 : (double) hitCnt / (hitCnt + missCnt);
+    }
+
+    private Set<Integer> getThreatIds(Buster buster, List<Buster> enemies) {
+        long range2 = sqr(gameParameters.STUN_RANGE + gameParameters.MOVE_RANGE);
+        Set<Integer> r = new HashSet<>();
+        for (Buster enemy : enemies) {
+            if (dist2(buster, enemy) <= range2) {
+                r.add(enemy.id);
+            }
+        }
+        return r;
+    }
+
+    private static Set<Integer> getGhostIds(TurnContext context) {
+        Set<Integer> r = new HashSet<>();
+        for (Ghost ghost : context.ghosts) {
+            r.add(ghost.id);
+        }
+        return r;
+    }
+
+    private Set<Integer> getBustableGhostIds(Buster buster, TurnContext context) {
+        Set<Integer> r = new HashSet<>();
+        for (Ghost ghost : context.ghosts) {
+            if (inBustRange(buster, ghost, gameParameters) && !context.forbiddenGhosts.contains(ghost.id)) {
+                r.add(ghost.id);
+            }
+        }
+        return r;
+    }
+
+    private static Set<Integer> getIds(List<Buster> busters) {
+        Set<Integer> r = new HashSet<>();
+        for (Buster buster : busters) {
+            r.add(buster.id);
+        }
+        return r;
+    }
+
+    private static Set<Integer> getCourierIds(List<Buster> busters) {
+        Set<Integer> r = new HashSet<>();
+        for (Buster buster : busters) {
+            if (buster.isCarryingGhost) {
+                r.add(buster.id);
+            }
+        }
+        return r;
+    }
+
+    /**
+     * Ghost the move busts or goes to, -1 if none.
+     */
+    private static int getTargetGhostId(Move move, List<Ghost> ghosts) {
+        if (move.type == MoveType.BUST) {
+            return move.targetId;
+        }
+        if (move.type == MoveType.MOVE) {
+            for (Ghost ghost : ghosts) {
+                if (ghost.x == move.x && ghost.y == move.y) {
+                    return ghost.id;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static class Plan {
+        final Move move;
+        final EvaluationState evaluation;
+        final int round;
+        final boolean isCarryingGhost;
+        final boolean hasStun;
+        final Point checkPoint;
+        final Set<Integer> ghostIds;
+        final Set<Integer> bustableGhostIds;
+        final Set<Integer> enemyIds;
+        final Set<Integer> courierIds;
+        final Set<Integer> threatIds;
+        final int targetGhostId;
+
+        Plan(
+                Move move,
+                EvaluationState evaluation,
+                int round,
+                boolean isCarryingGhost,
+                boolean hasStun,
+                Point checkPoint,
+                Set<Integer> ghostIds,
+                Set<Integer> bustableGhostIds,
+                Set<Integer> enemyIds,
+                Set<Integer> courierIds,
+                Set<Integer> threatIds,
+                int targetGhostId
+        ) {
+            this.move = move;
+            this.evaluation = evaluation;
+            this.round = round;
+            this.isCarryingGhost = isCarryingGhost;
+            this.hasStun = hasStun;
+            this.checkPoint = checkPoint;
+            this.ghostIds = ghostIds;
+            this.bustableGhostIds = bustableGhostIds;
+            this.enemyIds = enemyIds;
+            this.courierIds = courierIds;
+            this.threatIds = threatIds;
+            this.targetGhostId = targetGhostId;
+        }
+    }
+}
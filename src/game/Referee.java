@@ -0,0 +1,93 @@
+package game;
+
+import java.util.List;
+
+/**
+ * Plays one game between two in-process {@link Interactor}s on top of {@link GameSimulator},
+ * feeding each of them only what its busters can see.
+ */
+public class Referee {
+    private final GameParameters gameParameters;
+    private final GameSimulator simulator;
+
+    public Referee(GameParameters gameParameters) {
+        this.gameParameters = gameParameters;
+        simulator = new GameSimulator(gameParameters);
+    }
+
+    public GameResult play(WorldState s, Interactor[] players, Arena.LatencyHistogram[] latencies) {
+        int n = s.bustersPerPlayer;
+        for (int team = 0; team < 2; team++) {
+            players[team].init(n, s.ghostCnt, team);
+        }
+        Move[] moves = new Move[s.busterCnt()];
+        while (!simulator.isGameOver(s)) {
+            for (int team = 0; team < 2; team++) {
+                long start = System.nanoTime();
+                feedVisibleEntities(s, players[team], team);
+                List<Move> teamMoves = players[team].makeMoves();
+                latencies[team].add(System.nanoTime() - start);
+                for (int i = 0; i < n; i++) {
+                    moves[team * n + i] = teamMoves.get(i);
+                }
+            }
+            simulator.step(s, moves);
+        }
+        return new GameResult(s.getScore(0), s.getScore(1), s.getRound());
+    }
+
+    private void feedVisibleEntities(WorldState s, Interactor player, int team) {
+        for (int id = 0; id < s.busterCnt(); id++) {
+            if (s.getTeam(id) != team && !visible(s, team, s.busterX[id], s.busterY[id])) {
+                continue;
+            }
+            int state = 0;
+            int value = -1;
+            if (s.stunDuration[id] > 0) {
+                state = 2;
+                value = s.stunDuration[id];
+            } else if (s.isCarryingGhost(id)) {
+                state = 1;
+                value = s.carriedGhost[id];
+            }
+            player.addEntity(id, s.busterX[id], s.busterY[id], s.getTeam(id), state, value);
+        }
+        for (int id = 0; id < s.ghostCnt; id++) {
+            if (s.ghostState[id] != WorldState.GHOST_FREE || !visible(s, team, s.ghostX[id], s.ghostY[id])) {
+                continue;
+            }
+            player.addEntity(id, s.ghostX[id], s.ghostY[id], -1, s.stamina[id], s.bustCnt[id]);
+        }
+    }
+
+    private boolean visible(WorldState s, int team, int x, int y) {
+        long fogRange2 = gameParameters.fogRange2();
+        for (int id = team * s.bustersPerPlayer; id < (team + 1) * s.bustersPerPlayer; id++) {
+            if (Utils.dist2(s.busterX[id], s.busterY[id], x, y) <= fogRange2) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static class GameResult {
+        public final int score0;
+        public final int score1;
+        public final int rounds;
+
+        GameResult(int score0, int score1, int rounds) {
+            this.score0 = score0;
+            this.score1 = score1;
+            this.rounds = rounds;
+        }
+
+        @Override
+        public String toString() {
+            return "GameResult{" +
+                    "score0=" + score0 +
+                    ", score1=" + score1 +
+                    ", rounds=" + rounds +
+                    '}';
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package game;
 
+import java.io.ByteArrayInputStream;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.util.NoSuchElementException;
@@ -8,10 +9,9 @@ import java.util.Scanner;
 public class Repeater {
     public static void main(String[] args) throws FileNotFoundException {
         String input = readInput();
-        Scanner scanner = new Scanner(input);
         Interactor interactor = new Interactor();
         try {
-            interactor.solve(0, scanner, null);
+            interactor.solve(0, new ByteArrayInputStream(input.getBytes()), null);
         } catch (NoSuchElementException ignored) {
         }
     }
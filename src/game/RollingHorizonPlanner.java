@@ -0,0 +1,417 @@
+package game;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static game.Utils.*;
+
+/**
+ * Evolves plans of ROLLING_HORIZON_LENGTH turns for all allies and returns the first turn of the best one.
+ * <p>
+ * A plan is a row of packed moves (see {@link #pack}), ally after ally, and the whole population lives in one int
+ * array. Plans are played through {@link GameSimulator} with enemies following {@link EnemyPolicy} and scored by
+ * {@link TeamEvaluator} after every turn with a discount, minus a penalty for first moves other than the greedy ones.
+ * The population starts from the best plan of the previous turn shifted by one turn, the greedy moves held for the
+ * whole horizon and their mutations; then the best plans survive, the others are replaced by crossovers of ally rows
+ * and mutations until ROLLING_HORIZON_TIME_MS, the turn deadline or ROLLING_HORIZON_MAX_GENERATIONS.
+ */
+public class RollingHorizonPlanner {
+    static final double DISCOUNT = 0.9;
+    static final int ELITE_CNT = 2;
+    static final double DEVIATION_PENALTY = 20; // per ally whose first move isn't the greedy one, like TeamPlanner.RANK_PENALTY
+
+    private static final int TYPE_SHIFT = 30;
+    private static final int X_SHIFT = 15;
+    private static final int COORDINATE_MASK = (1 << 15) - 1;
+    private static final int COORDINATE_OFFSET = 1 << 13; // targets of the greedy moves may be a bit outside the map
+    private static final MoveType[] TYPES = {MoveType.MOVE, MoveType.BUST, MoveType.STUN, MoveType.RELEASE};
+
+    private final GameParameters gameParameters;
+    private final GameSimulator simulator;
+    private final EnemyPolicy enemyPolicy;
+    private final TeamEvaluator teamEvaluator;
+    private final TurnDeadline deadline = new TurnDeadline();
+    private final Random random;
+
+    private TurnContext context;
+    private WorldState initial;
+    private WorldState state;
+    private Move[] moves;
+    private int team;
+    private int[] allyIds;
+    private boolean[] searchable;
+    private boolean policyForAllies; // some allies keep their greedy moves and follow the policy after the first turn
+    private List<Move> greedyMoves;
+    private int[] greedyGenes;
+    private int horizon;
+    private int planLength;
+
+    private int[] population = new int[0];
+    private int[] offspring = new int[0];
+    private double[] fitness = new double[0];
+    private double[] offspringFitness = new double[0];
+    private Integer[] order = new Integer[0];
+    private Move[] decoded = new Move[0]; // genes of population unpacked once, so that rollouts don't allocate
+    private Move[] decodedOffspring = new Move[0];
+
+    private int[] prevBestPlan;
+    private int[] prevAllyIds;
+
+    private long evaluationCnt;
+    private long evaluationNanos;
+    private int generationCnt;
+
+    public RollingHorizonPlanner(GameParameters gameParameters, long seed) {
+        this.gameParameters = gameParameters;
+        simulator = new GameSimulator(gameParameters);
+        enemyPolicy = new EnemyPolicy(gameParameters);
+        teamEvaluator = new TeamEvaluator(gameParameters);
+        random = new Random(seed);
+    }
+
+    /**
+     * @param greedyMoves moves chosen one by one, in allies order
+     * @param searchable  allies whose moves may be changed, others keep their greedy moves
+     * @return moves in allies order
+     */
+    public List<Move> findTeamMoves(
+            TurnContext context,
+            List<Move> greedyMoves,
+            boolean[] searchable,
+            int bustersPerPlayer,
+            int ghostCnt,
+            int round
+    ) {
+        long startNanos = System.nanoTime();
+        deadline.start(Math.min(context.deadline.getRemainingNanos(), gameParameters.ROLLING_HORIZON_TIME_MS * 1_000_000L));
+        this.context = context;
+        List<Buster> allies = context.allies;
+        team = allies.get(0).id / bustersPerPlayer;
+        List<Buster> busters = new ArrayList<>(allies);
+        busters.addAll(context.enemies);
+        initial = WorldState.fromLists(bustersPerPlayer, ghostCnt, busters, context.visibleGhosts, round);
+        state = new WorldState(bustersPerPlayer, ghostCnt);
+        moves = new Move[initial.busterCnt()];
+        allyIds = new int[allies.size()];
+        for (int i = 0; i < allies.size(); i++) {
+            allyIds[i] = allies.get(i).id;
+        }
+        this.searchable = searchable;
+        policyForAllies = allyIds.length < bustersPerPlayer;
+        for (boolean b : searchable) {
+            policyForAllies |= !b;
+        }
+        this.greedyMoves = greedyMoves;
+        greedyGenes = new int[allyIds.length];
+        for (int i = 0; i < allyIds.length; i++) {
+            greedyGenes[i] = pack(greedyMoves.get(i));
+        }
+        horizon = gameParameters.ROLLING_HORIZON_LENGTH;
+        planLength = allyIds.length * horizon;
+        int populationSize = Math.max(2, gameParameters.ROLLING_HORIZON_POPULATION); // room for the previous and greedy plans
+        ensureCapacity(populationSize);
+        generationCnt = 0;
+
+        initPopulation(populationSize);
+        while (generationCnt < gameParameters.ROLLING_HORIZON_MAX_GENERATIONS && !deadline.isExpired()) {
+            evolve(populationSize);
+            generationCnt++;
+        }
+        int best = getBest(populationSize);
+        prevBestPlan = Arrays.copyOfRange(population, best * planLength, (best + 1) * planLength);
+        prevAllyIds = allyIds;
+
+        List<Move> r = new ArrayList<>();
+        for (int i = 0; i < allyIds.length; i++) {
+            r.add(searchable[i] ? getFirstMove(best, i) : greedyMoves.get(i));
+        }
+        evaluationNanos += System.nanoTime() - startNanos;
+        return r;
+    }
+
+    /**
+     * Plans played out since the planner was created.
+     */
+    public long getEvaluationCnt() {
+        return evaluationCnt;
+    }
+
+    public double getEvaluationsPerSecond() {
+        return evaluationNanos == 0 ? 0 : evaluationCnt * 1e9 / evaluationNanos;
+    }
+
+    /**
+     * Generations evolved in the last turn.
+     */
+    public int getGenerationCnt() {
+        return generationCnt;
+    }
+
+    /**
+     * Plan of the last turn, ally rows of ROLLING_HORIZON_LENGTH packed moves, seeds the next turn shifted by one.
+     */
+    int[] getBestPlan() {
+        return prevBestPlan;
+    }
+
+    static int pack(Move move) {
+        switch (move.type) {
+            case MOVE:
+                return (packCoordinate(move.x) << X_SHIFT) | packCoordinate(move.y);
+            case BUST:
+                return (1 << TYPE_SHIFT) | move.targetId;
+            case STUN:
+                return (2 << TYPE_SHIFT) | move.targetId;
+            case RELEASE:
+                return 3 << TYPE_SHIFT;
+            default:
+                throw new RuntimeException();
+        }
+    }
+
+    static Move unpack(int gene) {
+        MoveType type = TYPES[gene >>> TYPE_SHIFT];
+        switch (type) {
+            case MOVE:
+                return Move.move(((gene >>> X_SHIFT) & COORDINATE_MASK) - COORDINATE_OFFSET, (gene & COORDINATE_MASK) - COORDINATE_OFFSET);
+            case BUST:
+                return Move.bust(gene & ((1 << TYPE_SHIFT) - 1));
+            case STUN:
+                return Move.stun(gene & ((1 << TYPE_SHIFT) - 1));
+            default:
+                return Move.release();
+        }
+    }
+
+    /**
+     * First move of the plan, or staying in place if the simulator would ignore it, which is what the plan was
+     * scored with.
+     */
+    private Move getFirstMove(int p, int a) {
+        Move move = decoded[p * planLength + a * horizon];
+        int id = allyIds[a];
+        boolean ignored;
+        switch (move.type) {
+            case STUN:
+                int target = move.targetId;
+                ignored = initial.stunCooldown[id] > 0 || !initial.busterKnown[target]
+                        || dist2(initial.busterX[id], initial.busterY[id], initial.busterX[target], initial.busterY[target]) > gameParameters.stunRange2();
+                break;
+            case BUST:
+                int g = move.targetId;
+                ignored = initial.isCarryingGhost(id) || initial.ghostState[g] != WorldState.GHOST_FREE
+                        || !inBustRange(dist2(initial.busterX[id], initial.busterY[id], initial.ghostX[g], initial.ghostY[g]), gameParameters);
+                break;
+            case RELEASE:
+                ignored = !initial.isCarryingGhost(id);
+                break;
+            default:
+                ignored = false;
+        }
+        return ignored ? Move.move(initial.busterX[id], initial.busterY[id]) : move;
+    }
+
+    private static int packCoordinate(int c) {
+        return Math.min(Math.max(c + COORDINATE_OFFSET, 0), COORDINATE_MASK);
+    }
+
+    private void initPopulation(int populationSize) {
+        int p = 0;
+        if (prevBestPlan != null && prevBestPlan.length == planLength && Arrays.equals(prevAllyIds, allyIds)) {
+            for (int a = 0; a < allyIds.length; a++) {
+                for (int t = 0; t < horizon; t++) {
+                    int gene = t + 1 < horizon ? prevBestPlan[a * horizon + t + 1] : prevBestPlan[a * horizon + t];
+                    setGene(population, p, a, t, gene);
+                }
+            }
+            fitness[p] = evaluate(p);
+            p++;
+        }
+        for (int a = 0; a < allyIds.length; a++) {
+            for (int t = 0; t < horizon; t++) {
+                setGene(population, p, a, t, greedyGenes[a]);
+            }
+        }
+        fitness[p] = evaluate(p);
+        int greedy = p;
+        p++;
+        for (; p < populationSize; p++) {
+            System.arraycopy(population, greedy * planLength, population, p * planLength, planLength);
+            System.arraycopy(decoded, greedy * planLength, decoded, p * planLength, planLength);
+            mutate(population, p);
+            fitness[p] = evaluate(p);
+        }
+    }
+
+    private void evolve(int populationSize) {
+        sortByFitness(populationSize);
+        for (int k = 0; k < populationSize && !deadline.isExpired(); k++) {
+            int child = k;
+            if (k < ELITE_CNT) {
+                copyToOffspring(order[k], child);
+                offspringFitness[child] = fitness[order[k]];
+                continue;
+            }
+            int first = tournament(populationSize);
+            int second = tournament(populationSize);
+            for (int a = 0; a < allyIds.length; a++) {
+                int parent = random.nextBoolean() ? first : second;
+                int from = parent * planLength + a * horizon;
+                int to = child * planLength + a * horizon;
+                System.arraycopy(population, from, offspring, to, horizon);
+                System.arraycopy(decoded, from, decodedOffspring, to, horizon);
+            }
+            mutate(offspring, child);
+            offspringFitness[child] = evaluate(offspring, decodedOffspring, child);
+        }
+        if (deadline.isExpired()) {
+            return; // unfinished generation, keep the evaluated one
+        }
+        int[] t = population;
+        population = offspring;
+        offspring = t;
+        Move[] d = decoded;
+        decoded = decodedOffspring;
+        decodedOffspring = d;
+        double[] f = fitness;
+        fitness = offspringFitness;
+        offspringFitness = f;
+    }
+
+    private int tournament(int populationSize) {
+        int a = random.nextInt(populationSize);
+        int b = random.nextInt(populationSize);
+        return fitness[a] >= fitness[b] ? a : b;
+    }
+
+    private void mutate(int[] plans, int p) {
+        Move[] decodedPlans = plans == population ? decoded : decodedOffspring;
+        int a = random.nextInt(allyIds.length);
+        if (!searchable[a]) {
+            return;
+        }
+        int t = random.nextInt(horizon);
+        int gene = randomGene(a, t);
+        if (random.nextBoolean()) {
+            for (int i = t; i < horizon; i++) {
+                setGene(plans, decodedPlans, p, a, i, gene);
+            }
+        } else {
+            setGene(plans, decodedPlans, p, a, t, gene);
+        }
+    }
+
+    /**
+     * Mostly moves towards a random point the ally can reach by turn t, sometimes bust, stun or release.
+     */
+    private int randomGene(int a, int t) {
+        int id = allyIds[a];
+        int kind = random.nextInt(20);
+        if (kind == 0) {
+            return pack(Move.release());
+        }
+        if (kind <= 3) {
+            int g = random.nextInt(initial.ghostCnt);
+            if (initial.ghostState[g] == WorldState.GHOST_FREE) {
+                return pack(Move.bust(g));
+            }
+        } else if (kind <= 5) {
+            int enemy = (1 - team) * initial.bustersPerPlayer + random.nextInt(initial.bustersPerPlayer);
+            if (initial.busterKnown[enemy]) {
+                return pack(Move.stun(enemy));
+            }
+        }
+        int range = gameParameters.MOVE_RANGE * (t + 1);
+        int x = initial.busterX[id] + random.nextInt(2 * range + 1) - range;
+        int y = initial.busterY[id] + random.nextInt(2 * range + 1) - range;
+        x = Math.min(Math.max(x, 0), gameParameters.H - 1);
+        y = Math.min(Math.max(y, 0), gameParameters.W - 1);
+        return pack(Move.move(x, y));
+    }
+
+    private double evaluate(int p) {
+        return evaluate(population, decoded, p);
+    }
+
+    private double evaluate(int[] plans, Move[] decodedPlans, int p) {
+        state.copyFrom(initial);
+        double r = 0;
+        double weight = 1;
+        int base = p * planLength;
+        for (int a = 0; a < allyIds.length; a++) {
+            if (searchable[a] && plans[base + a * horizon] != greedyGenes[a]) {
+                r -= DEVIATION_PENALTY;
+            }
+        }
+        for (int t = 0; t < horizon; t++) {
+            if (policyForAllies) {
+                enemyPolicy.fillMoves(state, team, moves);
+            }
+            enemyPolicy.fillMoves(state, 1 - team, moves);
+            if (t == 0) {
+                context.fillEnemyMoves(moves);
+            }
+            for (int a = 0; a < allyIds.length; a++) {
+                if (searchable[a]) {
+                    moves[allyIds[a]] = decodedPlans[base + a * horizon + t];
+                } else if (t == 0) {
+                    moves[allyIds[a]] = greedyMoves.get(a);
+                }
+            }
+            simulator.step(state, moves);
+            r += weight * teamEvaluator.evaluate(state, team);
+            weight *= DISCOUNT;
+        }
+        evaluationCnt++;
+        return r;
+    }
+
+    private int getBest(int populationSize) {
+        int best = 0;
+        for (int p = 1; p < populationSize; p++) {
+            if (fitness[p] > fitness[best]) {
+                best = p;
+            }
+        }
+        return best;
+    }
+
+    private void sortByFitness(int populationSize) {
+        for (int p = 0; p < populationSize; p++) {
+            order[p] = p;
+        }
+        Arrays.sort(order, 0, populationSize, (a, b) -> Double.compare(fitness[b], fitness[a]));
+    }
+
+    private void copyToOffspring(int p, int q) {
+        System.arraycopy(population, p * planLength, offspring, q * planLength, planLength);
+        System.arraycopy(decoded, p * planLength, decodedOffspring, q * planLength, planLength);
+    }
+
+    private void setGene(int[] plans, int p, int a, int t, int gene) {
+        setGene(plans, plans == population ? decoded : decodedOffspring, p, a, t, gene);
+    }
+
+    private void setGene(int[] plans, Move[] decodedPlans, int p, int a, int t, int gene) {
+        int i = p * planLength + a * horizon + t;
+        plans[i] = gene;
+        decodedPlans[i] = unpack(gene);
+    }
+
+    private void ensureCapacity(int populationSize) {
+        int size = populationSize * planLength;
+        if (population.length < size) {
+            population = new int[size];
+            offspring = new int[size];
+            decoded = new Move[size];
+            decodedOffspring = new Move[size];
+        }
+        if (fitness.length < populationSize) {
+            fitness = new double[populationSize];
+            offspringFitness = new double[populationSize];
+            order = new Integer[populationSize];
+        }
+    }
+}
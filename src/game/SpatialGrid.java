@@ -0,0 +1,115 @@
+package game;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static game.Utils.*;
+
+/**
+ * Uniform grid over the map with FOG_RANGE sized cells, so a query with radius up to FOG_RANGE
+ * looks only at the 3x3 cells around the query point instead of at every item.
+ */
+public class SpatialGrid<T> {
+    private final int cellSize;
+    private final int rows;
+    private final int cols;
+    private final List<List<Entry<T>>> cells;
+    private int size;
+
+    public SpatialGrid(GameParameters gameParameters) {
+        cellSize = gameParameters.FOG_RANGE;
+        rows = gameParameters.H / cellSize + 1;
+        cols = gameParameters.W / cellSize + 1;
+        cells = new ArrayList<>(Collections.nCopies(rows * cols, null));
+    }
+
+    public static SpatialGrid<Buster> ofBusters(List<Buster> busters, GameParameters gameParameters) {
+        SpatialGrid<Buster> r = new SpatialGrid<>(gameParameters);
+        for (Buster buster : busters) {
+            r.add(buster.x, buster.y, buster);
+        }
+        return r;
+    }
+
+    public void add(int x, int y, T item) {
+        int cell = row(x) * cols + col(y);
+        if (cells.get(cell) == null) {
+            cells.set(cell, new ArrayList<>());
+        }
+        cells.get(cell).add(new Entry<>(x, y, item));
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean anyWithinRange(int x, int y, int range) {
+        long range2 = sqr(range);
+        int maxRow = row(x + range);
+        int maxCol = col(y + range);
+        for (int row = row(x - range); row <= maxRow; row++) {
+            for (int col = col(y - range); col <= maxCol; col++) {
+                List<Entry<T>> cell = cells.get(row * cols + col);
+                if (cell == null) {
+                    continue;
+                }
+                for (Entry<T> e : cell) {
+                    if (dist2(e.x, e.y, x, y) <= range2) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * All items with the minimal distance to (x, y), if it is not greater than range.
+     */
+    public List<T> getNearestWithinRange(int x, int y, int range) {
+        long minDist2 = sqr(range);
+        List<T> r = new ArrayList<>();
+        int maxRow = row(x + range);
+        int maxCol = col(y + range);
+        for (int row = row(x - range); row <= maxRow; row++) {
+            for (int col = col(y - range); col <= maxCol; col++) {
+                List<Entry<T>> cell = cells.get(row * cols + col);
+                if (cell == null) {
+                    continue;
+                }
+                for (Entry<T> e : cell) {
+                    long dist2 = dist2(e.x, e.y, x, y);
+                    if (dist2 < minDist2) {
+                        minDist2 = dist2;
+                        r.clear();
+                        r.add(e.item);
+                    } else if (dist2 == minDist2) {
+                        r.add(e.item);
+                    }
+                }
+            }
+        }
+        return r;
+    }
+
+    private int row(int x) {
+        return Math.min(Math.max(x, 0) / cellSize, rows - 1);
+    }
+
+    private int col(int y) {
+        return Math.min(Math.max(y, 0) / cellSize, cols - 1);
+    }
+
+    private static class Entry<T> {
+        final int x, y;
+        final T item;
+
+        Entry(int x, int y, T item) {
+            this.x = x;
+            this.y = y;
+            this.item = item;
+        }
+    }
+}
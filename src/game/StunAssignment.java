@@ -0,0 +1,50 @@
+package game;
+
+import java.util.Arrays;
+
+/**
+ * Best matching of stunners to targets: as many stuns as possible, then the largest total value. Exact dynamic
+ * programming over subsets of taken targets, stunners * 2^targets * targets steps, a few microseconds for 5 x 5.
+ */
+public class StunAssignment {
+    static final int MAX_TARGET_CNT = 16;
+    private static final long MATCH = 1L << 40; // one more stun outweighs any values
+
+    /**
+     * @param values values[i][j] of stunner i stunning target j, negative if it can't
+     * @return target of every stunner, -1 if none; ties go to lower target indices
+     */
+    public static int[] assign(long[][] values) {
+        int n = values.length;
+        int m = n == 0 ? 0 : values[0].length;
+        if (m > MAX_TARGET_CNT) {
+            throw new RuntimeException("Too many stun targets: " + m);
+        }
+        int maskCnt = 1 << m;
+        long[][] best = new long[n + 1][maskCnt]; // best[i][mask] of stunners i.. with targets in mask taken
+        for (int i = n - 1; i >= 0; i--) {
+            for (int mask = 0; mask < maskCnt; mask++) {
+                long r = best[i + 1][mask];
+                for (int j = 0; j < m; j++) {
+                    if (values[i][j] >= 0 && (mask & (1 << j)) == 0) {
+                        r = Math.max(r, MATCH + values[i][j] + best[i + 1][mask | (1 << j)]);
+                    }
+                }
+                best[i][mask] = r;
+            }
+        }
+        int[] r = new int[n];
+        Arrays.fill(r, -1);
+        int mask = 0;
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < m; j++) {
+                if (values[i][j] >= 0 && (mask & (1 << j)) == 0 && MATCH + values[i][j] + best[i + 1][mask | (1 << j)] == best[i][mask]) {
+                    r[i] = j;
+                    mask |= 1 << j;
+                    break;
+                }
+            }
+        }
+        return r;
+    }
+}
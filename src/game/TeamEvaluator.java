@@ -0,0 +1,43 @@
+package game;
+
+import static game.Utils.*;
+
+/**
+ * Scores a simulated {@link WorldState} for one team, for searches that look at whole turns rather than at one buster.
+ * Only things one turn can change much are counted: score, who carries ghosts and how far from home, stuns.
+ */
+public class TeamEvaluator {
+    static final double SCORE = 1000;
+    static final double CARRIED_GHOST = 400;
+    static final double CARRIED_GHOST_DIST = 0.02;
+    static final double STUNNED_PER_TURN = 3;
+    static final double STUN_READY = 25;
+
+    private final GameParameters gameParameters;
+
+    public TeamEvaluator(GameParameters gameParameters) {
+        this.gameParameters = gameParameters;
+    }
+
+    public double evaluate(WorldState s, int team) {
+        double r = SCORE * (s.score[team] - s.score[1 - team]);
+        for (int i = 0; i < s.busterCnt(); i++) {
+            if (!s.busterKnown[i]) {
+                continue;
+            }
+            int busterTeam = s.getTeam(i);
+            double value = 0;
+            if (s.isCarryingGhost(i)) {
+                int baseX = busterTeam == 0 ? 0 : gameParameters.H - 1;
+                int baseY = busterTeam == 0 ? 0 : gameParameters.W - 1;
+                value += CARRIED_GHOST - CARRIED_GHOST_DIST * dist(s.busterX[i], s.busterY[i], baseX, baseY);
+            }
+            value -= STUNNED_PER_TURN * s.stunDuration[i];
+            if (s.stunCooldown[i] == 0) {
+                value += STUN_READY;
+            }
+            r += busterTeam == team ? value : -value;
+        }
+        return r;
+    }
+}
@@ -0,0 +1,198 @@
+package game;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static game.Utils.*;
+
+/**
+ * Chooses moves of all allies together. Every ally gets its greedy move and a few alternatives: the next best moves
+ * of {@link BestMoveFinder} and stuns on enemies in range. Joint moves are played through {@link GameSimulator}
+ * against {@link EnemyPolicy} and scored by {@link TeamEvaluator} minus a small penalty for leaving greedy choices,
+ * so without a clear gain the greedy moves stay. Small teams are searched exhaustively, bigger ones by coordinate
+ * descent starting from the greedy moves, both stop at TEAM_SEARCH_TIME_MS or the turn deadline.
+ */
+public class TeamPlanner {
+    static final double RANK_PENALTY = 20;
+    static final int MAX_EXHAUSTIVE_CNT = 4096;
+    static final int TABLE_SIZE_LOG2 = 16;
+
+    private final GameParameters gameParameters;
+    private final BestMoveFinder bestMoveFinder;
+    private final GameSimulator simulator;
+    private final EnemyPolicy enemyPolicy;
+    private final TeamEvaluator teamEvaluator;
+    private final TurnDeadline deadline = new TurnDeadline();
+    private final TranspositionTable transpositionTable = new TranspositionTable(TABLE_SIZE_LOG2);
+
+    private WorldState initial;
+    private long initialHash;
+    private WorldState state;
+    private Move[] moves;
+    private List<List<Move>> candidates;
+    private int[] allyIds;
+    private int team;
+    private int simulationCnt;
+
+    public TeamPlanner(GameParameters gameParameters, BestMoveFinder bestMoveFinder) {
+        this.gameParameters = gameParameters;
+        this.bestMoveFinder = bestMoveFinder;
+        simulator = new GameSimulator(gameParameters);
+        enemyPolicy = new EnemyPolicy(gameParameters);
+        teamEvaluator = new TeamEvaluator(gameParameters);
+    }
+
+    /**
+     * @param greedyMoves moves chosen one by one, in allies order
+     * @param searchable  allies whose moves may be changed, others keep their greedy moves
+     * @return moves in allies order
+     */
+    public List<Move> findTeamMoves(
+            TurnContext context,
+            List<Move> greedyMoves,
+            boolean[] searchable,
+            int bustersPerPlayer,
+            int ghostCnt,
+            int round
+    ) {
+        deadline.start(Math.min(context.deadline.getRemainingNanos(), gameParameters.TEAM_SEARCH_TIME_MS * 1_000_000L));
+        simulationCnt = 0;
+        transpositionTable.newSearch();
+        List<Buster> allies = context.allies;
+        team = allies.get(0).id / bustersPerPlayer;
+        List<Buster> busters = new ArrayList<>(allies);
+        busters.addAll(context.enemies);
+        initial = WorldState.fromLists(bustersPerPlayer, ghostCnt, busters, context.visibleGhosts, round);
+        initialHash = Zobrist.hash(initial);
+        state = new WorldState(bustersPerPlayer, ghostCnt);
+        moves = new Move[initial.busterCnt()];
+        enemyPolicy.fillMoves(initial, 1 - team, moves);
+        context.fillEnemyMoves(moves);
+
+        allyIds = new int[allies.size()];
+        candidates = new ArrayList<>();
+        long jointCnt = 1;
+        for (int i = 0; i < allies.size(); i++) {
+            allyIds[i] = allies.get(i).id;
+            List<Move> list = searchable[i] ? getCandidates(allies.get(i), greedyMoves.get(i), context) : singleton(greedyMoves.get(i));
+            candidates.add(list);
+            jointCnt = Math.min(jointCnt * list.size(), Long.MAX_VALUE / 16);
+        }
+
+        int[] choice = new int[allies.size()];
+        if (jointCnt <= MAX_EXHAUSTIVE_CNT) {
+            choice = searchExhaustively(choice);
+        } else {
+            choice = searchByCoordinateDescent(choice);
+        }
+        List<Move> r = new ArrayList<>();
+        for (int i = 0; i < allies.size(); i++) {
+            r.add(candidates.get(i).get(choice[i]));
+        }
+        return r;
+    }
+
+    public int getSimulationCnt() {
+        return simulationCnt;
+    }
+
+    /**
+     * Scored states, kept between turns since a score depends only on the state and the team.
+     */
+    public TranspositionTable getTranspositionTable() {
+        return transpositionTable;
+    }
+
+    private List<Move> getCandidates(Buster buster, Move greedyMove, TurnContext context) {
+        List<Move> r = singleton(greedyMove);
+        if (buster.remainingStunDuration > 0) {
+            return r;
+        }
+        for (BestMoveFinder.ScoredMove scoredMove : bestMoveFinder.getBestSmartMoves(buster, context, gameParameters.TEAM_SEARCH_CANDIDATES)) {
+            if (!r.contains(scoredMove.move)) {
+                r.add(scoredMove.move);
+            }
+        }
+        if (buster.remainingStunCooldown == 0) {
+            for (Buster enemy : context.enemies) {
+                Move stun = Move.stun(enemy.id);
+                if (enemy.remainingStunDuration <= 1 && dist2(buster, enemy) <= gameParameters.stunRange2() && !r.contains(stun)) {
+                    r.add(stun);
+                }
+            }
+        }
+        return r;
+    }
+
+    private int[] searchExhaustively(int[] choice) {
+        int[] best = choice.clone();
+        double bestScore = score(choice);
+        int n = choice.length;
+        while (!deadline.isExpired()) {
+            int i = 0;
+            while (i < n && choice[i] == candidates.get(i).size() - 1) {
+                choice[i] = 0;
+                i++;
+            }
+            if (i == n) {
+                break;
+            }
+            choice[i]++;
+            double score = score(choice);
+            if (score > bestScore) {
+                bestScore = score;
+                best = choice.clone();
+            }
+        }
+        return best;
+    }
+
+    private int[] searchByCoordinateDescent(int[] choice) {
+        double bestScore = score(choice);
+        boolean improved = true;
+        while (improved && !deadline.isExpired()) {
+            improved = false;
+            for (int i = 0; i < choice.length && !deadline.isExpired(); i++) {
+                int current = choice[i];
+                for (int c = 0; c < candidates.get(i).size(); c++) {
+                    if (c == current) {
+                        continue;
+                    }
+                    choice[i] = c;
+                    double score = score(choice);
+                    if (score > bestScore) {
+                        bestScore = score;
+                        current = c;
+                        improved = true;
+                    }
+                }
+                choice[i] = current;
+            }
+        }
+        return choice;
+    }
+
+    private double score(int[] choice) {
+        double penalty = 0;
+        for (int i = 0; i < choice.length; i++) {
+            moves[allyIds[i]] = candidates.get(i).get(choice[i]);
+            penalty += RANK_PENALTY * choice[i];
+        }
+        state.copyFrom(initial);
+        long key = simulator.step(state, moves, initialHash) ^ Zobrist.mix(team + 1); // scores of the two teams differ
+        simulationCnt++;
+        int index = transpositionTable.find(key);
+        if (index != -1) {
+            return transpositionTable.getValue(index) - penalty;
+        }
+        double value = teamEvaluator.evaluate(state, team);
+        transpositionTable.store(key, 1, value);
+        return value - penalty;
+    }
+
+    private static List<Move> singleton(Move move) {
+        List<Move> r = new ArrayList<>();
+        r.add(move);
+        return r;
+    }
+}
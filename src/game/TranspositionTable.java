@@ -0,0 +1,120 @@
+package game;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size table of scores of already searched states, keyed by {@link Zobrist} hashes and kept in primitive arrays.
+ * One slot per index; a stored entry is replaced by an entry of the same state, by one from a newer search (see
+ * {@link #newSearch}) or by one searched at least as deep.
+ */
+public class TranspositionTable {
+    private static final long EMPTY = 0;
+
+    private final long[] keys;
+    private final double[] values;
+    private final int[] depths;
+    private final int[] searches;
+    private final int mask;
+    private int search;
+
+    private long probeCnt;
+    private long hitCnt;
+    private long storeCnt;
+    private long replaceCnt;
+
+    /**
+     * @param sizeLog2 the table holds 2^sizeLog2 entries
+     */
+    public TranspositionTable(int sizeLog2) {
+        int size = 1 << sizeLog2;
+        keys = new long[size];
+        values = new double[size];
+        depths = new int[size];
+        searches = new int[size];
+        mask = size - 1;
+    }
+
+    /**
+     * Starts a new search: entries of previous ones stay readable but are replaced first.
+     */
+    public void newSearch() {
+        search++;
+    }
+
+    /**
+     * Index of the entry of given state, -1 if it isn't stored.
+     */
+    public int find(long key) {
+        key = nonEmpty(key);
+        probeCnt++;
+        int index = (int) key & mask;
+        if (keys[index] != key) {
+            return -1;
+        }
+        hitCnt++;
+        return index;
+    }
+
+    public double getValue(int index) {
+        return values[index];
+    }
+
+    public int getDepth(int index) {
+        return depths[index];
+    }
+
+    /**
+     * True if the entry was stored in the current search.
+     */
+    public boolean isFromThisSearch(int index) {
+        return searches[index] == search;
+    }
+
+    public void store(long key, int depth, double value) {
+        key = nonEmpty(key);
+        int index = (int) key & mask;
+        long stored = keys[index];
+        if (stored != EMPTY && stored != key && searches[index] == search && depths[index] > depth) {
+            return;
+        }
+        if (stored != EMPTY && stored != key) {
+            replaceCnt++;
+        }
+        keys[index] = key;
+        values[index] = value;
+        depths[index] = depth;
+        searches[index] = search;
+        storeCnt++;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+    }
+
+    public long getProbeCnt() {
+        return probeCnt;
+    }
+
+    public long getHitCnt() {
+        return hitCnt;
+    }
+
+    public double getHitRate() {
+        return probeCnt == 0 ? 0 : (double) hitCnt / probeCnt;
+    }
+
+    public long getStoreCnt() {
+        return storeCnt;
+    }
+
+    /**
+     * Stores that overwrote an entry of another state.
+     */
+    public long getReplaceCnt() {
+        return replaceCnt;
+    }
+
+    private static long nonEmpty(long key) {
+        return key == EMPTY ? 1 : key;
+    }
+}
@@ -0,0 +1,117 @@
+package game;
+
+import java.util.*;
+
+/**
+ * Team-level data of one turn that doesn't depend on which ally is deciding. Built once per turn by
+ * {@link BestMoveFinder#createTurnContext} and shared by all allies; moves committed by earlier allies
+ * are applied with {@link #onMoveCommitted}.
+ */
+public class TurnContext {
+    final Point myBase;
+    final List<Buster> allies;
+    final List<Buster> enemies;
+    final List<Ghost> visibleGhosts;
+    final List<Ghost> ghosts; // visible ghosts we are interested in this turn
+    final List<CheckPoint> checkPoints;
+    final boolean halfGhostsCollected;
+    final boolean iVeSeenItAll;
+
+    final List<Buster> enemiesAfterMove;
+    final Map<Integer, Move> enemyMoves; // predicted by OpponentModel, empty if it is off
+    final List<List<Buster>> enemiesWithGhostNextPositions;
+    final boolean someOfUsCanCatchEnemyWithGhost;
+    final List<Point> battles;
+    final Set<Integer> forbiddenGhosts;
+
+    final Set<Integer> alreadyStunnedEnemies = new HashSet<>();
+    final Set<Integer> alreadyBusted = new HashSet<>();
+    TurnDeadline deadline = TurnDeadline.unlimited();
+    Map<Integer, Integer> stunTargets; // of allies, see BestMoveFinder#getStunTargets, computed when first needed
+    GhostBelief ghostBelief; // null unless GHOST_BELIEF is on
+    int mergedCandidateCnt; // evaluations saved by CandidateSet, candidates leading where an earlier one does
+    private final List<Ghost> ghostsAfterMove;
+
+    TurnContext(
+            Point myBase,
+            List<Buster> allies,
+            List<Buster> enemies,
+            List<Ghost> visibleGhosts,
+            List<Ghost> ghosts,
+            List<CheckPoint> checkPoints,
+            boolean halfGhostsCollected,
+            boolean iVeSeenItAll,
+            List<Buster> enemiesAfterMove,
+            Map<Integer, Move> enemyMoves,
+            List<List<Buster>> enemiesWithGhostNextPositions,
+            boolean someOfUsCanCatchEnemyWithGhost,
+            List<Point> battles,
+            Set<Integer> forbiddenGhosts,
+            List<Ghost> fledGhosts
+    ) {
+        this.myBase = myBase;
+        this.allies = allies;
+        this.enemies = enemies;
+        this.visibleGhosts = visibleGhosts;
+        this.ghosts = ghosts;
+        this.checkPoints = checkPoints;
+        this.halfGhostsCollected = halfGhostsCollected;
+        this.iVeSeenItAll = iVeSeenItAll;
+        this.enemiesAfterMove = enemiesAfterMove;
+        this.enemyMoves = enemyMoves;
+        this.enemiesWithGhostNextPositions = enemiesWithGhostNextPositions;
+        this.someOfUsCanCatchEnemyWithGhost = someOfUsCanCatchEnemyWithGhost;
+        this.battles = battles;
+        this.forbiddenGhosts = forbiddenGhosts;
+        ghostsAfterMove = new ArrayList<>(fledGhosts);
+    }
+
+    public void onMoveCommitted(Move move) {
+        if (move.type == MoveType.STUN) {
+            alreadyStunnedEnemies.add(move.targetId);
+        }
+        if (move.type == MoveType.BUST) {
+            alreadyBusted.add(move.targetId);
+            int index = indexOfGhost(move.targetId);
+            if (index != -1) {
+                ghostsAfterMove.set(index, ghosts.get(index));
+            }
+        }
+    }
+
+    /**
+     * Overwrites moves of the enemies the opponent model made a prediction for, moves are indexed by buster id.
+     */
+    void fillEnemyMoves(Move[] moves) {
+        for (Map.Entry<Integer, Move> entry : enemyMoves.entrySet()) {
+            if (entry.getKey() < moves.length) {
+                moves[entry.getKey()] = entry.getValue();
+            }
+        }
+    }
+
+    /**
+     * Ghosts after the turn if given ally makes given move: busted ones stay, others flee from all busters.
+     */
+    List<Ghost> getGhostsAfterMove(Move move) {
+        if (move.type != MoveType.BUST) {
+            return ghostsAfterMove;
+        }
+        int index = indexOfGhost(move.targetId);
+        if (index == -1 || ghostsAfterMove.get(index) == ghosts.get(index)) {
+            return ghostsAfterMove;
+        }
+        List<Ghost> r = new ArrayList<>(ghostsAfterMove);
+        r.set(index, ghosts.get(index));
+        return r;
+    }
+
+    private int indexOfGhost(int id) {
+        for (int i = 0; i < ghosts.size(); i++) {
+            if (ghosts.get(i).id == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,39 @@
+package game;
+
+/**
+ * Time budget of one turn. Searches check it cooperatively and, once it is expired, return the best move found so far.
+ */
+public class TurnDeadline {
+    private boolean unlimited = true;
+    private long deadlineNanos;
+    private int cutSearchCnt;
+
+    public static TurnDeadline unlimited() {
+        return new TurnDeadline();
+    }
+
+    public void start(long budgetNanos) {
+        unlimited = false;
+        deadlineNanos = System.nanoTime() + budgetNanos;
+        cutSearchCnt = 0;
+    }
+
+    public boolean isExpired() {
+        return !unlimited && System.nanoTime() - deadlineNanos >= 0;
+    }
+
+    public long getRemainingNanos() {
+        return unlimited ? Long.MAX_VALUE : Math.max(0, deadlineNanos - System.nanoTime());
+    }
+
+    void onSearchCut() {
+        cutSearchCnt++;
+    }
+
+    /**
+     * Number of searches that were stopped by the deadline since {@link #start}.
+     */
+    public int getCutSearchCnt() {
+        return cutSearchCnt;
+    }
+}
@@ -35,7 +35,76 @@ public class Utils {
     }
 
     public static long sqr(int x) {
-        return x * x;
+        return (long) x * x;
+    }
+
+    public static long dist2(int x1, int y1, int x2, int y2) {
+        long dx = x1 - x2;
+        long dy = y1 - y2;
+        return dx * dx + dy * dy;
+    }
+
+    public static long dist2(Buster a, Buster b) {
+        return dist2(a.x, a.y, b.x, b.y);
+    }
+
+    public static long dist2(Buster buster, Point p) {
+        return dist2(buster.x, buster.y, p.x, p.y);
+    }
+
+    public static long dist2(Buster buster, Ghost g) {
+        return dist2(buster.x, buster.y, g.x, g.y);
+    }
+
+    public static long dist2(Point a, Point b) {
+        return dist2(a.x, a.y, b.x, b.y);
+    }
+
+    public static long dist2(Point p, Buster b) {
+        return dist2(p.x, p.y, b.x, b.y);
+    }
+
+    public static long dist2(Point p, Ghost g) {
+        return dist2(p.x, p.y, g.x, g.y);
+    }
+
+    public static long dist2(Ghost g, Point p) {
+        return dist2(g.x, g.y, p.x, p.y);
+    }
+
+    /**
+     * Same as {@code dist(...) <= range}, but without leaving integer arithmetic.
+     */
+    public static boolean withinRange(int x1, int y1, int x2, int y2, int range) {
+        return dist2(x1, y1, x2, y2) <= sqr(range);
+    }
+
+    public static boolean withinRange(Buster a, Buster b, int range) {
+        return dist2(a, b) <= sqr(range);
+    }
+
+    public static boolean withinRange(Buster buster, Point p, int range) {
+        return dist2(buster, p) <= sqr(range);
+    }
+
+    public static boolean withinRange(Buster buster, Ghost g, int range) {
+        return dist2(buster, g) <= sqr(range);
+    }
+
+    public static boolean withinRange(Point a, Point b, int range) {
+        return dist2(a, b) <= sqr(range);
+    }
+
+    public static boolean withinRange(Point p, Buster b, int range) {
+        return dist2(p, b) <= sqr(range);
+    }
+
+    public static boolean withinRange(Point p, Ghost g, int range) {
+        return dist2(p, g) <= sqr(range);
+    }
+
+    public static boolean withinRange(Ghost g, Point p, int range) {
+        return dist2(g, p) <= sqr(range);
     }
 
     public static Point moveToWithAllowedRange(int fromX, int fromY, int toX, int toY, int minRange) {
@@ -166,8 +235,12 @@ public class Utils {
         return Move.move(getNewPosition(buster, move, gameParameters));
     }
 
-    static boolean inBustRange(double dist, GameParameters gameParameters) {
-        return dist >= gameParameters.MIN_BUST_RANGE && dist <= gameParameters.MAX_BUST_RANGE;
+    static boolean inBustRange(long dist2, GameParameters gameParameters) {
+        return dist2 >= gameParameters.minBustRange2() && dist2 <= gameParameters.maxBustRange2();
+    }
+
+    static boolean inBustRange(Buster buster, Ghost ghost, GameParameters gameParameters) {
+        return inBustRange(dist2(buster, ghost), gameParameters);
     }
 
     static double dist(Ghost g, Point p) {
@@ -0,0 +1,189 @@
+package game;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Whole game state in flat arrays indexed by entity id, so that it can be copied and simulated without allocations.
+ * {@link #fromLists} and {@link #getBusters}/{@link #getFreeGhosts} convert from and to the object lists the bot uses.
+ */
+public class WorldState {
+    public static final int GHOST_FREE = 0;
+    public static final int GHOST_CARRIED = 1;
+    public static final int GHOST_RELEASED = 2;
+    public static final int GHOST_UNKNOWN = 3; // not in the lists the state was built from, simulator ignores it
+
+    final int bustersPerPlayer;
+    final int ghostCnt;
+
+    // busters, indexed by buster id. Team 0 owns ids [0, bustersPerPlayer), team 1 the rest
+    final int[] busterX;
+    final int[] busterY;
+    final int[] stunDuration;
+    final int[] stunCooldown;
+    final int[] carriedGhost; // -1 if buster doesn't carry a ghost
+    final boolean[] busterKnown; // false for busters that weren't in the lists the state was built from
+
+    // ghosts, indexed by ghost id
+    final int[] ghostX;
+    final int[] ghostY;
+    final int[] stamina;
+    final int[] bustCnt;
+    final int[] ghostState;
+
+    final int[] score = new int[2];
+    int round;
+
+    public WorldState(int bustersPerPlayer, int ghostCnt) {
+        this.bustersPerPlayer = bustersPerPlayer;
+        this.ghostCnt = ghostCnt;
+        int busterCnt = bustersPerPlayer * 2;
+        busterX = new int[busterCnt];
+        busterY = new int[busterCnt];
+        stunDuration = new int[busterCnt];
+        stunCooldown = new int[busterCnt];
+        carriedGhost = new int[busterCnt];
+        Arrays.fill(carriedGhost, -1);
+        busterKnown = new boolean[busterCnt];
+        Arrays.fill(busterKnown, true);
+        ghostX = new int[ghostCnt];
+        ghostY = new int[ghostCnt];
+        stamina = new int[ghostCnt];
+        bustCnt = new int[ghostCnt];
+        ghostState = new int[ghostCnt];
+    }
+
+    public void copyFrom(WorldState o) {
+        System.arraycopy(o.busterX, 0, busterX, 0, busterX.length);
+        System.arraycopy(o.busterY, 0, busterY, 0, busterY.length);
+        System.arraycopy(o.stunDuration, 0, stunDuration, 0, stunDuration.length);
+        System.arraycopy(o.stunCooldown, 0, stunCooldown, 0, stunCooldown.length);
+        System.arraycopy(o.carriedGhost, 0, carriedGhost, 0, carriedGhost.length);
+        System.arraycopy(o.busterKnown, 0, busterKnown, 0, busterKnown.length);
+        System.arraycopy(o.ghostX, 0, ghostX, 0, ghostX.length);
+        System.arraycopy(o.ghostY, 0, ghostY, 0, ghostY.length);
+        System.arraycopy(o.stamina, 0, stamina, 0, stamina.length);
+        System.arraycopy(o.bustCnt, 0, bustCnt, 0, bustCnt.length);
+        System.arraycopy(o.ghostState, 0, ghostState, 0, ghostState.length);
+        score[0] = o.score[0];
+        score[1] = o.score[1];
+        round = o.round;
+    }
+
+    /**
+     * State with only given busters and ghosts known. Carried ghosts don't have to be in the ghost list.
+     */
+    public static WorldState fromLists(int bustersPerPlayer, int ghostCnt, List<Buster> busters, List<Ghost> ghosts, int round) {
+        WorldState s = new WorldState(bustersPerPlayer, ghostCnt);
+        Arrays.fill(s.busterKnown, false);
+        Arrays.fill(s.ghostState, GHOST_UNKNOWN);
+        for (Ghost ghost : ghosts) {
+            s.setGhost(ghost);
+        }
+        for (Buster buster : busters) {
+            s.setBuster(buster);
+        }
+        s.round = round;
+        return s;
+    }
+
+    public void setBuster(int id, int x, int y) {
+        busterX[id] = x;
+        busterY[id] = y;
+    }
+
+    public void setBuster(Buster buster) {
+        int id = buster.id;
+        busterX[id] = buster.x;
+        busterY[id] = buster.y;
+        stunDuration[id] = buster.remainingStunDuration;
+        stunCooldown[id] = buster.remainingStunCooldown;
+        carriedGhost[id] = buster.isCarryingGhost ? buster.ghostId : -1;
+        busterKnown[id] = true;
+        if (buster.isCarryingGhost) {
+            ghostX[buster.ghostId] = buster.x;
+            ghostY[buster.ghostId] = buster.y;
+            stamina[buster.ghostId] = 0;
+            bustCnt[buster.ghostId] = 0;
+            ghostState[buster.ghostId] = GHOST_CARRIED;
+        }
+    }
+
+    public void setGhost(Ghost ghost) {
+        setGhost(ghost.id, ghost.x, ghost.y, ghost.stamina);
+        bustCnt[ghost.id] = ghost.bustCnt;
+    }
+
+    public void setGhost(int id, int x, int y, int stamina) {
+        ghostX[id] = x;
+        ghostY[id] = y;
+        this.stamina[id] = stamina;
+        bustCnt[id] = 0;
+        ghostState[id] = GHOST_FREE;
+    }
+
+    public Buster getBuster(int id) {
+        return new Buster(id, busterX[id], busterY[id], isCarryingGhost(id), stunDuration[id], stunCooldown[id], carriedGhost[id], round);
+    }
+
+    /**
+     * Known busters of given team, ordered by id.
+     */
+    public List<Buster> getBusters(int team) {
+        List<Buster> r = new ArrayList<>();
+        for (int id = team * bustersPerPlayer; id < (team + 1) * bustersPerPlayer; id++) {
+            if (busterKnown[id]) {
+                r.add(getBuster(id));
+            }
+        }
+        return r;
+    }
+
+    public Ghost getGhost(int id) {
+        return new Ghost(id, ghostX[id], ghostY[id], stamina[id], bustCnt[id]);
+    }
+
+    /**
+     * Ghosts that are neither carried, released nor unknown, ordered by id.
+     */
+    public List<Ghost> getFreeGhosts() {
+        List<Ghost> r = new ArrayList<>();
+        for (int id = 0; id < ghostCnt; id++) {
+            if (ghostState[id] == GHOST_FREE) {
+                r.add(getGhost(id));
+            }
+        }
+        return r;
+    }
+
+    public int busterCnt() {
+        return bustersPerPlayer * 2;
+    }
+
+    public int getTeam(int busterId) {
+        return busterId / bustersPerPlayer;
+    }
+
+    public boolean isCarryingGhost(int busterId) {
+        return carriedGhost[busterId] != -1;
+    }
+
+    public int getScore(int team) {
+        return score[team];
+    }
+
+    public int getRound() {
+        return round;
+    }
+
+    public int getRemainingGhostCnt() {
+        int r = 0;
+        for (int i = 0; i < ghostCnt; i++) {
+            if (ghostState[i] != GHOST_RELEASED) {
+                r++;
+            }
+        }
+        return r;
+    }
+}
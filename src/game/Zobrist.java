@@ -0,0 +1,88 @@
+package game;
+
+/**
+ * Zobrist-style hash of a {@link WorldState}: xor of one key per buster, per ghost and for the score. A key is the
+ * splitmix64 finalizer of the entity's packed fields rather than a random table entry, since coordinates have too many
+ * values for tables. When one entity changes, the hash is updated by xoring out its old key and xoring in the new one,
+ * {@link GameSimulator#step(WorldState, Move[], long)} does so for what a turn touches. The round isn't hashed, states
+ * reached by different move orders in one search are in the same round anyway.
+ */
+public class Zobrist {
+    private static final long BUSTER_TAG = 1L << 62;
+    private static final long GHOST_TAG = 2L << 62;
+    private static final long SCORE_TAG = 3L << 62;
+
+    public static long hash(WorldState s) {
+        long h = scoreKey(s);
+        for (int i = 0; i < s.busterCnt(); i++) {
+            h ^= busterKey(s, i);
+        }
+        for (int g = 0; g < s.ghostCnt; g++) {
+            h ^= ghostKey(s, g);
+        }
+        return h;
+    }
+
+    /**
+     * Key of the buster in the state, 0 if it is unknown.
+     */
+    static long busterKey(WorldState s, int i) {
+        if (!s.busterKnown[i]) {
+            return 0;
+        }
+        return busterKey(i, s.busterX[i], s.busterY[i], s.stunDuration[i], s.stunCooldown[i], s.carriedGhost[i]);
+    }
+
+    /**
+     * Key of the ghost in the state, 0 if it is unknown.
+     */
+    static long ghostKey(WorldState s, int g) {
+        if (s.ghostState[g] == WorldState.GHOST_UNKNOWN) {
+            return 0;
+        }
+        return ghostKey(g, s.ghostX[g], s.ghostY[g], s.stamina[g], s.bustCnt[g], s.ghostState[g]);
+    }
+
+    static long scoreKey(WorldState s) {
+        return scoreKey(s.score[0], s.score[1]);
+    }
+
+    /**
+     * Fields are packed without overlap for ids below 256 and coordinates below 32768, so different states of one
+     * buster never share a key.
+     */
+    public static long busterKey(int id, int x, int y, int stunDuration, int stunCooldown, int carriedGhost) {
+        long packed = BUSTER_TAG
+                | (long) (id & 0xFF) << 52
+                | (long) (x & 0x7FFF) << 37
+                | (long) (y & 0x7FFF) << 22
+                | (long) (stunDuration & 0x1F) << 17
+                | (long) (stunCooldown & 0x1F) << 12
+                | (long) ((carriedGhost + 1) & 0xFFF);
+        return mix(packed);
+    }
+
+    public static long ghostKey(int id, int x, int y, int stamina, int bustCnt, int state) {
+        long packed = GHOST_TAG
+                | (long) (id & 0xFF) << 52
+                | (long) (x & 0x7FFF) << 37
+                | (long) (y & 0x7FFF) << 22
+                | (long) (stamina & 0x3F) << 16
+                | (long) (bustCnt & 0x3F) << 10
+                | (long) (state & 0x3);
+        return mix(packed);
+    }
+
+    public static long scoreKey(int myScore, int enemyScore) {
+        return mix(SCORE_TAG | (long) (myScore & 0xFF) << 8 | (enemyScore & 0xFF));
+    }
+
+    /**
+     * splitmix64 finalizer, a bijection, so different packed fields give different keys.
+     */
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -85,15 +85,39 @@ public class AbstractBestMoveFinderTest {
         testBuilder.ghosts.add(new Ghost(id, x, y, stamina, bustCnt));
     }
 
+    protected void myBase(int x, int y) {
+        testBuilder.myBase = new Point(x, y);
+    }
+
     protected void alreadyBusted(int ghostId) {
         testBuilder.alreadyBusted.add(ghostId);
     }
 
-    protected void checkMove(Move expected) {
-        Buster buster = testBuilder.allies.get(0).build();
-        final List<CheckPoint> checkPoints = Collections.singletonList(
+    protected List<CheckPoint> createCheckPoints() {
+        return Collections.singletonList(
                 new CheckPoint(new Point(testGameParameters.H / 2, testGameParameters.W / 2), CheckPoint.NEVER)
         );
+    }
+
+    protected TurnContext createTurnContext(List<Buster> allies, List<Buster> enemies, List<Ghost> ghosts) {
+        return createTurnContext(allies, enemies, ghosts, createCheckPoints());
+    }
+
+    protected TurnContext createTurnContext(List<Buster> allies, List<Buster> enemies, List<Ghost> ghosts, List<CheckPoint> checkPoints) {
+        return bestMoveFinder.createTurnContext(
+                testBuilder.myBase,
+                allies,
+                enemies,
+                ghosts,
+                checkPoints,
+                testBuilder.halfGhostsCollected,
+                testBuilder.prevMoveBustCnt,
+                testBuilder.iVeSeenItAll);
+    }
+
+    protected void checkMove(Move expected) {
+        Buster buster = testBuilder.allies.get(0).build();
+        final List<CheckPoint> checkPoints = createCheckPoints();
         Move actual = bestMoveFinder.findBestMove(
                 buster,
                 testBuilder.myBase,
@@ -0,0 +1,81 @@
+package game;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static game.Move.*;
+import static java.util.Arrays.asList;
+import static org.testng.Assert.*;
+
+@Test
+public class BattleRolloutsTest extends AbstractBestMoveFinderTest {
+    BattleRollouts battleRollouts;
+
+    @BeforeMethod
+    @Override
+    void init() {
+        super.init();
+        iVeSeenItAll();
+        testGameParameters.BATTLE_ROLLOUTS = 300;
+        battleRollouts = new BattleRollouts(testGameParameters);
+    }
+
+    @Test
+    void bustsWhileEnemyIsStunned() {
+        Buster ally = new BusterBuilder(23, 22, 0).stunCooldown(20).build();
+        Buster enemy = new BusterBuilder(27, 22, 1).stunDuration(1).stunCooldown(20).build();
+        TurnContext context = createTurnContext(asList(ally), asList(enemy), asList(new GhostBuilder(0, 25, 25).build()));
+        assertEquals(battleRollouts.findBattleMove(ally, move(23, 22), context.ghosts, context), bust(0));
+        assertEquals(battleRollouts.getRolloutCnt(), 300);
+    }
+
+    @Test
+    void keepsEvaluatorMoveWithoutClearGain() {
+        Buster ally = new BusterBuilder(23, 22, 0).stunCooldown(20).build();
+        Buster enemy = new BusterBuilder(27, 22, 1).stunCooldown(20).build();
+        TurnContext context = createTurnContext(asList(ally), asList(enemy), asList(new GhostBuilder(0, 25, 25).stamina(15).build()));
+        assertEquals(battleRollouts.findBattleMove(ally, bust(0), context.ghosts, context), bust(0));
+    }
+
+    @Test
+    void sameDecisionEveryTime() {
+        Buster ally = new BusterBuilder(23, 22, 0).build();
+        Buster enemy = new BusterBuilder(27, 22, 1).build();
+        TurnContext context = createTurnContext(asList(ally), asList(enemy), asList(new GhostBuilder(0, 25, 25).stamina(3).build()));
+        Move move = battleRollouts.findBattleMove(ally, move(23, 22), context.ghosts, context);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(battleRollouts.findBattleMove(ally, move(23, 22), context.ghosts, context), move);
+        }
+    }
+
+    @Test
+    void releasedGhostCountsAsCaptured() {
+        testGameParameters.BATTLE_ROLLOUT_DEPTH = 7;
+        Buster ally = new BusterBuilder(10, 5, 0).stunCooldown(20).build();
+        Buster enemy = new BusterBuilder(16, 14, 1).stunCooldown(20).build();
+        TurnContext context = createTurnContext(asList(ally), asList(enemy), asList(new GhostBuilder(0, 13, 8).build()));
+        // busting now gets the ghost released at base before the end, waiting lets the enemy race for it
+        assertEquals(battleRollouts.findBattleMove(ally, move(11, 6), context.ghosts, context), bust(0));
+    }
+
+    @Test
+    void secondTeamReleasesAtItsBase() {
+        testGameParameters.BATTLE_ROLLOUT_DEPTH = 7;
+        myBase(50, 50);
+        Buster ally = new BusterBuilder(40, 45, 1).stunCooldown(20).build();
+        Buster enemy = new BusterBuilder(34, 36, 0).stunCooldown(20).build();
+        TurnContext context = createTurnContext(asList(ally), asList(enemy), asList(new GhostBuilder(0, 37, 42).build()));
+        assertEquals(battleRollouts.findBattleMove(ally, move(39, 44), context.ghosts, context), bust(0));
+    }
+
+    @Test
+    void fastRandomIsSeeded() {
+        FastRandom a = new FastRandom(7);
+        FastRandom b = new FastRandom(7);
+        for (int i = 0; i < 1000; i++) {
+            int x = a.nextInt(10);
+            assertEquals(b.nextInt(10), x);
+            assertTrue(x >= 0 && x < 10);
+        }
+    }
+}
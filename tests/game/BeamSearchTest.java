@@ -0,0 +1,55 @@
+package game;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+
+import static game.Move.*;
+import static java.util.Arrays.asList;
+import static org.testng.Assert.*;
+
+@Test
+public class BeamSearchTest extends AbstractBestMoveFinderTest {
+    BeamSearch beamSearch;
+
+    @BeforeMethod
+    @Override
+    void init() {
+        super.init();
+        iVeSeenItAll();
+        testGameParameters.BEAM_SEARCH_TIME_MS = 10_000;
+        beamSearch = new BeamSearch(testGameParameters, bestMoveFinder);
+    }
+
+    @Test
+    void depthOneIsGreedy() {
+        testGameParameters.BEAM_DEPTH = 1;
+        Buster buster = new BusterBuilder(20, 20, 0).build();
+        TurnContext context = createTurnContext(asList(buster), Collections.emptyList(), asList(new GhostBuilder(0, 30, 30).build()));
+        assertEquals(beamSearch.findBestMove(buster, context, 1, 1, 10), bestMoveFinder.findBestMove(buster, context));
+        assertEquals(beamSearch.getFinishedPlyCnt(), 1);
+    }
+
+    @Test
+    void deeperSearchChangesMove() {
+        testGameParameters.BEAM_DEPTH = 3;
+        Buster buster = new BusterBuilder(30, 14, 0).build();
+        TurnContext context = createTurnContext(
+                asList(buster),
+                Collections.emptyList(),
+                asList(new GhostBuilder(0, 23, 4).stamina(2).build(), new GhostBuilder(1, 23, 18).stamina(4).build())
+        );
+        // greedy goes to the closer ghost, three plies pick the weaker one nearer to base, it is home two turns sooner
+        assertEquals(bestMoveFinder.findBestMove(buster, context), move(23, 18));
+        assertEquals(beamSearch.findBestMove(buster, context, 1, 2, 10), move(23, 4));
+        assertEquals(beamSearch.getFinishedPlyCnt(), 3);
+    }
+
+    @Test
+    void forcedMoveSkipsSearch() {
+        Buster buster = new BusterBuilder(2, 2, 0).carryingGhost(0).build();
+        TurnContext context = createTurnContext(asList(buster), Collections.emptyList(), Collections.emptyList());
+        assertEquals(beamSearch.findBestMove(buster, context, 1, 1, 10), release());
+    }
+}
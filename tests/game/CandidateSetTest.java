@@ -0,0 +1,136 @@
+package game;
+
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static game.Move.*;
+import static org.testng.Assert.*;
+
+@Test
+public class CandidateSetTest {
+    private final GameParameters gameParameters = AbstractBestMoveFinderTest.createTestGameParameters();
+
+    @Test
+    void keepsFirstMoveToEachPosition() {
+        CandidateSet set = new CandidateSet(new BusterBuilder(10, 10, 0).build(), gameParameters);
+        set.add(move(10, 20));
+        set.add(bust(3));
+        set.add(move(10, 30)); // also ends at (10, 12)
+        set.add(move(10, 11));
+        set.add(bust(4));
+        set.add(bust(3));
+        assertEquals(Arrays.asList(set.toArray()), Arrays.asList(move(10, 20), bust(3), move(10, 11), bust(4)));
+        assertEquals(set.getMergedCnt(), 1);
+    }
+
+    @Test
+    void repeatedMovesAreNotCountedAsMerged() {
+        CandidateSet set = new CandidateSet(new BusterBuilder(10, 10, 0).build(), gameParameters);
+        set.add(move(10, 20));
+        set.add(move(10, 30));
+        set.add(move(10, 30));
+        set.add(move(10, 20));
+        assertEquals(set.size(), 1);
+        assertEquals(set.getMergedCnt(), 1);
+    }
+
+    @Test
+    void targetsOutsideMapAreClamped() {
+        CandidateSet set = new CandidateSet(new BusterBuilder(0, 0, 0).build(), gameParameters);
+        set.add(move(0, 0));
+        set.add(move(-5, -5));
+        set.add(move(-100, 0));
+        assertEquals(set.size(), 1);
+        assertEquals(set.getMergedCnt(), 2);
+    }
+
+    @Test
+    void containsMovesToSamePosition() {
+        CandidateSet set = new CandidateSet(new BusterBuilder(10, 10, 0).build(), gameParameters);
+        set.add(move(10, 20));
+        set.add(stun(7));
+        assertTrue(set.contains(move(10, 40)));
+        assertTrue(set.contains(stun(7)));
+        assertFalse(set.contains(move(10, 8)));
+        assertFalse(set.contains(stun(6)));
+        assertFalse(set.contains(bust(7)));
+    }
+
+    @Test
+    void sameAsSetOfSimplifiedMoves() {
+        Random random = new Random(5);
+        for (int test = 0; test < 300; test++) {
+            Buster buster = new BusterBuilder(random.nextInt(gameParameters.H), random.nextInt(gameParameters.W), 0).build();
+            CandidateSet set = new CandidateSet(buster, gameParameters);
+            Set<Move> simplified = new LinkedHashSet<>();
+            Set<Move> raw = new LinkedHashSet<>();
+            List<Move> expected = new ArrayList<>();
+            for (int i = 0, cnt = random.nextInt(300); i < cnt; i++) {
+                Move move = randomMove(random);
+                set.add(move);
+                if (raw.add(move) && simplified.add(Utils.simplify(buster, move, gameParameters))) {
+                    expected.add(move);
+                }
+            }
+            assertEquals(Arrays.asList(set.toArray()), expected);
+            assertEquals(set.getMergedCnt(), raw.size() - simplified.size());
+        }
+    }
+
+    @Test
+    void candidatesLeadToDistinctPositions() {
+        BestMoveFinder bestMoveFinder = new BestMoveFinder(gameParameters);
+        Random random = new Random(11);
+        int mergedCnt = 0;
+        for (int scene = 0; scene < 200; scene++) {
+            List<Buster> allies = new ArrayList<>();
+            List<Buster> enemies = new ArrayList<>();
+            int n = 1 + random.nextInt(3);
+            for (int i = 0; i < 2 * n; i++) {
+                (i < n ? allies : enemies).add(new BusterBuilder(random.nextInt(gameParameters.H), random.nextInt(gameParameters.W), i).build());
+            }
+            List<Ghost> ghosts = new ArrayList<>();
+            for (int i = 0, cnt = random.nextInt(4); i < cnt; i++) {
+                ghosts.add(new GhostBuilder(i, random.nextInt(gameParameters.H), random.nextInt(gameParameters.W)).stamina(random.nextInt(20)).build());
+            }
+            TurnContext context = bestMoveFinder.createTurnContext(
+                    new Point(0, 0),
+                    allies,
+                    enemies,
+                    ghosts,
+                    Collections.singletonList(new CheckPoint(new Point(gameParameters.H / 2, gameParameters.W / 2), CheckPoint.NEVER)),
+                    false,
+                    new int[100],
+                    true
+            );
+            for (Buster buster : allies) {
+                Set<Move> simplified = new LinkedHashSet<>();
+                for (BestMoveFinder.ScoredMove scoredMove : bestMoveFinder.getBestSmartMoves(buster, context, Integer.MAX_VALUE)) {
+                    assertTrue(simplified.add(Utils.simplify(buster, scoredMove.move, gameParameters)), scoredMove.move.toString());
+                }
+            }
+            mergedCnt += context.mergedCandidateCnt;
+        }
+        assertTrue(mergedCnt > 0);
+    }
+
+    private Move randomMove(Random random) {
+        switch (random.nextInt(6)) {
+            case 0:
+                return bust(random.nextInt(5));
+            case 1:
+                return stun(random.nextInt(5));
+            case 2:
+                return release();
+            default:
+                return move(random.nextInt(gameParameters.H + 20) - 10, random.nextInt(gameParameters.W + 20) - 10);
+        }
+    }
+}
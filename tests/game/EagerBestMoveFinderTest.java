@@ -0,0 +1,18 @@
+package game;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * All {@link BestMoveFinderTest} cases again with every criterion of every candidate evaluated.
+ */
+@Test
+public class EagerBestMoveFinderTest extends BestMoveFinderTest {
+
+    @BeforeMethod
+    @Override
+    void init() {
+        super.init();
+        testGameParameters.LAZY_EVALUATION = false;
+    }
+}
@@ -0,0 +1,162 @@
+package game;
+
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.testng.Assert.*;
+
+@Test
+public class EvaluationKeyTest {
+    @Test
+    void ordersLikeBetterOnRandomStates() {
+        Random random = new Random(42);
+        for (int test = 0; test < 200; test++) {
+            boolean iHaveStun = random.nextBoolean();
+            boolean weSeeSomeGhost = random.nextBoolean();
+            boolean someOfUsCanCatch = random.nextBoolean();
+            boolean smallStunCooldown = random.nextBoolean();
+            EvaluationState[] states = new EvaluationState[30];
+            for (int i = 0; i < states.length; i++) {
+                states[i] = new EvaluationState(
+                        random.nextBoolean(),
+                        iHaveStun,
+                        random.nextBoolean(),
+                        dist(random),
+                        dist(random),
+                        random.nextBoolean(),
+                        movesAndDist(random),
+                        weSeeSomeGhost,
+                        movesAndDist(random),
+                        penalizedDist(random),
+                        someOfUsCanCatch,
+                        penalizedDist(random),
+                        smallStunCooldown,
+                        random.nextInt(4) == 0 ? Double.POSITIVE_INFINITY : dist(random)
+                );
+            }
+            EvaluationKey[] keys = EvaluationKey.encode(states);
+            for (int i = 0; i < states.length; i++) {
+                for (int j = 0; j < states.length; j++) {
+                    assertEquals(keys[i].compareTo(keys[j]) > 0, states[i].better(states[j]), states[i] + " vs " + states[j]);
+                }
+            }
+        }
+    }
+
+    @Test
+    void fractionsOfUnitDecide() {
+        EvaluationState[] states = {
+                stateWithDistToCheckPoint(12392.165145768515),
+                stateWithDistToCheckPoint(12391.91494483399),
+                stateWithDistToCheckPoint(12392.165145768515)
+        };
+        EvaluationKey[] keys = EvaluationKey.encode(states);
+        assertTrue(keys[1].compareTo(keys[0]) > 0);
+        assertEquals(keys[0], keys[2]);
+    }
+
+    @Test
+    void zeroAndNegativeZeroAreEqual() {
+        EvaluationKey[] keys = EvaluationKey.encode(new EvaluationState[]{stateWithDistToCheckPoint(0.0), stateWithDistToCheckPoint(-0.0)});
+        assertEquals(keys[0], keys[1]);
+    }
+
+    @Test
+    void sortKeepsOrderOfEquallyGoodStates() {
+        EvaluationState[] states = {
+                stateWithDistToCheckPoint(5),
+                stateWithDistToCheckPoint(3),
+                stateWithDistToCheckPoint(5),
+                stateWithDistToCheckPoint(3)
+        };
+        assertEquals(Arrays.asList(EvaluationKey.sortBestFirst(states)), Arrays.asList(1, 3, 0, 2));
+    }
+
+    @Test
+    void agreesWithBetterOnCandidateMovesOfTestMap() {
+        GameParameters gameParameters = AbstractBestMoveFinderTest.createTestGameParameters();
+        assertEquals(countDisagreementsInRandomScenes(gameParameters, 300), 0);
+    }
+
+    @Test
+    void agreesWithBetterOnCandidateMovesOfRealMap() {
+        GameParameters gameParameters = new GameParameters();
+        assertEquals(countDisagreementsInRandomScenes(gameParameters, 300), 0);
+    }
+
+    private static int countDisagreementsInRandomScenes(GameParameters gameParameters, int sceneCnt) {
+        BestMoveFinder bestMoveFinder = new BestMoveFinder(gameParameters);
+        Random random = new Random(7);
+        int r = 0;
+        for (int scene = 0; scene < sceneCnt; scene++) {
+            List<Buster> allies = new ArrayList<>();
+            List<Buster> enemies = new ArrayList<>();
+            int n = 1 + random.nextInt(3);
+            for (int i = 0; i < 2 * n; i++) {
+                BusterBuilder builder = new BusterBuilder(random.nextInt(gameParameters.H), random.nextInt(gameParameters.W), i)
+                        .stunCooldown(random.nextBoolean() ? 0 : random.nextInt(gameParameters.STUN_COOLDOWN));
+                if (random.nextInt(3) == 0) {
+                    builder.carryingGhost(100 + i);
+                }
+                (i < n ? allies : enemies).add(builder.build());
+            }
+            List<Ghost> ghosts = new ArrayList<>();
+            for (int i = 0, cnt = random.nextInt(4); i < cnt; i++) {
+                ghosts.add(new GhostBuilder(i, random.nextInt(gameParameters.H), random.nextInt(gameParameters.W)).stamina(random.nextInt(20)).build());
+            }
+            TurnContext context = bestMoveFinder.createTurnContext(
+                    new Point(0, 0),
+                    allies,
+                    enemies,
+                    ghosts,
+                    Collections.singletonList(new CheckPoint(new Point(gameParameters.H / 2, gameParameters.W / 2), CheckPoint.NEVER)),
+                    false,
+                    new int[100],
+                    true
+            );
+            for (Buster buster : allies) {
+                List<BestMoveFinder.ScoredMove> scoredMoves = bestMoveFinder.getBestSmartMoves(buster, context, Integer.MAX_VALUE);
+                EvaluationState[] states = new EvaluationState[scoredMoves.size()];
+                for (int i = 0; i < states.length; i++) {
+                    states[i] = scoredMoves.get(i).evaluation;
+                }
+                r += EvaluationKey.countDisagreements(states);
+            }
+        }
+        return r;
+    }
+
+    private static EvaluationState stateWithDistToCheckPoint(double distToCheckPoint) {
+        return new EvaluationState(
+                false, true, false, distToCheckPoint, 100, false, Evaluator.MovesAndDist.INFINITY, false,
+                Evaluator.MovesAndDist.INFINITY, Double.POSITIVE_INFINITY, false, Double.POSITIVE_INFINITY, false, Double.POSITIVE_INFINITY
+        );
+    }
+
+    /**
+     * Few distinct values, so that ties are common.
+     */
+    private static double dist(Random random) {
+        return random.nextInt(5) * 0.25;
+    }
+
+    private static double penalizedDist(Random random) {
+        int kind = random.nextInt(5);
+        if (kind == 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return (kind == 1 ? 100500 : 0) + dist(random);
+    }
+
+    private static Evaluator.MovesAndDist movesAndDist(Random random) {
+        if (random.nextInt(5) == 0) {
+            return Evaluator.MovesAndDist.INFINITY;
+        }
+        return new Evaluator.MovesAndDist(random.nextInt(3), dist(random));
+    }
+}
@@ -0,0 +1,104 @@
+package game;
+
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static game.Utils.*;
+import static org.testng.Assert.*;
+
+@Test
+public class FogCoverageTest {
+    @Test
+    void seenMatchesDistanceAwayFromBorder() {
+        GameParameters gameParameters = new GameParameters();
+        int tolerance = 2 * gameParameters.FOG_RANGE / 20;
+        Random random = new Random(5);
+        FogCoverage fogCoverage = new FogCoverage(gameParameters);
+        List<Point> stamped = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            Point p = new Point(random.nextInt(gameParameters.H), random.nextInt(gameParameters.W));
+            stamped.add(p);
+            fogCoverage.stamp(p.x, p.y);
+        }
+        for (int it = 0; it < 100000; it++) {
+            int x = random.nextInt(gameParameters.H);
+            int y = random.nextInt(gameParameters.W);
+            double minDist = Double.POSITIVE_INFINITY;
+            for (Point p : stamped) {
+                minDist = Math.min(minDist, dist(p.x, p.y, x, y));
+            }
+            if (minDist <= gameParameters.FOG_RANGE - tolerance) {
+                assertTrue(fogCoverage.isSeen(x, y));
+            } else if (minDist > gameParameters.FOG_RANGE + tolerance) {
+                assertFalse(fogCoverage.isSeen(x, y));
+            }
+        }
+    }
+
+    @Test
+    void coveredFraction() {
+        GameParameters gameParameters = AbstractBestMoveFinderTest.createTestGameParameters();
+        FogCoverage fogCoverage = new FogCoverage(gameParameters);
+        long[] topRows = fogCoverage.createMask((x, y) -> x < 10);
+        long[] all = fogCoverage.createMask((x, y) -> true);
+        assertEquals(fogCoverage.getCoveredFraction(topRows), 0.0);
+        for (int y = 0; y < gameParameters.W; y += gameParameters.FOG_RANGE) {
+            fogCoverage.stamp(3, y);
+        }
+        assertEquals(fogCoverage.getCoveredFraction(topRows), 1.0);
+        assertTrue(fogCoverage.isCovered(topRows));
+        assertFalse(fogCoverage.isCovered(all));
+        double fraction = fogCoverage.getCoveredFraction(all);
+        assertTrue(fraction > 0.1 && fraction < 0.3, "" + fraction);
+        assertEquals(fogCoverage.getCoveredFraction(fogCoverage.createMask((x, y) -> false)), 1.0);
+    }
+
+    @Test
+    void pointMaskAgreesWithDistanceToPoints() {
+        GameParameters gameParameters = new GameParameters();
+        int tolerance = 2 * gameParameters.FOG_RANGE / 20;
+        Random random = new Random(11);
+        List<Point> points = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            for (int j = 0; j < 6; j++) {
+                points.add(new Point(i * (gameParameters.H - 1) / 3, j * (gameParameters.W - 1) / 5));
+            }
+        }
+        int coveredCnt = 0;
+        int notCoveredCnt = 0;
+        for (int game = 0; game < 20; game++) {
+            FogCoverage fogCoverage = new FogCoverage(gameParameters);
+            long[] mask = fogCoverage.createMask(points);
+            double[] minDist = new double[points.size()];
+            Arrays.fill(minDist, Double.POSITIVE_INFINITY);
+            for (int turn = 0; turn < 300; turn++) {
+                // around a random point, often near enough to see it
+                Point near = points.get(random.nextInt(points.size()));
+                int x = Math.min(Math.max(near.x + random.nextInt(6001) - 3000, 0), gameParameters.H - 1);
+                int y = Math.min(Math.max(near.y + random.nextInt(6001) - 3000, 0), gameParameters.W - 1);
+                Point p = new Point(x, y);
+                fogCoverage.stamp(p.x, p.y);
+                boolean allSeen = true;
+                for (int i = 0; i < points.size(); i++) {
+                    Point point = points.get(i);
+                    minDist[i] = Math.min(minDist[i], dist(p.x, p.y, point.x, point.y));
+                    if (Math.abs(minDist[i] - gameParameters.FOG_RANGE) > tolerance) {
+                        assertEquals(fogCoverage.isSeen(point.x, point.y), minDist[i] <= gameParameters.FOG_RANGE);
+                    }
+                    allSeen &= fogCoverage.isSeen(point.x, point.y);
+                }
+                assertEquals(fogCoverage.isCovered(mask), allSeen);
+                if (allSeen) {
+                    coveredCnt++;
+                } else {
+                    notCoveredCnt++;
+                }
+            }
+        }
+        assertTrue(coveredCnt > 0 && notCoveredCnt > 0);
+    }
+}
@@ -0,0 +1,251 @@
+package game;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static game.Move.*;
+import static org.testng.Assert.*;
+
+@Test
+public class GameSimulatorTest {
+    GameSimulator simulator;
+    GameParameters testGameParameters;
+
+    @BeforeMethod
+    void init() {
+        testGameParameters = AbstractBestMoveFinderTest.createTestGameParameters();
+        simulator = new GameSimulator(testGameParameters);
+    }
+
+    @Test
+    void testMove() {
+        WorldState s = state(1, 0);
+        s.setBuster(0, 10, 10);
+        s.setBuster(1, 40, 40);
+        simulator.step(s, moves(move(10, 20), move(40, 40)));
+        assertEquals(s.busterX[0], 10);
+        assertEquals(s.busterY[0], 12);
+        assertEquals(s.round, 1);
+    }
+
+    @Test
+    void testMoveIsClampedToMap() {
+        WorldState s = state(1, 0);
+        s.setBuster(0, 1, 1);
+        s.setBuster(1, 49, 49);
+        simulator.step(s, moves(move(-10, 1), move(60, 49)));
+        assertEquals(s.busterX[0], 0);
+        assertEquals(s.busterY[0], 1);
+        assertEquals(s.busterX[1], 50);
+        assertEquals(s.busterY[1], 49);
+    }
+
+    @Test
+    void moveMatchesUtils() {
+        Random random = new Random(1);
+        WorldState s = state(1, 0);
+        for (int it = 0; it < 1000; it++) {
+            int x = random.nextInt(51);
+            int y = random.nextInt(51);
+            int toX = random.nextInt(71) - 10;
+            int toY = random.nextInt(71) - 10;
+            s.setBuster(0, x, y);
+            simulator.step(s, moves(move(toX, toY), null));
+            Point expected = Utils.getNewPosition(x, y, toX, toY, testGameParameters.MOVE_RANGE, testGameParameters);
+            assertEquals(new Point(s.busterX[0], s.busterY[0]), expected);
+        }
+    }
+
+    @Test
+    void testBust() {
+        WorldState s = state(1, 1);
+        s.setBuster(0, 0, 10);
+        s.setBuster(1, 50, 50);
+        s.setGhost(0, 0, 14, 3);
+        simulator.step(s, moves(bust(0), move(50, 50)));
+        assertEquals(s.stamina[0], 2);
+        assertEquals(s.bustCnt[0], 1);
+        assertEquals(s.ghostY[0], 14);
+        assertFalse(s.isCarryingGhost(0));
+    }
+
+    @Test
+    void testCatch() {
+        WorldState s = state(1, 1);
+        s.setBuster(0, 0, 10);
+        s.setBuster(1, 50, 50);
+        s.setGhost(0, 0, 14, 0);
+        simulator.step(s, moves(bust(0), move(50, 50)));
+        assertEquals(s.carriedGhost[0], 0);
+        assertEquals(s.ghostState[0], WorldState.GHOST_CARRIED);
+    }
+
+    @Test
+    void bustOutOfRangeDoesNothing() {
+        WorldState s = state(1, 1);
+        s.setBuster(0, 0, 10);
+        s.setBuster(1, 50, 50);
+        s.setGhost(0, 0, 11, 0);
+        simulator.step(s, moves(bust(0), move(50, 50)));
+        assertFalse(s.isCarryingGhost(0));
+        assertEquals(s.bustCnt[0], 0);
+    }
+
+    @Test
+    void tieMeansNobodyCatches() {
+        WorldState s = state(1, 1);
+        s.setBuster(0, 0, 10);
+        s.setBuster(1, 0, 18);
+        s.setGhost(0, 0, 14, 0);
+        simulator.step(s, moves(bust(0), bust(0)));
+        assertFalse(s.isCarryingGhost(0));
+        assertFalse(s.isCarryingGhost(1));
+        assertEquals(s.bustCnt[0], 2);
+        assertEquals(s.ghostY[0], 14);
+    }
+
+    @Test
+    void majorityCatches() {
+        WorldState s = state(2, 1);
+        s.setBuster(0, 0, 10);
+        s.setBuster(1, 0, 18);
+        s.setBuster(2, 4, 14);
+        s.setBuster(3, 50, 50);
+        s.setGhost(0, 0, 14, 0);
+        simulator.step(s, moves(bust(0), bust(0), bust(0), move(50, 50)));
+        assertEquals(s.carriedGhost[0], 0);
+        assertFalse(s.isCarryingGhost(1));
+        assertFalse(s.isCarryingGhost(2));
+    }
+
+    @Test
+    void stunDropsGhost() {
+        WorldState s = state(1, 1);
+        s.setBuster(0, 0, 10);
+        s.setBuster(1, 0, 11);
+        s.carriedGhost[1] = 0;
+        s.ghostState[0] = WorldState.GHOST_CARRIED;
+        simulator.step(s, moves(stun(1), move(0, 0)));
+        assertEquals(s.busterY[1], 11);
+        assertFalse(s.isCarryingGhost(1));
+        assertEquals(s.stunDuration[1], testGameParameters.STUN_DURATION);
+        assertEquals(s.stunCooldown[0], testGameParameters.STUN_COOLDOWN - 1);
+        assertEquals(s.ghostState[0], WorldState.GHOST_FREE);
+        Ghost expected = new PhantomUpdater(testGameParameters).dropGhostFromStunnedEnemy(
+                new BusterBuilder(0, 10, 0).build(),
+                new BusterBuilder(0, 11, 1).carryingGhost(0).build()
+        );
+        assertEquals(new Point(s.ghostX[0], s.ghostY[0]), new Point(expected.x, expected.y));
+    }
+
+    @Test
+    void mutualStun() {
+        WorldState s = state(1, 0);
+        s.setBuster(0, 0, 10);
+        s.setBuster(1, 0, 12);
+        simulator.step(s, moves(stun(1), stun(0)));
+        assertEquals(s.stunDuration[0], testGameParameters.STUN_DURATION);
+        assertEquals(s.stunDuration[1], testGameParameters.STUN_DURATION);
+    }
+
+    @Test
+    void stunIsIgnoredOnCooldown() {
+        WorldState s = state(1, 0);
+        s.setBuster(0, 0, 10);
+        s.setBuster(1, 0, 12);
+        s.stunCooldown[0] = 3;
+        simulator.step(s, moves(stun(1), move(0, 12)));
+        assertEquals(s.stunDuration[1], 0);
+        assertEquals(s.stunCooldown[0], 2);
+    }
+
+    @Test
+    void stunnedBusterWakesUp() {
+        WorldState s = state(1, 0);
+        s.setBuster(0, 0, 10);
+        s.setBuster(1, 40, 40);
+        s.stunDuration[0] = 1;
+        simulator.step(s, moves(move(0, 20), move(40, 40)));
+        assertEquals(s.busterY[0], 10);
+        assertEquals(s.stunDuration[0], 0);
+        simulator.step(s, moves(move(0, 20), move(40, 40)));
+        assertEquals(s.busterY[0], 12);
+    }
+
+    @Test
+    void testRelease() {
+        WorldState s = state(1, 2);
+        s.setBuster(0, 0, 4);
+        s.setBuster(1, 0, 20);
+        s.carriedGhost[0] = 0;
+        s.ghostState[0] = WorldState.GHOST_CARRIED;
+        s.carriedGhost[1] = 1;
+        s.ghostState[1] = WorldState.GHOST_CARRIED;
+        simulator.step(s, moves(release(), release()));
+        assertEquals(s.getScore(0), 1);
+        assertEquals(s.getScore(1), 0);
+        assertEquals(s.ghostState[0], WorldState.GHOST_RELEASED);
+        assertEquals(s.ghostState[1], WorldState.GHOST_FREE);
+        assertEquals(new Point(s.ghostX[1], s.ghostY[1]), new Point(0, 20));
+        assertEquals(s.getRemainingGhostCnt(), 1);
+    }
+
+    @Test
+    void ghostFleeMatchesPhantomUpdater() {
+        PhantomUpdater phantomUpdater = new PhantomUpdater(testGameParameters);
+        Random random = new Random(2);
+        for (int it = 0; it < 1000; it++) {
+            WorldState s = state(2, 1);
+            List<Buster> allBusters = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                int x = random.nextInt(51);
+                int y = random.nextInt(51);
+                s.setBuster(i, x, y);
+                allBusters.add(new BusterBuilder(x, y, i).build());
+            }
+            Ghost ghost = new Ghost(0, random.nextInt(51), random.nextInt(51), 10, 0);
+            s.setGhost(0, ghost.x, ghost.y, ghost.stamina);
+            simulator.step(s, moves(null, null, null, null));
+            Ghost expected = phantomUpdater.moveGhost(ghost, allBusters);
+            assertEquals(new Point(s.ghostX[0], s.ghostY[0]), new Point(expected.x, expected.y));
+        }
+    }
+
+    @Test
+    void bustedGhostDoesntMove() {
+        WorldState s = state(1, 1);
+        s.setBuster(0, 10, 10);
+        s.setBuster(1, 40, 40);
+        s.setGhost(0, 10, 14, 5);
+        simulator.step(s, moves(bust(0), move(40, 40)));
+        assertEquals(new Point(s.ghostX[0], s.ghostY[0]), new Point(10, 14));
+    }
+
+    @Test
+    void copyFrom() {
+        WorldState s = state(1, 1);
+        s.setBuster(0, 10, 10);
+        s.setBuster(1, 40, 40);
+        s.setGhost(0, 10, 14, 5);
+        WorldState copy = state(1, 1);
+        copy.copyFrom(s);
+        simulator.step(copy, moves(bust(0), move(40, 40)));
+        assertEquals(s.stamina[0], 5);
+        assertEquals(copy.stamina[0], 4);
+        assertEquals(s.round, 0);
+    }
+
+    // --- utils
+
+    private WorldState state(int bustersPerPlayer, int ghostCnt) {
+        return new WorldState(bustersPerPlayer, ghostCnt);
+    }
+
+    private Move[] moves(Move... moves) {
+        return moves;
+    }
+}
@@ -0,0 +1,124 @@
+package game;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.testng.Assert.*;
+
+@Test
+public class GhostBeliefTest {
+    private static final double EPS = 1e-6;
+
+    private GameParameters gameParameters;
+    private Point enemyBase;
+
+    @BeforeMethod
+    void init() {
+        gameParameters = AbstractBestMoveFinderTest.createTestGameParameters();
+        enemyBase = new Point(gameParameters.H - 1, gameParameters.W - 1);
+    }
+
+    @Test
+    void startsUniformWithGhostZeroInCenter() {
+        GhostBelief belief = new GhostBelief(3, gameParameters);
+        int cellCnt = gameParameters.H * gameParameters.W;
+        assertEquals(belief.getProbability(1, 10, 40), 1.0 / cellCnt, EPS);
+        assertEquals(belief.getProbability(0, gameParameters.H / 2, gameParameters.W / 2), 1, EPS);
+    }
+
+    @Test
+    void visionClearsCells() {
+        GhostBelief belief = new GhostBelief(3, gameParameters);
+        belief.update(Collections.emptyList(), asList(new BusterBuilder(10, 10, 0).build()), Collections.emptyList(), enemyBase);
+        assertEquals(belief.getProbability(1, 10, 10), 0, EPS);
+        assertEquals(belief.getProbability(1, 10, 17), 0, EPS);
+        assertTrue(belief.getProbability(1, 10, 18) > 1.0 / (gameParameters.H * gameParameters.W));
+    }
+
+    @Test
+    void seenGhostPlacesItsTwin() {
+        GhostBelief belief = new GhostBelief(3, gameParameters);
+        List<Ghost> ghosts = asList(new GhostBuilder(1, 5, 40).stamina(12).build());
+        belief.update(ghosts, asList(new BusterBuilder(5, 35, 0).build()), Collections.emptyList(), enemyBase);
+        assertEquals(belief.getProbability(1, 5, 40), 1, EPS);
+        assertEquals(belief.getProbability(2, 45, 10), 1, EPS);
+        assertEquals(
+                belief.getPhantomGhosts(ghosts, 0.5),
+                asList(ghosts.get(0), new Ghost(0, gameParameters.H / 2, gameParameters.W / 2, 15, 0), new Ghost(2, 45, 10, 15, 0))
+        );
+    }
+
+    @Test
+    void twinInEnemyHalfIsNotPlaced() {
+        GhostBelief belief = new GhostBelief(3, gameParameters);
+        belief.update(asList(new GhostBuilder(1, 10, 10).build()), asList(new BusterBuilder(10, 5, 0).build()), Collections.emptyList(), enemyBase);
+        assertTrue(belief.getProbability(2, 40, 40) < 0.5);
+    }
+
+    @Test
+    void unseenGhostFleesFromBusters() {
+        GhostBelief belief = new GhostBelief(3, gameParameters);
+        belief.place(new Ghost(1, 20, 20, 3, 0));
+        belief.update(Collections.emptyList(), asList(new BusterBuilder(0, 0, 0).build()), asList(new BusterBuilder(20, 15, 1).build()), enemyBase);
+        assertEquals(belief.getProbability(1, 20, 21), 1, EPS);
+        assertEquals(belief.getPhantomGhosts(Collections.emptyList(), 0.5).get(1), new Ghost(1, 20, 21, 3, 0));
+    }
+
+    @Test
+    void massFleesWithGhosts() {
+        GhostBelief belief = new GhostBelief(3, gameParameters);
+        double before = belief.getProbability(1, 20, 21);
+        belief.update(Collections.emptyList(), asList(new BusterBuilder(0, 0, 0).build()), asList(new BusterBuilder(20, 15, 1).build()), enemyBase);
+        assertEquals(belief.getProbability(1, 20, 16), 0, EPS);
+        assertTrue(belief.getProbability(1, 20, 21) > before);
+    }
+
+    @Test
+    void ghostMissingFromVisionIsTaken() {
+        GhostBelief belief = new GhostBelief(3, gameParameters);
+        List<Buster> allies = asList(new BusterBuilder(30, 30, 0).build());
+        belief.update(asList(new GhostBuilder(1, 30, 33).build()), allies, Collections.emptyList(), enemyBase);
+        belief.update(Collections.emptyList(), allies, Collections.emptyList(), enemyBase);
+        assertFalse(belief.isOnMap(1));
+    }
+
+    @Test
+    void carriedGhostIsTakenUntilDropped() {
+        GhostBelief belief = new GhostBelief(3, gameParameters);
+        belief.update(Collections.emptyList(), asList(new BusterBuilder(0, 0, 0).build()), asList(new BusterBuilder(3, 3, 1).carryingGhost(2).build()), enemyBase);
+        assertFalse(belief.isOnMap(2));
+        belief.place(new Ghost(2, 30, 30, 0, 0));
+        assertEquals(belief.getProbability(2, 30, 30), 1, EPS);
+    }
+
+    @Test
+    void expectedValueFollowsPlacedGhosts() {
+        GhostBelief belief = new GhostBelief(2, gameParameters);
+        belief.place(new Ghost(1, 40, 40, 3, 0));
+        assertEquals(belief.getExpectedValue(40, 40, 40, 40), 0.25, EPS);
+        belief.place(new Ghost(1, 10, 10, 0, 0));
+        belief.place(new Ghost(0, 10, 10, 3, 0));
+        assertEquals(belief.getExpectedValue(40, 40, 40, 40), 0, EPS);
+        assertEquals(belief.getExpectedValue(10, 10, 10, 10), 1.25, EPS);
+    }
+
+    @Test
+    void expectedValueOfRectangles() {
+        GhostBelief belief = new GhostBelief(1, gameParameters);
+        belief.place(new Ghost(0, 20, 30, 3, 0));
+        assertEquals(belief.getExpectedValue(20, 30, 20, 30), 0.25, EPS);
+        assertEquals(belief.getExpectedValue(-100, -100, 1000, 1000), 0.25, EPS);
+        assertEquals(belief.getExpectedValue(21, 0, 50, 50), 0, EPS);
+        assertEquals(belief.getExpectedValue(0, 31, 50, 50), 0, EPS);
+
+        GhostBelief uniform = new GhostBelief(3, gameParameters);
+        double total = uniform.getExpectedValue(0, 0, gameParameters.H, gameParameters.W);
+        double left = uniform.getExpectedValue(0, 0, gameParameters.H, 24);
+        double right = uniform.getExpectedValue(0, 25, gameParameters.H, gameParameters.W);
+        assertEquals(left + right, total, EPS);
+    }
+}
@@ -0,0 +1,83 @@
+package game;
+
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+import static org.testng.Assert.*;
+
+@Test
+public class IntReaderTest {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    @Test
+    void negativeNumbers() {
+        Interactor.IntReader reader = reader("-5 0 -1760 16000");
+        assertEquals(reader.nextInt(), -5);
+        assertEquals(reader.nextInt(), 0);
+        assertEquals(reader.nextInt(), -1760);
+        assertEquals(reader.nextInt(), 16000);
+    }
+
+    @Test
+    void crlfAndExtraWhitespace() {
+        Interactor.IntReader reader = reader("  3\r\n\r\n 12 \t 7\r\n");
+        assertEquals(reader.nextInt(), 3);
+        assertEquals(reader.nextInt(), 12);
+        assertEquals(reader.nextInt(), 7);
+    }
+
+    @Test
+    void tokenSplitAcrossBuffers() {
+        byte[] bytes = new byte[BUFFER_SIZE + 8];
+        Arrays.fill(bytes, (byte) ' ');
+        byte[] token = "-123456".getBytes(StandardCharsets.US_ASCII);
+        System.arraycopy(token, 0, bytes, BUFFER_SIZE - 3, token.length);
+        Interactor.IntReader reader = new Interactor.IntReader(new ByteArrayInputStream(bytes));
+        assertEquals(reader.nextInt(), -123456);
+    }
+
+    @Test
+    void shortReads() {
+        InputStream in = new ByteArrayInputStream("-42 17\n".getBytes(StandardCharsets.US_ASCII)) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, 1));
+            }
+        };
+        Interactor.IntReader reader = new Interactor.IntReader(in);
+        assertEquals(reader.nextInt(), -42);
+        assertEquals(reader.nextInt(), 17);
+    }
+
+    @Test(expectedExceptions = NoSuchElementException.class)
+    void endOfInput() {
+        Interactor.IntReader reader = reader("1 \n");
+        assertEquals(reader.nextInt(), 1);
+        reader.nextInt();
+    }
+
+    @Test
+    void dumpKeepsLastInts() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 1500; i++) {
+            sb.append(i).append(' ');
+        }
+        Interactor.IntReader reader = reader(sb.toString());
+        for (int i = 0; i < 1500; i++) {
+            reader.nextInt();
+        }
+        String[] dumped = reader.getDump().trim().split(" ");
+        assertEquals(dumped.length, 1024);
+        assertEquals(dumped[0], "476");
+        assertEquals(dumped[1023], "1499");
+    }
+
+    private static Interactor.IntReader reader(String input) {
+        return new Interactor.IntReader(new ByteArrayInputStream(input.getBytes(StandardCharsets.US_ASCII)));
+    }
+}
@@ -0,0 +1,74 @@
+package game;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static game.Move.*;
+import static java.util.Arrays.asList;
+import static org.testng.Assert.*;
+
+@Test
+public class IterativeDeepeningTest extends AbstractBestMoveFinderTest {
+    IterativeDeepening iterativeDeepening;
+
+    @BeforeMethod
+    @Override
+    void init() {
+        super.init();
+        iVeSeenItAll();
+        testGameParameters.ITERATIVE_DEEPENING_TIME_MS = 10_000;
+        iterativeDeepening = new IterativeDeepening(testGameParameters, bestMoveFinder);
+    }
+
+    @Test
+    void deeperSearchChangesMove() {
+        testGameParameters.ITERATIVE_DEEPENING_MAX_DEPTH = 4;
+        Buster buster = new BusterBuilder(10, 22, 0).build();
+        TurnContext context = createTurnContext(asList(buster), Collections.emptyList(), asList(new GhostBuilder(0, 19, 29).build()));
+        // greedy heads for the checkpoint, four plies see the ghost busted and carried home three turns sooner
+        assertEquals(bestMoveFinder.findBestMove(buster, context), move(25, 25));
+        assertEquals(iterativeDeepening.findBestMove(buster, context, 1, 1, 10), move(19, 29));
+        assertEquals(iterativeDeepening.getDepthReached(), 4);
+        assertTrue(iterativeDeepening.getNodeCnt() > 0);
+    }
+
+    @Test
+    void principalVariationIsSearchedFirst() {
+        testGameParameters.ITERATIVE_DEEPENING_MAX_DEPTH = 4;
+        Buster buster = new BusterBuilder(10, 22, 0).build();
+        TurnContext context = createTurnContext(asList(buster), Collections.emptyList(), asList(new GhostBuilder(0, 19, 29).build()));
+        Move move = iterativeDeepening.findBestMove(buster, context, 1, 1, 10);
+        List<Move> pv = iterativeDeepening.getPrincipalVariation();
+        assertEquals(pv.size(), 4);
+        assertEquals(pv.get(0), move);
+
+        List<BestMoveFinder.ScoredMove> rootMoves = bestMoveFinder.getBestSmartMoves(buster, context, testGameParameters.ITERATIVE_DEEPENING_BRANCHING);
+        assertNotEquals(rootMoves.get(0).move, move);
+        List<BestMoveFinder.ScoredMove> ordered = iterativeDeepening.orderByPv(rootMoves, 0);
+        assertEquals(ordered.get(0).move, move);
+        assertEquals(ordered.size(), rootMoves.size());
+    }
+
+    @Test
+    void expiredDeadlineKeepsGreedyMove() {
+        Buster buster = new BusterBuilder(20, 20, 0).build();
+        TurnContext context = createTurnContext(asList(buster), Collections.emptyList(), asList(new GhostBuilder(0, 30, 30).build()));
+        Move greedy = bestMoveFinder.findBestMove(buster, context);
+        testGameParameters.ITERATIVE_DEEPENING_TIME_MS = 0;
+        assertEquals(iterativeDeepening.findBestMove(buster, context, 1, 1, 10), greedy);
+        assertEquals(iterativeDeepening.getDepthReached(), 1);
+    }
+
+    @Test
+    void stunnedBusterSkipsSearch() {
+        Buster buster = new BusterBuilder(20, 20, 0).stunDuration(3).build();
+        TurnContext context = createTurnContext(asList(buster), Collections.emptyList(), asList(new GhostBuilder(0, 30, 30).build()));
+        assertEquals(iterativeDeepening.findBestMove(buster, context, 1, 1, 10), release());
+        assertEquals(iterativeDeepening.getDepthReached(), 0);
+        assertEquals(iterativeDeepening.getNodeCnt(), 0);
+        assertTrue(iterativeDeepening.getPrincipalVariation().isEmpty());
+    }
+}
@@ -0,0 +1,117 @@
+package game;
+
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static game.Utils.getNewPosition;
+import static org.testng.Assert.*;
+
+@Test
+public class LazyEvaluationTest {
+    @Test
+    void agreesWithBetterOnTestMap() {
+        checkRandomScenes(AbstractBestMoveFinderTest.createTestGameParameters(), 300);
+    }
+
+    @Test
+    void agreesWithBetterOnRealMap() {
+        checkRandomScenes(new GameParameters(), 300);
+    }
+
+    @Test
+    void choosesSameMovesAsEagerEvaluation() {
+        Random random = new Random(3);
+        for (int scene = 0; scene < 300; scene++) {
+            GameParameters lazyParameters = scene % 2 == 0 ? new GameParameters() : AbstractBestMoveFinderTest.createTestGameParameters();
+            GameParameters eagerParameters = scene % 2 == 0 ? new GameParameters() : AbstractBestMoveFinderTest.createTestGameParameters();
+            eagerParameters.LAZY_EVALUATION = false;
+            long seed = random.nextLong();
+            List<Move> lazyMoves = findBestMoves(lazyParameters, new Random(seed));
+            List<Move> eagerMoves = findBestMoves(eagerParameters, new Random(seed));
+            assertEquals(lazyMoves, eagerMoves);
+        }
+    }
+
+    /**
+     * Every candidate against every other one as the best so far.
+     */
+    private static void checkRandomScenes(GameParameters gameParameters, int sceneCnt) {
+        BestMoveFinder bestMoveFinder = new BestMoveFinder(gameParameters);
+        Evaluator evaluator = new Evaluator(gameParameters);
+        Random random = new Random(5);
+        for (int scene = 0; scene < sceneCnt; scene++) {
+            TurnContext context = createRandomContext(bestMoveFinder, gameParameters, random);
+            Point checkPoint = context.checkPoints.get(0).p;
+            for (Buster buster : context.allies) {
+                if (buster.remainingStunDuration > 0) {
+                    continue;
+                }
+                List<Buster> alliesWhoNeedEscort = bestMoveFinder.getAlliesWhoNeedEscort(buster, context.allies, context.enemies, context.myBase, context.halfGhostsCollected);
+                List<Move> moves = new ArrayList<>();
+                for (BestMoveFinder.ScoredMove scoredMove : bestMoveFinder.getBestSmartMoves(buster, context, Integer.MAX_VALUE)) {
+                    moves.add(scoredMove.move);
+                }
+                List<EvaluationState> evaluations = new ArrayList<>();
+                for (Move move : moves) {
+                    evaluations.add(evaluator.evaluate(buster, getNewPosition(buster, move, gameParameters), move, checkPoint, alliesWhoNeedEscort, context));
+                }
+                for (int i = 0; i < moves.size(); i++) {
+                    Point newPosition = getNewPosition(buster, moves.get(i), gameParameters);
+                    for (EvaluationState best : evaluations) {
+                        EvaluationState lazy = evaluator.evaluateIfBetter(buster, newPosition, moves.get(i), checkPoint, alliesWhoNeedEscort, context, best);
+                        boolean better = evaluations.get(i).better(best);
+                        assertEquals(lazy != null, better);
+                        if (lazy != null) {
+                            assertFalse(lazy.better(evaluations.get(i)));
+                            assertFalse(evaluations.get(i).better(lazy));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static List<Move> findBestMoves(GameParameters gameParameters, Random random) {
+        BestMoveFinder bestMoveFinder = new BestMoveFinder(gameParameters);
+        TurnContext context = createRandomContext(bestMoveFinder, gameParameters, random);
+        List<Move> r = new ArrayList<>();
+        for (Buster buster : context.allies) {
+            Move move = bestMoveFinder.findBestMove(buster, context);
+            context.onMoveCommitted(move);
+            r.add(move);
+        }
+        return r;
+    }
+
+    private static TurnContext createRandomContext(BestMoveFinder bestMoveFinder, GameParameters gameParameters, Random random) {
+        List<Buster> allies = new ArrayList<>();
+        List<Buster> enemies = new ArrayList<>();
+        int n = 1 + random.nextInt(4);
+        for (int i = 0; i < 2 * n; i++) {
+            BusterBuilder builder = new BusterBuilder(random.nextInt(gameParameters.H), random.nextInt(gameParameters.W), i)
+                    .stunCooldown(random.nextBoolean() ? 0 : random.nextInt(gameParameters.STUN_COOLDOWN));
+            if (random.nextInt(3) == 0) {
+                builder.carryingGhost(100 + i);
+            }
+            (i < n ? allies : enemies).add(builder.build());
+        }
+        List<Ghost> ghosts = new ArrayList<>();
+        for (int i = 0, cnt = random.nextInt(5); i < cnt; i++) {
+            ghosts.add(new GhostBuilder(i, random.nextInt(gameParameters.H), random.nextInt(gameParameters.W)).stamina(random.nextInt(20)).build());
+        }
+        return bestMoveFinder.createTurnContext(
+                new Point(0, 0),
+                allies,
+                enemies,
+                ghosts,
+                Collections.singletonList(new CheckPoint(new Point(gameParameters.H / 2, gameParameters.W / 2), CheckPoint.NEVER)),
+                false,
+                new int[100],
+                true
+        );
+    }
+}
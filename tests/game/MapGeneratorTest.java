@@ -0,0 +1,51 @@
+package game;
+
+import org.testng.annotations.Test;
+
+import java.util.Random;
+
+import static org.testng.Assert.*;
+
+@Test
+public class MapGeneratorTest {
+    GameParameters gameParameters = new GameParameters();
+    MapGenerator mapGenerator = new MapGenerator(gameParameters);
+
+    @Test
+    void ghostsAreMirrored() {
+        for (int seed = 0; seed < 100; seed++) {
+            WorldState s = mapGenerator.generate(new Random(seed));
+            assertEquals(s.ghostCnt % 2, 1);
+            assertTrue(s.ghostCnt <= 28);
+            assertEquals(s.ghostX[0], gameParameters.H / 2);
+            assertEquals(s.ghostY[0], gameParameters.W / 2);
+            for (int id = 1; id < s.ghostCnt; id += 2) {
+                assertEquals(s.ghostX[id + 1], gameParameters.H - s.ghostX[id] - 1);
+                assertEquals(s.ghostY[id + 1], gameParameters.W - s.ghostY[id] - 1);
+                assertEquals(s.stamina[id + 1], s.stamina[id]);
+            }
+            for (int id = 0; id < s.ghostCnt; id++) {
+                assertTrue(s.stamina[id] == 3 || s.stamina[id] == 15 || s.stamina[id] == 40);
+            }
+        }
+    }
+
+    @Test
+    void bustersAreMirrored() {
+        WorldState s = mapGenerator.generate(new Random(0), 5, 9);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(s.busterX[5 + i], gameParameters.H - s.busterX[i] - 1);
+            assertEquals(s.busterY[5 + i], gameParameters.W - s.busterY[i] - 1);
+            assertTrue(Utils.dist(s.busterX[i], s.busterY[i], 0, 0) < gameParameters.FOG_RANGE * 2);
+        }
+    }
+
+    @Test
+    void sameSeedSameMap() {
+        WorldState a = mapGenerator.generate(new Random(7));
+        WorldState b = mapGenerator.generate(new Random(7));
+        assertEquals(a.ghostX, b.ghostX);
+        assertEquals(a.ghostY, b.ghostY);
+        assertEquals(a.busterX, b.busterX);
+    }
+}
@@ -0,0 +1,130 @@
+package game;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static game.Move.*;
+import static game.Utils.*;
+import static java.util.Arrays.asList;
+import static org.testng.Assert.*;
+
+@Test
+public class OpponentModelTest {
+    static final Point MY_BASE = new Point(0, 0);
+
+    GameParameters testGameParameters;
+    BestMoveFinder bestMoveFinder;
+    OpponentModel opponentModel;
+
+    @BeforeMethod
+    void init() {
+        testGameParameters = AbstractBestMoveFinderTest.createTestGameParameters();
+        testGameParameters.OPPONENT_MODEL_TIME_MS = 10_000;
+        bestMoveFinder = new BestMoveFinder(testGameParameters);
+        opponentModel = bestMoveFinder.getOpponentModel();
+    }
+
+    @Test
+    void courierGoesHome() {
+        Buster ally = new BusterBuilder(5, 5, 0).build();
+        Buster enemy = new BusterBuilder(25, 25, 1).carryingGhost(0).build();
+        Move move = predict(asList(ally), asList(enemy), Collections.emptyList()).get(enemy.id);
+        Point p = getNewPosition(enemy, move, testGameParameters);
+        assertTrue(dist(p, new Point(50, 50)) < dist(enemy, new Point(50, 50)));
+    }
+
+    @Test
+    void bustsGhostNextToIt() {
+        Buster ally = new BusterBuilder(5, 5, 0).build();
+        Buster enemy = new BusterBuilder(30, 30, 1).build();
+        Ghost ghost = new GhostBuilder(0, 30, 34).stamina(3).build();
+        assertEquals(predict(asList(ally), asList(enemy), asList(ghost)).get(enemy.id), bust(ghost.id));
+    }
+
+    @Test
+    void stunsOurCourier() {
+        Buster ally = new BusterBuilder(30, 30, 0).carryingGhost(0).build();
+        Buster enemy = new BusterBuilder(30, 33, 1).build();
+        assertEquals(predict(asList(ally), asList(enemy), Collections.emptyList()).get(enemy.id), stun(ally.id));
+    }
+
+    @Test
+    void predictionsAreMemoizedPerState() {
+        Buster ally = new BusterBuilder(5, 5, 0).build();
+        Buster enemy = new BusterBuilder(30, 30, 1).build();
+        Ghost ghost = new GhostBuilder(0, 30, 34).stamina(3).build();
+        predict(asList(ally), asList(enemy), asList(ghost));
+        predict(asList(ally), asList(enemy), asList(ghost));
+        assertEquals(opponentModel.getPredictionCnt(), 1);
+        assertEquals(opponentModel.getMemoHitCnt(), 1);
+        predict(asList(ally), asList(new BusterBuilder(31, 30, 1).build()), asList(ghost));
+        assertEquals(opponentModel.getPredictionCnt(), 2);
+    }
+
+    @Test
+    void outOfTimeFallsBackToShallowGuess() {
+        testGameParameters.OPPONENT_MODEL_TIME_MS = 0;
+        Buster ally = new BusterBuilder(5, 5, 0).build();
+        Buster enemy = new BusterBuilder(30, 30, 1).build();
+        Ghost ghost = new GhostBuilder(0, 30, 34).stamina(3).build();
+        Map<Integer, Move> moves = predict(asList(ally), asList(enemy), asList(ghost));
+        assertEquals(moves, opponentModel.predictShallowMoves(MY_BASE, asList(ally), asList(enemy), asList(ghost)));
+        assertEquals(moves.get(enemy.id), bust(ghost.id));
+    }
+
+    @Test
+    void expiredTurnFallsBackToShallowGuess() {
+        testGameParameters.OPPONENT_MODEL = true;
+        Buster ally = new BusterBuilder(5, 5, 0).build();
+        Buster enemy = new BusterBuilder(40, 40, 1).build();
+        Map<Integer, Move> shallow = opponentModel.predictShallowMoves(MY_BASE, asList(ally), asList(enemy), Collections.emptyList());
+        assertNotEquals(predict(asList(ally), asList(enemy), Collections.emptyList()), shallow);
+
+        TurnDeadline turnDeadline = new TurnDeadline();
+        turnDeadline.start(0);
+        TurnContext context = new BestMoveFinder(testGameParameters).createTurnContext(
+                MY_BASE, asList(ally), asList(enemy), Collections.emptyList(), checkPoints(), false, new int[1], true, turnDeadline);
+        assertEquals(context.enemyMoves, shallow);
+        assertSame(context.deadline, turnDeadline);
+    }
+
+    @Test
+    void contextMovesEnemiesByPredictions() {
+        testGameParameters.OPPONENT_MODEL = true;
+        Buster ally = new BusterBuilder(5, 5, 0).build();
+        Buster enemy = new BusterBuilder(30, 20, 1).build();
+        Ghost ghost = new GhostBuilder(0, 30, 30).build();
+        TurnContext context = bestMoveFinder.createTurnContext(MY_BASE, asList(ally), asList(enemy), asList(ghost), checkPoints(), false, new int[1], true);
+        Move move = context.enemyMoves.get(enemy.id);
+        assertNotNull(move);
+        Buster after = context.enemiesAfterMove.get(0);
+        Point expected = getNewPosition(enemy, move, testGameParameters);
+        assertEquals(new Point(after.x, after.y), expected);
+
+        Move[] moves = new Move[2];
+        context.fillEnemyMoves(moves);
+        assertNull(moves[0]);
+        assertEquals(moves[1], move);
+    }
+
+    @Test
+    void offByDefault() {
+        Buster ally = new BusterBuilder(5, 5, 0).build();
+        Buster enemy = new BusterBuilder(30, 20, 1).build();
+        TurnContext context = bestMoveFinder.createTurnContext(MY_BASE, asList(ally), asList(enemy), Collections.emptyList(), checkPoints(), false, new int[1], true);
+        assertTrue(context.enemyMoves.isEmpty());
+        assertEquals(opponentModel.getPredictionCnt(), 0);
+    }
+
+    private Map<Integer, Move> predict(List<Buster> allies, List<Buster> enemies, List<Ghost> ghosts) {
+        return opponentModel.predictMoves(MY_BASE, allies, enemies, ghosts, checkPoints(), true, TurnDeadline.unlimited());
+    }
+
+    private static List<CheckPoint> checkPoints() {
+        return Collections.singletonList(new CheckPoint(new Point(25, 25), CheckPoint.NEVER));
+    }
+}
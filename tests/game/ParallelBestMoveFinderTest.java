@@ -0,0 +1,19 @@
+package game;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * All {@link BestMoveFinderTest} cases again with candidates split into chunks of one and evaluated on the ForkJoinPool.
+ */
+@Test
+public class ParallelBestMoveFinderTest extends BestMoveFinderTest {
+
+    @BeforeMethod
+    @Override
+    void init() {
+        super.init();
+        testGameParameters.PARALLEL_EVALUATION = true;
+        testGameParameters.PARALLEL_EVALUATION_CHUNK = 1;
+    }
+}
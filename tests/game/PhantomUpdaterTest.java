@@ -6,6 +6,7 @@ import org.testng.annotations.Test;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 
 import static java.util.Arrays.asList;
 import static org.testng.Assert.assertEquals;
@@ -98,6 +99,17 @@ public class PhantomUpdaterTest {
         );
     }
 
+    @Test
+    void expiresAfterMemoryTurns() {
+        testGameParameters.PHANTOM_ENEMY_MEMORY_TURNS = 1;
+        checkEnemies(
+                asList(),
+                asList(buster(0, 0, 0).lastSeen(-1).build(), buster(20, 20, 1).lastSeen(-1).carryingGhost().build()),
+                asList(),
+                asList(buster(19, 19, 1).lastSeen(-1).carryingGhost().build())
+        );
+    }
+
     @Test
     void testGhosts() {
         List<GhostBuilder> ghosts = asList(ghost(0, 0, 0));
@@ -228,6 +240,42 @@ public class PhantomUpdaterTest {
         );
     }
 
+    @Test
+    void mirrorImageSeenLikeFromPreviousPositions() {
+        GameParameters gameParameters = new GameParameters();
+        PhantomUpdater phantomUpdater = new PhantomUpdater(gameParameters);
+        Point enemyBase = new Point(gameParameters.H - 1, gameParameters.W - 1);
+        int tolerance = 2 * gameParameters.FOG_RANGE / 20; // two fog coverage cells
+        Random random = new Random(3);
+        for (int it = 0; it < 2000; it++) {
+            FogCoverage fogCoverage = new FogCoverage(gameParameters);
+            List<Point> previousPositions = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                Point p = new Point(3000 + random.nextInt(3000), 3000 + random.nextInt(5000));
+                previousPositions.add(p);
+                fogCoverage.stamp(p.x, p.y);
+            }
+            // mirror image mostly near the fog border of the first position
+            Point center = previousPositions.get(0);
+            double angle = random.nextDouble() * 2 * Math.PI;
+            double d = gameParameters.FOG_RANGE + (random.nextDouble() - 0.5) * 4 * tolerance;
+            int x = (int) Math.round(center.x + d * Math.cos(angle));
+            int y = (int) Math.round(center.y + d * Math.sin(angle));
+            Ghost ghost = new GhostBuilder(1, gameParameters.H - 1 - x, gameParameters.W - 1 - y).stamina(3).build();
+
+            double minDist = Double.POSITIVE_INFINITY;
+            for (Point p : previousPositions) {
+                minDist = Math.min(minDist, Utils.dist(p.x, p.y, x, y));
+            }
+            if (Math.abs(minDist - gameParameters.FOG_RANGE) <= tolerance) {
+                continue;
+            }
+            List<Ghost> r = phantomUpdater.updatePhantomGhosts(asList(ghost), Collections.emptyList(), Collections.emptyList(), Collections.emptyList(), Collections.emptySet(), fogCoverage, enemyBase);
+            // allMyPreviousPositions rule: a mirror image within FOG_RANGE of where we were is known to be gone
+            assertEquals(r.size() == 2, minDist > gameParameters.FOG_RANGE, "" + minDist);
+        }
+    }
+
     // --- utils
 
     private GhostBuilder ghost(int x, int y, int id) {
@@ -236,7 +284,7 @@ public class PhantomUpdaterTest {
 
     private void checkGhosts(List<GhostBuilder> ghosts, List<GhostBuilder> phantomGhosts, List<Buster> allies, List<Buster> enemies, List<GhostBuilder> expected) {
         assertEquals(
-                phantomUpdater.updatePhantomGhosts(build(ghosts), build(phantomGhosts), allies, enemies, Collections.emptySet(), Collections.emptySet(), new Point(testGameParameters.H - 1, testGameParameters.W - 1)),
+                phantomUpdater.updatePhantomGhosts(build(ghosts), build(phantomGhosts), allies, enemies, Collections.emptySet(), new FogCoverage(testGameParameters), new Point(testGameParameters.H - 1, testGameParameters.W - 1)),
                 build(expected)
         );
     }
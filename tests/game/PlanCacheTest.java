@@ -0,0 +1,93 @@
+package game;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+
+import static game.Utils.*;
+import static java.util.Arrays.asList;
+import static org.testng.Assert.*;
+
+@Test
+public class PlanCacheTest extends AbstractBestMoveFinderTest {
+    PlanCache planCache;
+
+    @BeforeMethod
+    @Override
+    void init() {
+        super.init();
+        iVeSeenItAll();
+        planCache = new PlanCache(testGameParameters);
+    }
+
+    @Test
+    void reusesMoveWhileNothingChanges() {
+        Buster buster = new BusterBuilder(10, 10, 0).lastSeen(5).build();
+        Move move = bestMoveFinder.findBestMove(buster, createTurnContext(asList(buster), Collections.emptyList(), Collections.emptyList()), planCache);
+        assertEquals(planCache.getMissCnt(), 1);
+
+        Buster next = moved(buster, move);
+        Move nextMove = bestMoveFinder.findBestMove(next, createTurnContext(asList(next), Collections.emptyList(), Collections.emptyList()), planCache);
+        assertEquals(nextMove, move);
+        assertEquals(planCache.getHitCnt(), 1);
+        assertEquals(planCache.getHitRate(), 0.5);
+    }
+
+    @Test
+    void keepsReusingMoveTurnAfterTurn() {
+        Buster buster = new BusterBuilder(10, 10, 0).lastSeen(5).build();
+        Move move = bestMoveFinder.findBestMove(buster, createTurnContext(asList(buster), Collections.emptyList(), Collections.emptyList()), planCache);
+        for (int i = 0; i < 3; i++) {
+            buster = moved(buster, move);
+            assertEquals(bestMoveFinder.findBestMove(buster, createTurnContext(asList(buster), Collections.emptyList(), Collections.emptyList()), planCache), move);
+        }
+        assertEquals(planCache.getHitCnt(), 3);
+        assertEquals(planCache.getMissCnt(), 1);
+    }
+
+    @Test
+    void newThreatInvalidatesPlan() {
+        Buster buster = new BusterBuilder(10, 10, 0).lastSeen(5).build();
+        Move move = bestMoveFinder.findBestMove(buster, createTurnContext(asList(buster), Collections.emptyList(), Collections.emptyList()), planCache);
+        Buster next = moved(buster, move);
+        Buster enemy = new BusterBuilder(next.x + 6, next.y, 1).stunCooldown(20).build();
+        bestMoveFinder.findBestMove(next, createTurnContext(asList(next), asList(enemy), Collections.emptyList()), planCache);
+        assertEquals(planCache.getHitCnt(), 0);
+        assertEquals(planCache.getMissCnt(), 2);
+    }
+
+    @Test
+    void ghostInBustRangeInvalidatesPlan() {
+        Buster buster = new BusterBuilder(10, 10, 0).lastSeen(5).build();
+        Ghost ghost = new GhostBuilder(0, 40, 40).stamina(3).build();
+        Move move = bestMoveFinder.findBestMove(buster, createTurnContext(asList(buster), Collections.emptyList(), asList(ghost)), planCache);
+        Buster next = moved(buster, move);
+        Ghost closeGhost = new GhostBuilder(0, next.x + 4, next.y).stamina(3).build();
+        bestMoveFinder.findBestMove(next, createTurnContext(asList(next), Collections.emptyList(), asList(closeGhost)), planCache);
+        assertEquals(planCache.getHitCnt(), 0);
+    }
+
+    @Test
+    void planIsOnlyForTheNextRound() {
+        Buster buster = new BusterBuilder(10, 10, 0).lastSeen(5).build();
+        Move move = bestMoveFinder.findBestMove(buster, createTurnContext(asList(buster), Collections.emptyList(), Collections.emptyList()), planCache);
+        Point p = getNewPosition(buster, move, testGameParameters);
+        Buster later = new BusterBuilder(p.x, p.y, 0).lastSeen(7).build();
+        bestMoveFinder.findBestMove(later, createTurnContext(asList(later), Collections.emptyList(), Collections.emptyList()), planCache);
+        assertEquals(planCache.getHitCnt(), 0);
+    }
+
+    @Test
+    void forcedMovesAreNotCounted() {
+        Buster buster = new BusterBuilder(2, 2, 0).carryingGhost(0).lastSeen(5).build();
+        assertEquals(bestMoveFinder.findBestMove(buster, createTurnContext(asList(buster), Collections.emptyList(), Collections.emptyList()), planCache), Move.release());
+        assertEquals(planCache.getHitCnt() + planCache.getMissCnt(), 0);
+    }
+
+    private Buster moved(Buster buster, Move move) {
+        assertEquals(move.type, MoveType.MOVE);
+        Point p = getNewPosition(buster, move, testGameParameters);
+        return new BusterBuilder(p.x, p.y, buster.id).lastSeen(buster.lastSeen + 1).build();
+    }
+}
@@ -0,0 +1,94 @@
+package game;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static game.Move.*;
+import static java.util.Arrays.asList;
+import static org.testng.Assert.*;
+
+@Test
+public class RollingHorizonPlannerTest extends AbstractBestMoveFinderTest {
+    RollingHorizonPlanner planner;
+
+    @BeforeMethod
+    @Override
+    void init() {
+        super.init();
+        iVeSeenItAll();
+        testGameParameters.ROLLING_HORIZON_TIME_MS = 10_000;
+        testGameParameters.ROLLING_HORIZON_MAX_GENERATIONS = 200;
+        planner = new RollingHorizonPlanner(testGameParameters, 0);
+    }
+
+    @Test
+    void packedMovesRoundTrip() {
+        for (Move move : asList(move(0, 0), move(9000, 16000), move(-800, 16800), bust(27), stun(9), release())) {
+            assertEquals(RollingHorizonPlanner.unpack(RollingHorizonPlanner.pack(move)), move);
+        }
+    }
+
+    @Test
+    void releasesAtBase() {
+        List<Buster> allies = asList(new BusterBuilder(2, 2, 0).carryingGhost(0).build(), new BusterBuilder(30, 30, 1).build());
+        TurnContext context = createTurnContext(allies, Collections.emptyList(), Collections.emptyList());
+        List<Move> greedy = asList(move(2, 2), move(30, 30));
+        List<Move> moves = planner.findTeamMoves(context, greedy, new boolean[]{true, true}, 2, 1, 10);
+        assertEquals(moves.get(0), release());
+        assertTrue(planner.getEvaluationCnt() > testGameParameters.ROLLING_HORIZON_POPULATION);
+    }
+
+    @Test
+    void mutationsKeepUnsearchableRows() {
+        List<Buster> allies = asList(new BusterBuilder(30, 30, 0).build(), new BusterBuilder(2, 2, 1).carryingGhost(0).build());
+        TurnContext context = createTurnContext(allies, Collections.emptyList(), Collections.emptyList());
+        List<Move> greedy = asList(move(30, 30), move(2, 2));
+        List<Move> moves = planner.findTeamMoves(context, greedy, new boolean[]{false, true}, 2, 1, 10);
+        assertEquals(moves, asList(move(30, 30), release()));
+        int[] plan = planner.getBestPlan();
+        int horizon = testGameParameters.ROLLING_HORIZON_LENGTH;
+        assertEquals(plan.length, 2 * horizon);
+        for (int t = 0; t < horizon; t++) {
+            assertEquals(plan[t], RollingHorizonPlanner.pack(move(30, 30)));
+        }
+        assertEquals(plan[horizon], RollingHorizonPlanner.pack(release()));
+    }
+
+    @Test
+    void bestPlanSeedsNextTurnShifted() {
+        Buster courier = new BusterBuilder(5, 5, 0).carryingGhost(0).build();
+        List<Move> greedy = asList(move(5, 5));
+        planner.findTeamMoves(createTurnContext(asList(courier), Collections.emptyList(), Collections.emptyList()), greedy, new boolean[]{true}, 1, 1, 10);
+        int[] plan = planner.getBestPlan();
+        Move first = RollingHorizonPlanner.unpack(plan[0]);
+        assertEquals(first.type, MoveType.MOVE);
+        Point p = Utils.getNewPosition(5, 5, first.x, first.y, testGameParameters.MOVE_RANGE, testGameParameters);
+
+        // no time to evolve: the population is the shifted plan and staying, only the shifted plan gets home
+        testGameParameters.ROLLING_HORIZON_POPULATION = 2;
+        testGameParameters.ROLLING_HORIZON_MAX_GENERATIONS = 0;
+        Buster moved = new BusterBuilder(p.x, p.y, 0).carryingGhost(0).build();
+        planner.findTeamMoves(createTurnContext(asList(moved), Collections.emptyList(), Collections.emptyList()), asList(move(p)), new boolean[]{true}, 1, 1, 11);
+        int horizon = testGameParameters.ROLLING_HORIZON_LENGTH;
+        int[] shifted = planner.getBestPlan();
+        for (int t = 0; t + 1 < horizon; t++) {
+            assertEquals(shifted[t], plan[t + 1]);
+        }
+        assertEquals(shifted[horizon - 1], plan[horizon - 1]);
+    }
+
+    @Test
+    void expiredBudgetKeepsInitialPopulation() {
+        testGameParameters.ROLLING_HORIZON_TIME_MS = 0;
+        List<Buster> allies = asList(new BusterBuilder(20, 20, 0).build(), new BusterBuilder(30, 30, 1).build());
+        TurnContext context = createTurnContext(allies, Collections.emptyList(), Collections.emptyList());
+        List<Move> greedy = asList(move(20, 20), move(30, 30));
+        // nothing to gain here, so the greedy plan without a deviation penalty is the best of the initial plans
+        assertEquals(planner.findTeamMoves(context, greedy, new boolean[]{true, true}, 2, 1, 10), greedy);
+        assertEquals(planner.getGenerationCnt(), 0);
+        assertEquals(planner.getEvaluationCnt(), testGameParameters.ROLLING_HORIZON_POPULATION);
+    }
+}
@@ -0,0 +1,79 @@
+package game;
+
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import static game.Utils.*;
+import static java.util.Arrays.asList;
+import static org.testng.Assert.*;
+
+@Test
+public class SpatialGridTest {
+    @Test
+    void matchesLinearScan() {
+        GameParameters gameParameters = new GameParameters();
+        Random random = new Random(3);
+        for (int it = 0; it < 20; it++) {
+            SpatialGrid<Point> grid = new SpatialGrid<>(gameParameters);
+            List<Point> points = new ArrayList<>();
+            int n = random.nextInt(200);
+            for (int i = 0; i < n; i++) {
+                Point p = new Point(random.nextInt(gameParameters.H), random.nextInt(gameParameters.W));
+                points.add(p);
+                grid.add(p.x, p.y, p);
+            }
+            assertEquals(grid.size(), n);
+            for (int q = 0; q < 500; q++) {
+                int x = random.nextInt(gameParameters.H);
+                int y = random.nextInt(gameParameters.W);
+                int range = 1 + random.nextInt(2 * gameParameters.FOG_RANGE);
+                assertEquals(grid.anyWithinRange(x, y, range), linearAny(points, x, y, range));
+                assertEquals(new HashSet<>(grid.getNearestWithinRange(x, y, range)), new HashSet<>(linearNearest(points, x, y, range)));
+            }
+        }
+    }
+
+    @Test
+    void nearestKeepsTies() {
+        GameParameters gameParameters = AbstractBestMoveFinderTest.createTestGameParameters();
+        SpatialGrid<String> grid = new SpatialGrid<>(gameParameters);
+        grid.add(10, 8, "a");
+        grid.add(10, 12, "b");
+        grid.add(10, 13, "c");
+        grid.add(50, 50, "far");
+        assertEquals(new HashSet<>(grid.getNearestWithinRange(10, 10, gameParameters.FOG_RANGE)), new HashSet<>(asList("a", "b")));
+        assertTrue(grid.getNearestWithinRange(30, 30, gameParameters.FOG_RANGE).isEmpty());
+    }
+
+    private static boolean linearAny(List<Point> points, int x, int y, int range) {
+        for (Point p : points) {
+            if (dist(p.x, p.y, x, y) <= range) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<Point> linearNearest(List<Point> points, int x, int y, int range) {
+        double minDist = Double.POSITIVE_INFINITY;
+        List<Point> r = new ArrayList<>();
+        for (Point p : points) {
+            double dist = dist(p.x, p.y, x, y);
+            if (dist > range) {
+                continue;
+            }
+            if (dist < minDist) {
+                minDist = dist;
+                r.clear();
+                r.add(p);
+            } else if (dist == minDist) {
+                r.add(p);
+            }
+        }
+        return r;
+    }
+}
@@ -0,0 +1,91 @@
+package game;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+
+import static game.Move.*;
+import static java.util.Arrays.asList;
+import static org.testng.Assert.*;
+
+@Test
+public class StunAssignmentTest extends AbstractBestMoveFinderTest {
+    @BeforeMethod
+    @Override
+    void init() {
+        super.init();
+        iVeSeenItAll();
+    }
+
+    @Test
+    void moreStunsFirst() {
+        long[][] values = {
+                {10, 1},
+                {5, -1},
+        };
+        assertEquals(StunAssignment.assign(values), new int[]{1, 0});
+    }
+
+    @Test
+    void largestTotalValue() {
+        long[][] values = {
+                {10, 1, -1},
+                {9, 8, -1},
+                {-1, -1, -1},
+        };
+        assertEquals(StunAssignment.assign(values), new int[]{0, 1, -1});
+    }
+
+    @Test
+    void tiesGoToLowerTargets() {
+        long[][] values = {
+                {3, 3},
+        };
+        assertEquals(StunAssignment.assign(values), new int[]{0});
+    }
+
+    @Test
+    void nobodyToStun() {
+        assertEquals(StunAssignment.assign(new long[0][0]), new int[0]);
+        assertEquals(StunAssignment.assign(new long[][]{{-1}}), new int[]{-1});
+    }
+
+    @Test
+    void alliesShareTargets() {
+        testGameParameters.STUN_ASSIGNMENT = true;
+        Buster first = new BusterBuilder(20, 20, 0).build();
+        Buster second = new BusterBuilder(20, 26, 1).build();
+        Buster courier = new BusterBuilder(20, 23, 2).carryingGhost(0).build();
+        Buster other = new BusterBuilder(16, 20, 3).build();
+        TurnContext context = createTurnContext(asList(first, second), asList(courier, other), Collections.emptyList());
+        Move firstMove = bestMoveFinder.findBestMove(first, context);
+        context.onMoveCommitted(firstMove);
+        assertEquals(firstMove, stun(other.id));
+        assertEquals(bestMoveFinder.findBestMove(second, context), stun(courier.id));
+    }
+
+    @Test
+    void greedyStunsCourierFirst() {
+        Buster first = new BusterBuilder(20, 20, 0).build();
+        Buster second = new BusterBuilder(20, 26, 1).build();
+        Buster courier = new BusterBuilder(20, 23, 2).carryingGhost(0).build();
+        Buster other = new BusterBuilder(16, 20, 3).build();
+        TurnContext context = createTurnContext(asList(first, second), asList(courier, other), Collections.emptyList());
+        Move firstMove = bestMoveFinder.findBestMove(first, context);
+        context.onMoveCommitted(firstMove);
+        assertEquals(firstMove, stun(courier.id));
+        assertNotEquals(bestMoveFinder.findBestMove(second, context).type, MoveType.STUN);
+    }
+
+    @Test
+    void reassignsWhenTargetIsTaken() {
+        testGameParameters.STUN_ASSIGNMENT = true;
+        Buster first = new BusterBuilder(20, 20, 0).build();
+        Buster courier = new BusterBuilder(20, 23, 2).carryingGhost(0).build();
+        Buster other = new BusterBuilder(16, 20, 3).build();
+        TurnContext context = createTurnContext(asList(first), asList(courier, other), Collections.emptyList());
+        context.onMoveCommitted(stun(courier.id));
+        assertEquals(bestMoveFinder.findBestMove(first, context), stun(other.id));
+    }
+}
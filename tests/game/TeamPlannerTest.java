@@ -0,0 +1,53 @@
+package game;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static game.Move.*;
+import static java.util.Arrays.asList;
+import static org.testng.Assert.*;
+
+@Test
+public class TeamPlannerTest extends AbstractBestMoveFinderTest {
+    TeamPlanner teamPlanner;
+
+    @BeforeMethod
+    @Override
+    void init() {
+        super.init();
+        iVeSeenItAll();
+        teamPlanner = new TeamPlanner(testGameParameters, bestMoveFinder);
+    }
+
+    @Test
+    void stunsCourierGreedyMissed() {
+        List<Buster> allies = asList(new BusterBuilder(20, 20, 0).build(), new BusterBuilder(30, 30, 1).build());
+        List<Buster> enemies = asList(new BusterBuilder(20, 24, 2).carryingGhost(0).build());
+        TurnContext context = createTurnContext(allies, enemies, Collections.emptyList());
+        List<Move> greedy = asList(move(20, 20), move(30, 30));
+        List<Move> moves = teamPlanner.findTeamMoves(context, greedy, new boolean[]{true, true}, 2, 1, 10);
+        assertEquals(moves.get(0), stun(2));
+        assertEquals(moves.get(1), move(30, 30));
+        assertTrue(teamPlanner.getSimulationCnt() > 1);
+    }
+
+    @Test
+    void keepsMovesThatCantBeSearched() {
+        List<Buster> allies = asList(new BusterBuilder(20, 20, 0).build(), new BusterBuilder(30, 30, 1).build());
+        List<Buster> enemies = asList(new BusterBuilder(20, 24, 2).carryingGhost(0).build());
+        TurnContext context = createTurnContext(allies, enemies, Collections.emptyList());
+        List<Move> greedy = asList(move(20, 20), move(30, 30));
+        assertEquals(teamPlanner.findTeamMoves(context, greedy, new boolean[]{false, false}, 2, 1, 10), greedy);
+    }
+
+    @Test
+    void keepsGreedyMovesWithoutGain() {
+        List<Buster> allies = asList(new BusterBuilder(20, 20, 0).build(), new BusterBuilder(30, 30, 1).build());
+        TurnContext context = createTurnContext(allies, Collections.emptyList(), Collections.emptyList());
+        List<Move> greedy = asList(move(20, 20), move(30, 30));
+        assertEquals(teamPlanner.findTeamMoves(context, greedy, new boolean[]{true, true}, 2, 1, 10), greedy);
+    }
+}
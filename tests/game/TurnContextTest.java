@@ -0,0 +1,76 @@
+package game;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.testng.Assert.*;
+
+@Test
+public class TurnContextTest extends AbstractBestMoveFinderTest {
+    @BeforeMethod
+    @Override
+    void init() {
+        super.init();
+        iVeSeenItAll();
+    }
+
+    @Override
+    protected List<CheckPoint> createCheckPoints() {
+        return Collections.emptyList();
+    }
+
+    @Test
+    void ghostsFleeUnlessBusted() {
+        TurnContext context = createTurnContext(
+                asList(new BusterBuilder(10, 4, 0).build()),
+                Collections.emptyList(),
+                asList(new GhostBuilder(0, 10, 10).build(), new GhostBuilder(1, 10, 2).build())
+        );
+        Ghost ghost = new Ghost(0, 10, 11, 0, 0);
+        assertEquals(context.getGhostsAfterMove(Move.move(0, 0)).get(0), ghost);
+        assertEquals(context.getGhostsAfterMove(Move.bust(0)).get(0), new Ghost(0, 10, 10, 0, 0));
+        assertEquals(context.getGhostsAfterMove(Move.move(0, 0)).get(0), ghost);
+    }
+
+    @Test
+    void committedBustStopsGhost() {
+        TurnContext context = createTurnContext(
+                asList(new BusterBuilder(10, 4, 0).build()),
+                Collections.emptyList(),
+                asList(new GhostBuilder(0, 10, 10).build())
+        );
+        context.onMoveCommitted(Move.bust(0));
+        assertTrue(context.alreadyBusted.contains(0));
+        assertEquals(context.getGhostsAfterMove(Move.move(0, 0)).get(0), new Ghost(0, 10, 10, 0, 0));
+    }
+
+    @Test
+    void committedStun() {
+        TurnContext context = createTurnContext(asList(new BusterBuilder(10, 4, 0).build()), Collections.emptyList(), asList());
+        context.onMoveCommitted(Move.stun(3));
+        assertEquals(context.alreadyStunnedEnemies, Collections.singleton(3));
+    }
+
+    @Test
+    void expiredDeadlineFallsBackToCheapMove() {
+        Buster buster = new BusterBuilder(10, 4, 0).build();
+        TurnContext context = createTurnContext(asList(buster), Collections.emptyList(), asList(new GhostBuilder(0, 10, 10).build()));
+        context.deadline.start(0);
+        assertEquals(bestMoveFinder.findBestMove(buster, context), Move.bust(0));
+        assertEquals(context.deadline.getCutSearchCnt(), 1);
+
+        context = createTurnContext(asList(buster), Collections.emptyList(), asList());
+        context.deadline.start(0);
+        assertEquals(bestMoveFinder.findBestMove(buster, context), Move.move(10, 4));
+    }
+
+    @Test
+    void unlimitedDeadlineNeverExpires() {
+        TurnContext context = createTurnContext(asList(new BusterBuilder(10, 4, 0).build()), Collections.emptyList(), asList());
+        assertFalse(context.deadline.isExpired());
+    }
+}
@@ -0,0 +1,48 @@
+package game;
+
+import org.testng.annotations.Test;
+
+import java.util.Random;
+
+import static game.Utils.*;
+import static org.testng.Assert.*;
+
+@Test
+public class UtilsTest {
+    @Test
+    void dist2DoesNotOverflowOnFullMap() {
+        GameParameters gameParameters = new GameParameters();
+        long d2 = dist2(0, 0, gameParameters.H - 1, gameParameters.W - 1);
+        assertEquals(d2, (long) (gameParameters.H - 1) * (gameParameters.H - 1) + (long) (gameParameters.W - 1) * (gameParameters.W - 1));
+        assertEquals(sqr(gameParameters.W), (long) gameParameters.W * gameParameters.W);
+    }
+
+    @Test
+    void withinRangeMatchesDist() {
+        GameParameters gameParameters = new GameParameters();
+        Random random = new Random(7);
+        int[] ranges = {gameParameters.RELEASE_RANGE, gameParameters.STUN_RANGE, gameParameters.FOG_RANGE,
+                gameParameters.MIN_BUST_RANGE, gameParameters.MAX_BUST_RANGE};
+        for (int it = 0; it < 100000; it++) {
+            int x1 = random.nextInt(gameParameters.H);
+            int y1 = random.nextInt(gameParameters.W);
+            int range = ranges[random.nextInt(ranges.length)];
+            // mostly points near the range border, where rounding would matter
+            int x2 = x1 + random.nextInt(2 * range + 3) - range - 1;
+            int y2 = y1 + random.nextInt(2 * range + 3) - range - 1;
+            assertEquals(withinRange(x1, y1, x2, y2, range), dist(x1, y1, x2, y2) <= range);
+        }
+    }
+
+    @Test
+    void inBustRangeBorders() {
+        GameParameters gameParameters = new GameParameters();
+        Buster buster = new BusterBuilder(0, 0, 0).build();
+        int min = gameParameters.MIN_BUST_RANGE;
+        int max = gameParameters.MAX_BUST_RANGE;
+        assertFalse(inBustRange(buster, new Ghost(0, min - 1, 0, 0, 0), gameParameters));
+        assertTrue(inBustRange(buster, new Ghost(0, min, 0, 0, 0), gameParameters));
+        assertTrue(inBustRange(buster, new Ghost(0, max, 0, 0, 0), gameParameters));
+        assertFalse(inBustRange(buster, new Ghost(0, max + 1, 0, 0, 0), gameParameters));
+    }
+}
@@ -0,0 +1,64 @@
+package game;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static game.Move.*;
+import static java.util.Arrays.asList;
+import static org.testng.Assert.*;
+
+@Test
+public class WorldStateTest {
+    GameSimulator simulator;
+
+    @BeforeMethod
+    void init() {
+        simulator = new GameSimulator(AbstractBestMoveFinderTest.createTestGameParameters());
+    }
+
+    @Test
+    void listsRoundTrip() {
+        List<Buster> allies = asList(
+                new BusterBuilder(10, 10, 0).stunCooldown(5).build(),
+                new BusterBuilder(12, 10, 1).carryingGhost(2).build()
+        );
+        List<Buster> enemies = asList(new BusterBuilder(30, 30, 3).stunDuration(4).build());
+        List<Ghost> ghosts = asList(new Ghost(0, 20, 20, 15, 1));
+        WorldState s = WorldState.fromLists(2, 3, concat(allies, enemies), ghosts, 7);
+
+        assertEquals(s.getBusters(0), allies);
+        assertEquals(s.getBusters(1), enemies);
+        assertEquals(s.getFreeGhosts(), ghosts);
+        assertEquals(s.ghostState[1], WorldState.GHOST_UNKNOWN);
+        assertEquals(s.ghostState[2], WorldState.GHOST_CARRIED);
+        assertEquals(s.getBuster(1).lastSeen, 7);
+
+        WorldState copy = new WorldState(2, 3);
+        copy.copyFrom(s);
+        assertEquals(copy.getBusters(1), enemies);
+        assertEquals(copy.getRound(), 7);
+    }
+
+    @Test
+    void unknownBustersAreIgnored() {
+        List<Buster> allies = asList(new BusterBuilder(10, 10, 0).build());
+        WorldState s = WorldState.fromLists(1, 1, allies, Collections.singletonList(new Ghost(0, 10, 14, 3, 0)), 0);
+        s.setBuster(1, 10, 15); // coordinates of an unknown buster don't matter
+        s.busterKnown[1] = false;
+        simulator.step(s, new Move[]{stun(1), move(40, 40)});
+        assertEquals(s.stunDuration[1], 0);
+        assertEquals(s.stunCooldown[0], 0);
+        assertEquals(s.getBuster(1).x, 10);
+        assertEquals(s.getGhost(0), new Ghost(0, 10, 15, 3, 0));
+    }
+
+    private static List<Buster> concat(List<Buster> a, List<Buster> b) {
+        List<Buster> r = new ArrayList<>(a);
+        r.addAll(b);
+        return r;
+    }
+}
@@ -0,0 +1,120 @@
+package game;
+
+import org.testng.annotations.Test;
+
+import java.util.Random;
+
+import static java.util.Arrays.asList;
+import static org.testng.Assert.*;
+
+@Test
+public class ZobristTest {
+
+    @Test
+    void sameStateSameHash() {
+        WorldState a = createState();
+        WorldState b = new WorldState(2, 3);
+        b.copyFrom(a);
+        assertEquals(Zobrist.hash(b), Zobrist.hash(a));
+    }
+
+    @Test
+    void everyFieldChangesHash() {
+        WorldState s = createState();
+        long h = Zobrist.hash(s);
+        s.busterX[0]++;
+        assertNotEquals(Zobrist.hash(s), h);
+        s.busterX[0]--;
+        s.stunCooldown[3] = 5;
+        assertNotEquals(Zobrist.hash(s), h);
+        s.stunCooldown[3] = 0;
+        s.bustCnt[1] = 1;
+        assertNotEquals(Zobrist.hash(s), h);
+        s.bustCnt[1] = 0;
+        s.score[0] = 1;
+        assertNotEquals(Zobrist.hash(s), h);
+        s.score[0] = 0;
+        assertEquals(Zobrist.hash(s), h);
+    }
+
+    @Test
+    void swappedBustersDiffer() {
+        WorldState a = createState();
+        WorldState b = createState();
+        b.setBuster(0, a.busterX[1], a.busterY[1]);
+        b.setBuster(1, a.busterX[0], a.busterY[0]);
+        assertNotEquals(Zobrist.hash(b), Zobrist.hash(a));
+    }
+
+    @Test
+    void incrementalUpdate() {
+        WorldState s = createState();
+        long h = Zobrist.hash(s);
+        h ^= Zobrist.busterKey(2, s.busterX[2], s.busterY[2], s.stunDuration[2], s.stunCooldown[2], s.carriedGhost[2]);
+        s.busterX[2] += 3;
+        s.stunDuration[2] = 10;
+        h ^= Zobrist.busterKey(2, s.busterX[2], s.busterY[2], s.stunDuration[2], s.stunCooldown[2], s.carriedGhost[2]);
+        assertEquals(h, Zobrist.hash(s));
+    }
+
+    @Test
+    void simulatorUpdatesHash() {
+        GameParameters gameParameters = new GameParameters();
+        GameSimulator simulator = new GameSimulator(gameParameters);
+        EnemyPolicy policy = new EnemyPolicy(gameParameters);
+        for (int seed = 0; seed < 5; seed++) {
+            WorldState s = new MapGenerator(gameParameters).generate(new Random(seed));
+            Move[] moves = new Move[s.busterCnt()];
+            long h = Zobrist.hash(s);
+            while (!simulator.isGameOver(s)) {
+                policy.fillMoves(s, 0, moves);
+                policy.fillMoves(s, 1, moves);
+                h = simulator.step(s, moves, h);
+                assertEquals(h, Zobrist.hash(s));
+            }
+        }
+    }
+
+    @Test
+    void simulatorUpdatesHashOfDroppedGhost() {
+        GameSimulator simulator = new GameSimulator(AbstractBestMoveFinderTest.createTestGameParameters());
+        WorldState s = createState();
+        s.setBuster(1, 43, 45);
+        long h = simulator.step(s, new Move[]{Move.release(), Move.stun(3), Move.release(), Move.release()}, Zobrist.hash(s));
+        assertFalse(s.isCarryingGhost(3));
+        assertEquals(h, Zobrist.hash(s));
+    }
+
+    @Test
+    void transpositionTable() {
+        TranspositionTable table = new TranspositionTable(4);
+        table.newSearch();
+        assertEquals(table.find(42), -1);
+        table.store(42, 2, 1.5);
+        int index = table.find(42);
+        assertEquals(table.getValue(index), 1.5);
+        assertEquals(table.getDepth(index), 2);
+        assertTrue(table.isFromThisSearch(index));
+
+        table.store(42 + 16, 1, 7); // same slot, shallower
+        assertEquals(table.getValue(table.find(42)), 1.5);
+        table.newSearch();
+        assertFalse(table.isFromThisSearch(table.find(42)));
+        table.store(42 + 16, 1, 7); // older entries give way
+        assertEquals(table.find(42), -1);
+        assertEquals(table.getValue(table.find(42 + 16)), 7.0);
+        assertEquals(table.getReplaceCnt(), 1);
+        assertEquals(table.getHitRate(), 4.0 / 6);
+    }
+
+    private WorldState createState() {
+        return WorldState.fromLists(
+                2,
+                3,
+                asList(new BusterBuilder(1, 2, 0).build(), new BusterBuilder(3, 4, 1).build(),
+                        new BusterBuilder(40, 40, 2).build(), new BusterBuilder(45, 45, 3).carryingGhost(2).build()),
+                asList(new GhostBuilder(0, 10, 10).build(), new GhostBuilder(1, 20, 20).stamina(3).build()),
+                5
+        );
+    }
+}